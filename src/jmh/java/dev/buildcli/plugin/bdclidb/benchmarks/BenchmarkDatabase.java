@@ -0,0 +1,50 @@
+package dev.buildcli.plugin.bdclidb.benchmarks;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+
+/**
+ * Embedded databases seeded with a {@code rows} table of a given size.
+ */
+final class BenchmarkDatabase {
+  private BenchmarkDatabase() {
+  }
+
+  static DbConnection create(String platform, int rows) {
+    var connection = switch (platform) {
+      case "h2" -> new DbConnection("bench", "jdbc:h2:mem:bench" + rows + ";DB_CLOSE_DELAY=-1", "sa", "", "h2");
+      case "sqlite" -> new DbConnection("bench", "jdbc:sqlite:" + tempFile(), null, null, "sqlite");
+      default -> throw new IllegalStateException("Unexpected value: " + platform);
+    };
+
+    var seed = switch (platform) {
+      case "h2" -> "insert into rows select x, 'name-' || mod(x, 100), x * 0.5, mod(x, 2) = 0, "
+          + "dateadd('SECOND', x, timestamp '2024-01-01 00:00:00') from system_range(1, " + rows + ")";
+      default -> "insert into rows with recursive seq(x) as (select 1 union all select x + 1 from seq where x < " + rows + ") "
+          + "select x, 'name-' || (x % 100), x * 0.5, x % 2 = 0, datetime('2024-01-01', '+' || x || ' seconds') from seq";
+    };
+
+    try (var con = ConnectionUtils.connect(connection); var stmt = con.createStatement()) {
+      stmt.execute("drop table if exists rows");
+      stmt.execute("create table rows (id bigint primary key, name varchar(32), amount double precision, active boolean, created_at timestamp)");
+      stmt.execute(seed);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+    return connection;
+  }
+
+  private static String tempFile() {
+    try {
+      var file = Files.createTempFile("bdclidb-bench", ".sqlite");
+      file.toFile().deleteOnExit();
+      return file.toString();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
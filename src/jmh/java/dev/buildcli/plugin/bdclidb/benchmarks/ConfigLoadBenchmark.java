@@ -0,0 +1,69 @@
+package dev.buildcli.plugin.bdclidb.benchmarks;
+
+import dev.buildcli.core.domain.configs.BuildCLIConfig;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static dev.buildcli.plugin.bdclidb.constants.ConfigConstants.BUILD_CLI_CONNECTION;
+import static dev.buildcli.plugin.bdclidb.constants.ConfigConstants.BUILD_CLI_OBJECT;
+import static dev.buildcli.plugin.bdclidb.utils.ConnectionUtils.loadConnections;
+import static dev.buildcli.plugin.bdclidb.utils.ObjectUtils.loadObjects;
+
+/**
+ * Parsing connections and objects out of large configurations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfigLoadBenchmark {
+  @Param({"100", "1000"})
+  private int entries;
+
+  private BuildCLIConfig config;
+
+  @Setup
+  public void setUp() {
+    config = BuildCLIConfig.empty();
+    for (var i = 0; i < entries; i++) {
+      var connection = "%s.conn%d".formatted(BUILD_CLI_CONNECTION, i);
+      config.addOrSetProperty(connection + ".name", "conn" + i);
+      config.addOrSetProperty(connection + ".url", "jdbc:h2:mem:db" + i);
+      config.addOrSetProperty(connection + ".user", "sa");
+      config.addOrSetProperty(connection + ".password", "");
+      config.addOrSetProperty(connection + ".platform", "h2");
+
+      var object = "%s.obj%d".formatted(BUILD_CLI_OBJECT, i);
+      config.addOrSetProperty(object + ".name", "obj" + i);
+      config.addOrSetProperty(object + ".sql", "select * from table" + i);
+      config.addOrSetProperty(object + ".connection", "conn" + (i % 10));
+      config.addOrSetProperty(object + ".cacheTtl", "1h");
+    }
+  }
+
+  @Benchmark
+  public Map<String, DbConnection> connections() {
+    return loadConnections(config);
+  }
+
+  @Benchmark
+  public Map<String, DbObject> objects() {
+    return loadObjects(config);
+  }
+}
@@ -0,0 +1,81 @@
+package dev.buildcli.plugin.bdclidb.benchmarks;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.data.BulkImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV bulk import, the loop behind {@code db import}, into an emptied table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportBenchmark {
+  @Param({"h2", "sqlite"})
+  private String platform;
+
+  @Param({"100000"})
+  private int rows;
+
+  @Param({"100", "1000"})
+  private int batchSize;
+
+  @Param({"1", "4"})
+  private int threads;
+
+  private DbConnection connection;
+  private Path file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    connection = BenchmarkDatabase.create(platform, 0);
+    file = Files.createTempFile("bdclidb-import", ".csv");
+    try (var writer = Files.newBufferedWriter(file)) {
+      writer.write("id,name,amount,active,created_at\n");
+      for (var i = 1; i <= rows; i++) {
+        writer.write("%d,name-%d,%s,%b,2024-01-01T00:00:%02d\n".formatted(i, i % 100, i * 0.5, i % 2 == 0, i % 60));
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void truncate() throws SQLException {
+    try (var con = ConnectionUtils.connect(connection); var stmt = con.createStatement()) {
+      stmt.execute("delete from rows");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    ConnectionUtils.closePools();
+  }
+
+  @Benchmark
+  public BulkImporter.Result importCsv() {
+    var options = BulkImporter.Options.defaults().withBatchSize(batchSize).withThreads(threads);
+    return BulkImporter.importCsv(connection, "rows", file, options);
+  }
+}
@@ -0,0 +1,70 @@
+package dev.buildcli.plugin.bdclidb.benchmarks;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.data.ColumnarResult;
+import dev.buildcli.plugin.bdclidb.utils.data.ObjectLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row materialization of eager objects, the loop behind {@code connect}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ObjectLoadBenchmark {
+  @Param({"h2", "sqlite"})
+  private String platform;
+
+  @Param({"10000", "1000000"})
+  private int rows;
+
+  private DbConnection connection;
+  private DbObject object;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    connection = BenchmarkDatabase.create(platform, rows);
+    object = new DbObject("rows", "select * from rows", connection.name());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ConnectionUtils.closePools();
+  }
+
+  @Benchmark
+  public ColumnarResult materialize() throws SQLException {
+    try (var pooled = ConnectionUtils.pool(connection).borrow();
+         var stmt = pooled.connection().createStatement();
+         var rs = stmt.executeQuery(object.sql())) {
+      return ColumnarResult.from(rs);
+    }
+  }
+
+  @Benchmark
+  public List<ObjectLoader.Result> load() {
+    return ObjectLoader.load(Map.of(connection, List.of(object)));
+  }
+}
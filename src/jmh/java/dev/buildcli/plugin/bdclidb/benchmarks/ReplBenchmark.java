@@ -0,0 +1,80 @@
+package dev.buildcli.plugin.bdclidb.benchmarks;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+import dev.buildcli.plugin.bdclidb.utils.data.ColumnarResult;
+import dev.buildcli.plugin.bdclidb.utils.data.Schema;
+import dev.buildcli.plugin.bdclidb.utils.repl.Repl;
+import org.jline.reader.Candidate;
+import org.jline.reader.impl.DefaultParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of common REPL expression shapes and tab completion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReplBenchmark {
+  private static final Map<String, String> EXPRESSIONS = Map.of(
+      "arithmetic", "1 + 2 * 3",
+      "assignment", "total = users.size()",
+      "declaration", "def names = users.collect { it.name }",
+      "filter", "users.findAll { it.active && it.amount > 100 }.size()",
+      "groupBy", "users.groupBy { it.name }.collectEntries { k, v -> [k, v.size()] }"
+  );
+
+  @Param({"arithmetic", "assignment", "declaration", "filter", "groupBy"})
+  private String shape;
+
+  @Param({":", "us", "println"})
+  private String prefix;
+
+  private Repl repl;
+  private String expression;
+  private DefaultParser parser;
+
+  @Setup
+  public void setUp() {
+    var schema = new Schema(new String[]{"id", "name", "amount", "active"},
+        new ColumnType[]{ColumnType.LONG, ColumnType.STRING, ColumnType.DOUBLE, ColumnType.BOOLEAN});
+    var users = new ColumnarResult(schema, 10_000);
+    for (var i = 0; i < 10_000; i++) {
+      users.add(Map.of("id", (long) i, "name", "name-" + i % 100, "amount", i * 0.5, "active", i % 2 == 0));
+    }
+
+    repl = new Repl();
+    repl.setVariable("users", users);
+    expression = EXPRESSIONS.get(shape);
+    parser = new DefaultParser();
+  }
+
+  @Benchmark
+  public Object evaluate() {
+    return repl.evaluateGroovy(expression);
+  }
+
+  @Benchmark
+  public List<Candidate> complete() {
+    var candidates = new ArrayList<Candidate>();
+    repl.getCompleter().complete(null, parser.parse(prefix, prefix.length()), candidates);
+    return candidates;
+  }
+}
@@ -3,12 +3,16 @@ package dev.buildcli.plugin.bdclidb.commands;
 import dev.buildcli.plugin.BuildCLICommandPlugin;
 import dev.buildcli.plugin.bdclidb.commands.db.ConfigCommand;
 import dev.buildcli.plugin.bdclidb.commands.db.ConnectCommand;
+import dev.buildcli.plugin.bdclidb.commands.db.CopyCommand;
+import dev.buildcli.plugin.bdclidb.commands.db.ExportCommand;
+import dev.buildcli.plugin.bdclidb.commands.db.ImportCommand;
+import dev.buildcli.plugin.bdclidb.commands.db.WarmupCommand;
 import picocli.CommandLine.Command;
 
 import static picocli.CommandLine.usage;
 
 @Command(name = "database", aliases = {"db"}, description = "", mixinStandardHelpOptions = true,
-    subcommands = {ConfigCommand.class, ConnectCommand.class}
+    subcommands = {ConfigCommand.class, ConnectCommand.class, CopyCommand.class, ExportCommand.class, ImportCommand.class, WarmupCommand.class}
 )
 public class BdcliDBCommand extends BuildCLICommandPlugin {
   @Override
@@ -2,19 +2,29 @@ package dev.buildcli.plugin.bdclidb.commands.db;
 
 import dev.buildcli.core.domain.BuildCLICommand;
 import dev.buildcli.core.domain.configs.BuildCLIConfig;
-import dev.buildcli.core.utils.config.ConfigContextLoader;
+import dev.buildcli.plugin.bdclidb.enums.LoadMode;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
 import dev.buildcli.plugin.bdclidb.models.Scope;
+import dev.buildcli.plugin.bdclidb.utils.ConfigIndex;
 import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.data.LazyObject;
+import dev.buildcli.plugin.bdclidb.utils.data.ObjectLoader;
+import dev.buildcli.plugin.bdclidb.utils.data.ObjectRefresher;
+import dev.buildcli.plugin.bdclidb.utils.data.OffHeapStore;
+import dev.buildcli.plugin.bdclidb.utils.data.ParameterizedObject;
+import dev.buildcli.plugin.bdclidb.utils.data.ResultCache;
+import dev.buildcli.plugin.bdclidb.utils.repl.DbHandle;
+import dev.buildcli.plugin.bdclidb.utils.repl.FromFunction;
 import dev.buildcli.plugin.bdclidb.utils.repl.Repl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
 import java.util.*;
 
-import static dev.buildcli.plugin.bdclidb.utils.ConnectionUtils.loadConnections;
-import static dev.buildcli.plugin.bdclidb.utils.ObjectUtils.loadObjects;
 import static java.util.Objects.nonNull;
 
 @Command(name = "connect", aliases = {"con"}, description = "Connect with database and navigate with objects",
@@ -26,20 +36,22 @@ public class ConnectCommand implements BuildCLICommand {
   @ArgGroup
   private Scope scope;
 
+  @Option(names = {"--refresh", "-r"}, description = "Ignore cached object results and fetch them again")
+  private boolean refresh;
+
   @Override
   public void run() {
-    var config = getConfig();
-
-    var connections = loadConnections(config);
-    var objects = loadObjects(config);
-    var objectsLoaded = 0;
+    var index = ConfigIndex.of(scope == null || scope.isLocal());
+    var connections = index.getConnections();
+    var objects = index.getObjects();
 
     System.out.println(connections.values());
     System.out.println(objects.values());
 
-    Map<String, List<Map<String, Object>>> mapObjects = new HashMap<>();
+    Map<String, Object> mapObjects = new HashMap<>();
+    var lazyObjects = new ArrayList<LazyObject>();
+    var eagerObjects = new LinkedHashMap<DbConnection, List<DbObject>>();
 
-    logger.info("Loading objects from database...");
     for (var connection : connections.values()) {
       var objectsByConnectionName = objects.values().stream()
           .filter(o -> nonNull(o.connection()))
@@ -48,54 +60,76 @@ public class ConnectCommand implements BuildCLICommand {
           .filter(o -> o.sql().toLowerCase().startsWith("select"))
           .toList();
 
-      if (objectsByConnectionName.isEmpty()) {
-        continue;
+      for (var o : objectsByConnectionName) {
+        if (o.isParameterized()) {
+          mapObjects.put(o.name(), new ParameterizedObject(o, connection));
+        } else if (o.mode() == LoadMode.LAZY) {
+          var lazyObject = new LazyObject(o, connection);
+          lazyObjects.add(lazyObject);
+          mapObjects.put(o.name(), lazyObject);
+        } else {
+          eagerObjects.computeIfAbsent(connection, c -> new ArrayList<>()).add(o);
+        }
       }
+    }
 
-      logger.info("Connecting to database {}", connection.name());
-      try (var con = ConnectionUtils.connect(connection)) {
-        logger.info("Connected to database {}", connection.name());
-
-        logger.info("Retrieving objects from database {}", connection.name());
-
-        try (var stmt = con.createStatement()) {
-          for (var o : objectsByConnectionName) {
-            var rs = stmt.executeQuery(o.sql());
-            var rows = new LinkedList<Map<String, Object>>();
-            while (rs.next()) {
-              var row = new LinkedHashMap<String, Object>();
-              for (var i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
-                var columnName = rs.getMetaData().getColumnName(i);
-                row.put(columnName, rs.getObject(i));
-              }
-
-              if (!row.isEmpty()) {
-                rows.add(row);
-                objectsLoaded++;
-              }
-            }
-
-            mapObjects.put(o.name(), rows);
-          }
-        }
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+    var cache = new ResultCache();
+    var refresher = new ObjectRefresher(cache);
+    eagerObjects.forEach((connection, list) -> list.forEach(o -> refresher.register(o, connection)));
+
+    logger.info("Loading objects from database...");
+    var start = System.nanoTime();
+    var results = ObjectLoader.load(eagerObjects, cache, refresh);
+    var objectsLoaded = 0;
+    var failures = new ArrayList<ObjectLoader.Result>();
+
+    for (var result : results) {
+      if (result.isSuccess()) {
+        mapObjects.put(result.object().name(), result.rows());
+        objectsLoaded += result.rows().size();
+      } else {
+        failures.add(result);
       }
+    }
+    logger.info("Objects loaded from database: {} in {} ms.", objectsLoaded, (System.nanoTime() - start) / 1_000_000);
 
+    for (var failure : failures) {
+      logger.error("Object {} ({}) was not loaded: {}", failure.object().name(), failure.object().connection(),
+          failure.error() == null ? "unknown error" : failure.error().getMessage());
     }
-    logger.info("Objects loaded from database: {}.", objectsLoaded);
 
     var repl = new Repl();
+    repl.setRefresher(refresher);
 
     for (var entry : mapObjects.entrySet()) {
       repl.setVariable(entry.getKey(), entry.getValue());
     }
 
-    repl.start();
+    var handles = new TreeMap<String, DbHandle>();
+    for (var connection : connections.values()) {
+      handles.put(connection.name(), new DbHandle(ConnectionUtils.pool(connection)));
+    }
+    repl.setVariable("dbs", handles);
+    repl.setVariable("from", new FromFunction(objects, connections));
+    if (!handles.isEmpty()) {
+      var defaultHandle = handles.firstEntry().getValue();
+      repl.setVariable("db", defaultHandle);
+      if (handles.size() > 1) {
+        logger.info("'db' is bound to connection {}, use dbs['name'] for the others", defaultHandle.getName());
+      }
+    }
 
+    try {
+      repl.start();
+    } finally {
+      lazyObjects.forEach(LazyObject::close);
+      repl.getSql().close();
+      OffHeapStore.releaseAll();
+      ConnectionUtils.closePools();
+    }
   }
 
   public BuildCLIConfig getConfig() {
-    return scope == null || scope.isLocal() ? ConfigContextLoader.getLocalConfig() : ConfigContextLoader.getGlobalConfig();
+    return ConfigIndex.of(scope == null || scope.isLocal()).getConfig();
   }
 }
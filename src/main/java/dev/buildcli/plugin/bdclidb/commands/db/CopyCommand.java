@@ -0,0 +1,113 @@
+package dev.buildcli.plugin.bdclidb.commands.db;
+
+import dev.buildcli.core.domain.BuildCLICommand;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.models.Scope;
+import dev.buildcli.plugin.bdclidb.utils.ConfigIndex;
+import dev.buildcli.plugin.bdclidb.utils.data.TableCopier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Command(name = "copy", aliases = {"cp"}, description = "Copy a table or object from one configured connection into another",
+    mixinStandardHelpOptions = true
+)
+public class CopyCommand implements BuildCLICommand {
+  private final Logger logger = LoggerFactory.getLogger(CopyCommand.class);
+
+  @ArgGroup
+  private Scope scope;
+
+  @ArgGroup(multiplicity = "1")
+  private Source source;
+
+  @Option(names = {"--from"}, description = "Source connection; defaults to the connection of --object")
+  private String from;
+
+  @Option(names = {"--to"}, required = true, description = "Target connection")
+  private String to;
+
+  @Option(names = {"--target-table"}, description = "Target table; defaults to the source table or object name")
+  private String targetTable;
+
+  @Option(names = {"--truncate"}, description = "Delete the rows of the target table before copying")
+  private boolean truncate;
+
+  @Option(names = {"--batch-size", "-b"}, description = "Rows per fetched and inserted batch (default 1000)")
+  private Integer batchSize;
+
+  @Option(names = {"--queue-depth", "-q"}, description = "Batches buffered between reader and writer (default 4)")
+  private Integer queueDepth;
+
+  @Option(names = {"--commit-every", "-c"}, description = "Rows inserted between commits (default 10000)")
+  private Integer commitEvery;
+
+  @Option(names = {"--param", "-p"}, description = "Parameter of parameterized objects, e.g. -p customerId=42")
+  private Map<String, String> params = new HashMap<>();
+
+  static class Source {
+    @Option(names = {"--object"}, required = true, description = "Configured object to copy")
+    private String object;
+
+    @Option(names = {"--table"}, required = true, description = "Source table to copy")
+    private String table;
+  }
+
+  @Override
+  public void run() {
+    var index = ConfigIndex.of(scope == null || scope.isLocal());
+
+    DbObject object;
+    if (source.object != null) {
+      object = index.getObjects().get(source.object);
+      if (object == null) {
+        logger.error("Object {} is not configured", source.object);
+        return;
+      }
+      if (from != null && !from.equals(object.connection())) {
+        logger.error("Object {} belongs to connection {}, not {}", object.name(), object.connection(), from);
+        return;
+      }
+    } else {
+      if (from == null) {
+        logger.error("--from is required when copying a table");
+        return;
+      }
+      object = new DbObject(source.table, "select * from " + source.table, from);
+    }
+
+    var sourceConnection = index.getConnections().get(object.connection());
+    if (sourceConnection == null) {
+      logger.error("Connection {} is not configured", object.connection());
+      return;
+    }
+    var targetConnection = index.getConnections().get(to);
+    if (targetConnection == null) {
+      logger.error("Connection {} is not configured", to);
+      return;
+    }
+
+    var options = TableCopier.Options.defaults().withTruncate(truncate);
+    if (batchSize != null) {
+      options = options.withBatchSize(batchSize);
+      object = object.withOption("fetchSize", String.valueOf(batchSize));
+    }
+    if (queueDepth != null) {
+      options = options.withQueueDepth(queueDepth);
+    }
+    if (commitEvery != null) {
+      options = options.withCommitEvery(commitEvery);
+    }
+
+    var table = targetTable == null ? object.name() : targetTable;
+    logger.info("Copying {} from {} into {}.{}", object.name(), sourceConnection.name(), targetConnection.name(), table);
+    var result = TableCopier.copy(sourceConnection, object, targetConnection, table, options, new HashMap<>(params));
+    logger.info("Copied {} rows in {} ms ({} rows/s, bounded by the {})", result.rows(), result.elapsed().toMillis(),
+        Math.round(result.rowsPerSecond()), result.bottleneck());
+  }
+}
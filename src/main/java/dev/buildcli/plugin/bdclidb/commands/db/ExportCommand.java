@@ -0,0 +1,116 @@
+package dev.buildcli.plugin.bdclidb.commands.db;
+
+import dev.buildcli.core.domain.BuildCLICommand;
+import dev.buildcli.plugin.bdclidb.enums.ExportFormat;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.models.Scope;
+import dev.buildcli.plugin.bdclidb.utils.ConfigIndex;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.data.ObjectExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Command(name = "export", aliases = {"exp"}, description = "Stream objects from the database to CSV, JSON Lines or binary files",
+    mixinStandardHelpOptions = true
+)
+public class ExportCommand implements BuildCLICommand {
+  private final Logger logger = LoggerFactory.getLogger(ExportCommand.class);
+
+  @ArgGroup
+  private Scope scope;
+
+  @Parameters(arity = "1..*", paramLabel = "<object>", description = "Objects to export")
+  private List<String> names;
+
+  @Option(names = {"--format", "-f"}, description = "Output format: csv (default), jsonl or bin")
+  private String format;
+
+  @Option(names = {"--out", "-o"}, description = "Output file, or directory for several objects; defaults to <object>.<format> in the current directory")
+  private Path out;
+
+  @Option(names = {"--gzip", "-z"}, description = "Compress the output with gzip")
+  private boolean gzip;
+
+  @Option(names = {"--param", "-p"}, description = "Parameter of parameterized objects, e.g. -p customerId=42")
+  private Map<String, String> params = new HashMap<>();
+
+  @Override
+  public void run() {
+    var index = ConfigIndex.of(scope == null || scope.isLocal());
+    var format = ExportFormat.fromString(this.format);
+
+    var objectsByConnection = new LinkedHashMap<DbConnection, List<DbObject>>();
+    for (var name : names) {
+      var object = index.getObjects().get(name);
+      if (object == null) {
+        logger.error("Object {} is not configured", name);
+        return;
+      }
+      var connection = index.getConnections().get(object.connection());
+      if (connection == null) {
+        logger.error("Connection {} of object {} is not configured", object.connection(), name);
+        return;
+      }
+      objectsByConnection.computeIfAbsent(connection, c -> new ArrayList<>()).add(object);
+    }
+
+    var files = new HashMap<String, Path>();
+    try {
+      for (var name : names) {
+        files.put(name, file(name, format));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+
+    var start = System.nanoTime();
+    List<ObjectExporter.Result> results;
+    try {
+      results = ObjectExporter.export(objectsByConnection, files, format, gzip, new HashMap<>(params));
+    } finally {
+      ConnectionUtils.closePools();
+    }
+
+    var rows = 0L;
+    var bytes = 0L;
+    for (var result : results) {
+      if (result.isSuccess()) {
+        rows += result.rows();
+        bytes += result.bytes();
+      } else {
+        logger.error("Object {} ({}) was not exported: {}", result.object().name(), result.object().connection(),
+            result.error() == null ? "unknown error" : result.error().getMessage());
+      }
+    }
+    logger.info("Exported {} rows ({} MB) in {} ms", rows, bytes >> 20, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * {@code --out} names the file of a single object; otherwise it is the directory the files go to.
+   */
+  private Path file(String name, ExportFormat format) throws IOException {
+    if (out != null && names.size() == 1 && !Files.isDirectory(out)) {
+      if (out.toAbsolutePath().getParent() != null) {
+        Files.createDirectories(out.toAbsolutePath().getParent());
+      }
+      return out;
+    }
+    var directory = out == null ? Path.of("") : out;
+    Files.createDirectories(directory.toAbsolutePath());
+    return directory.resolve(name + "." + format.extension() + (gzip ? ".gz" : ""));
+  }
+}
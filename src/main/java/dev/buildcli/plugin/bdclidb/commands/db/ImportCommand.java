@@ -0,0 +1,75 @@
+package dev.buildcli.plugin.bdclidb.commands.db;
+
+import dev.buildcli.core.domain.BuildCLICommand;
+import dev.buildcli.plugin.bdclidb.models.Scope;
+import dev.buildcli.plugin.bdclidb.utils.ConfigIndex;
+import dev.buildcli.plugin.bdclidb.utils.data.BulkImporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.nio.file.Path;
+
+@Command(name = "import", aliases = {"imp"}, description = "Bulk load a CSV file into a table of a configured connection",
+    mixinStandardHelpOptions = true
+)
+public class ImportCommand implements BuildCLICommand {
+  private final Logger logger = LoggerFactory.getLogger(ImportCommand.class);
+
+  @ArgGroup
+  private Scope scope;
+
+  @Parameters(index = "0", paramLabel = "<connection>", description = "Connection name")
+  private String connectionName;
+
+  @Parameters(index = "1", paramLabel = "<table>", description = "Target table")
+  private String table;
+
+  @Parameters(index = "2", paramLabel = "<file>", description = "CSV file with a header row naming the columns, optionally gzipped (.gz)")
+  private Path file;
+
+  @Option(names = {"--batch-size", "-b"}, description = "Rows per JDBC batch (default 1000)")
+  private Integer batchSize;
+
+  @Option(names = {"--threads", "-t"}, description = "Writer threads, each on its own connection (default: the connection parallelism)")
+  private Integer threads;
+
+  @Option(names = {"--commit-every", "-c"}, description = "Rows each writer inserts between commits (default 10000)")
+  private Integer commitEvery;
+
+  @Option(names = {"--delimiter", "-d"}, description = "Field delimiter (default ,)")
+  private Character delimiter;
+
+  @Override
+  public void run() {
+    var index = ConfigIndex.of(scope == null || scope.isLocal());
+    var connection = index.getConnections().get(connectionName);
+    if (connection == null) {
+      logger.error("Connection {} is not configured", connectionName);
+      return;
+    }
+
+    var options = BulkImporter.Options.defaults().withThreads(connection.parallelism());
+    if (batchSize != null) {
+      options = options.withBatchSize(batchSize);
+    }
+    if (threads != null) {
+      options = options.withThreads(threads);
+    }
+    if (commitEvery != null) {
+      options = options.withCommitEvery(commitEvery);
+    }
+    if (delimiter != null) {
+      options = options.withDelimiter(delimiter);
+    }
+
+    logger.info("Importing {} into {}.{} with {} thread(s), batches of {} rows", file, connection.name(), table,
+        options.threads(), options.batchSize());
+    var result = BulkImporter.importCsv(connection, table, file, options);
+    logger.info("Imported {} rows into {} in {} ms ({} rows/s)", result.rows(), table, result.elapsed().toMillis(),
+        Math.round(result.rowsPerSecond()));
+  }
+}
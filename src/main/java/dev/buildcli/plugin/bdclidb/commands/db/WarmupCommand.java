@@ -0,0 +1,149 @@
+package dev.buildcli.plugin.bdclidb.commands.db;
+
+import dev.buildcli.core.domain.BuildCLICommand;
+import dev.buildcli.plugin.bdclidb.utils.WarmupSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Command(name = "warmup", description = "Record a class data sharing archive that speeds up later plugin startups",
+    mixinStandardHelpOptions = true
+)
+public class WarmupCommand implements BuildCLICommand {
+  private final Logger logger = LoggerFactory.getLogger(WarmupCommand.class);
+
+  private static final Path DEFAULT_ARCHIVE = Path.of(System.getProperty("user.home"), ".buildcli", "bdclidb", "bdclidb.jsa");
+  private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+  private static final List<String> CDS_OPTIONS = List.of("-Xshare", "-XX:SharedArchiveFile", "-XX:ArchiveClassesAtExit",
+      "-XX:+AutoCreateSharedArchive", "-XX:-AutoCreateSharedArchive");
+
+  @Option(names = {"--archive", "-a"}, description = "Archive file, defaults to ~/.buildcli/bdclidb/bdclidb.jsa")
+  private Path archive;
+
+  @Option(names = {"--session"}, hidden = true, description = "Run the training session in this JVM")
+  private boolean session;
+
+  @Override
+  public void run() {
+    if (session) {
+      WarmupSession.run();
+      return;
+    }
+
+    var archive = (this.archive == null ? DEFAULT_ARCHIVE : this.archive).toAbsolutePath();
+    var launcher = launcher();
+    try {
+      Files.createDirectories(archive.getParent());
+      Files.deleteIfExists(archive);
+
+      logger.info("Running the warmup session without an archive...");
+      var baseline = runSession(launcher, List.of());
+      logger.info("Recording {}...", archive);
+      runSession(launcher, List.of("-XX:ArchiveClassesAtExit=" + archive));
+      logger.info("Running the warmup session with the archive...");
+      var archived = runSession(launcher, List.of("-XX:SharedArchiveFile=" + archive));
+
+      logger.info("Archive written to {} ({} MB)", archive, Files.size(archive) >> 20);
+      logger.info("Warmup session: {} ms without the archive, {} ms with it", baseline, archived);
+
+      // The plugin runs inside the BuildCLI JVM, which only reads the archive when it is started with it.
+      // The options go into a launcher of its own, a global JDK_JAVA_OPTIONS would make every other
+      // Java program map the archive and, with AutoCreateSharedArchive, record it again with its classes.
+      var script = writeLauncher(launcher, archive);
+      logger.info("Launcher written to {}, to use the archive for every buildcli invocation add this to your shell profile:", script);
+      logger.info(WINDOWS ? "  doskey buildcli=\"{}\" $*" : "  alias buildcli='{}'", script);
+      logger.info("The launcher records the archive again when BuildCLI or the plugin change.");
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Writes a script next to the archive that starts BuildCLI like {@code launcher}, with the
+   * archive, and passes its arguments on.
+   */
+  private static Path writeLauncher(List<String> launcher, Path archive) throws IOException {
+    var command = new ArrayList<>(launcher.subList(0, 1));
+    command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-XX:+AutoCreateSharedArchive"));
+    command.addAll(launcher.subList(1, launcher.size()));
+
+    Path script;
+    if (WINDOWS) {
+      script = archive.resolveSibling("buildcli.cmd");
+      var line = String.join(" ", command.stream().map(arg -> "\"" + arg.replace("%", "%%") + "\"").toList());
+      Files.writeString(script, "@echo off\r\n" + line + " %*\r\n");
+    } else {
+      script = archive.resolveSibling("buildcli");
+      var line = String.join(" ", command.stream().map(arg -> "'" + arg.replace("'", "'\\''") + "'").toList());
+      Files.writeString(script, "#!/bin/sh\nexec " + line + " \"$@\"\n");
+      script.toFile().setExecutable(true);
+    }
+    return script;
+  }
+
+  /**
+   * Command line that starts this JVM again with {@code db warmup --session}, with the same main
+   * class, class path and JVM options so the archive matches later invocations.
+   */
+  private static List<String> launcher() {
+    var command = System.getProperty("sun.java.command");
+    if (command == null || command.isBlank()) {
+      throw new IllegalStateException("Cannot determine how this JVM was launched");
+    }
+
+    var java = ProcessHandle.current().info().command()
+        .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    var launcher = new ArrayList<String>();
+    launcher.add(java);
+    for (var option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      if (CDS_OPTIONS.stream().noneMatch(option::startsWith)) {
+        launcher.add(option);
+      }
+    }
+
+    var main = command.split(" ")[0];
+    if (main.endsWith(".jar")) {
+      launcher.addAll(List.of("-jar", main));
+    } else {
+      launcher.addAll(List.of("-cp", System.getProperty("java.class.path"), main));
+    }
+    return launcher;
+  }
+
+  private long runSession(List<String> launcher, List<String> options) throws IOException {
+    var command = new ArrayList<>(launcher.subList(0, 1));
+    command.addAll(options);
+    command.addAll(launcher.subList(1, launcher.size()));
+    command.addAll(List.of("db", "warmup", "--session"));
+
+    var builder = new ProcessBuilder(command).redirectErrorStream(true);
+    // JVM options of this process are already on the command line
+    builder.environment().remove("JDK_JAVA_OPTIONS");
+
+    var start = System.nanoTime();
+    var process = builder.start();
+    var output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    try {
+      var exitCode = process.waitFor();
+      var elapsed = (System.nanoTime() - start) / 1_000_000;
+      if (exitCode != 0) {
+        throw new RuntimeException("Warmup session failed with exit code %d:%n%s".formatted(exitCode, output));
+      }
+      logger.debug("{}", output);
+      return elapsed;
+    } catch (InterruptedException e) {
+      process.destroy();
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+}
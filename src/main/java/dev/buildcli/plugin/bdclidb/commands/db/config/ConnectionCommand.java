@@ -4,6 +4,7 @@ import dev.buildcli.core.domain.BuildCLICommand;
 import dev.buildcli.core.domain.configs.BuildCLIConfig;
 import dev.buildcli.plugin.bdclidb.commands.db.ConfigCommand;
 import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConfigIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine.Command;
@@ -18,7 +19,6 @@ import static dev.buildcli.core.utils.config.ConfigContextLoader.*;
 import static dev.buildcli.core.utils.input.InteractiveInputUtils.confirm;
 import static dev.buildcli.core.utils.input.InteractiveInputUtils.question;
 import static dev.buildcli.plugin.bdclidb.constants.ConfigConstants.BUILD_CLI_CONNECTION;
-import static dev.buildcli.plugin.bdclidb.utils.ConnectionUtils.loadConnections;
 
 @Command(name = "connection", aliases = {"con", "c"}, description = "Database connections config", mixinStandardHelpOptions = true)
 public class ConnectionCommand implements BuildCLICommand {
@@ -38,15 +38,12 @@ public class ConnectionCommand implements BuildCLICommand {
   @Option(names = {"--platform", "-P"}, description = "Connection platform")
   private String platform;
 
-  private BuildCLIConfig getConfig() {
-    return parent.isLocal() ? getLocalConfig() : getGlobalConfig();
-  }
-
   @Override
   public void run() {
-    var config = getConfig();
+    var index = ConfigIndex.of(parent.isLocal());
+    var config = index.getConfig();
 
-    var connections = new HashMap<>(loadConnections(config));
+    var connections = new HashMap<>(index.getConnections());
 
     System.out.println(connections);
 
@@ -79,6 +76,9 @@ public class ConnectionCommand implements BuildCLICommand {
       config.addOrSetProperty("%s.%s.user".formatted(BUILD_CLI_CONNECTION, name), connection.user());
       config.addOrSetProperty("%s.%s.password".formatted(BUILD_CLI_CONNECTION, name), connection.password());
       config.addOrSetProperty("%s.%s.platform".formatted(BUILD_CLI_CONNECTION, name), connection.platform());
+      for (var option : connection.options().entrySet()) {
+        config.addOrSetProperty("%s.%s.%s".formatted(BUILD_CLI_CONNECTION, name, option.getKey()), option.getValue());
+      }
     }
 
     saveConfig(config, parent.isLocal());
@@ -3,8 +3,15 @@ package dev.buildcli.plugin.bdclidb.commands.db.config;
 import dev.buildcli.core.domain.BuildCLICommand;
 import dev.buildcli.core.domain.configs.BuildCLIConfig;
 import dev.buildcli.plugin.bdclidb.commands.db.ConfigCommand;
+import dev.buildcli.plugin.bdclidb.enums.LoadMode;
+import dev.buildcli.plugin.bdclidb.enums.StorageMode;
 import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbIndex;
 import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.models.DbParam;
+import dev.buildcli.plugin.bdclidb.utils.ConfigIndex;
+import dev.buildcli.plugin.bdclidb.utils.DurationUtils;
+import dev.buildcli.plugin.bdclidb.utils.SizeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine.Command;
@@ -18,8 +25,6 @@ import java.util.stream.Stream;
 import static dev.buildcli.core.utils.config.ConfigContextLoader.*;
 import static dev.buildcli.core.utils.input.InteractiveInputUtils.*;
 import static dev.buildcli.plugin.bdclidb.constants.ConfigConstants.BUILD_CLI_OBJECT;
-import static dev.buildcli.plugin.bdclidb.utils.ConnectionUtils.loadConnections;
-import static dev.buildcli.plugin.bdclidb.utils.ObjectUtils.loadObjects;
 
 @Command(name = "object", aliases = {"obj", "o"}, description = "Set DbObjects to interact with database", mixinStandardHelpOptions = true)
 public class ObjectCommand implements BuildCLICommand {
@@ -36,24 +41,93 @@ public class ObjectCommand implements BuildCLICommand {
   @Option(names = {"--connection", "-c"}, description = "Object connection name")
   private String connection;
 
-  private BuildCLIConfig getConfig() {
-    return parent.isLocal() ? getLocalConfig() : getGlobalConfig();
-  }
+  @Option(names = {"--mode", "-m"}, description = "Object load mode: eager (default) or lazy")
+  private String mode;
+
+  @Option(names = {"--storage"}, description = "Where loaded rows are kept: heap (default) or offheap")
+  private String storage;
+
+  @Option(names = {"--memory-budget"}, description = "Heap kept for the loaded rows before the rest spills to disk, e.g. 512m or 2g")
+  private String memoryBudget;
+
+  @Option(names = {"--max-rows"}, description = "Rows loaded at most; the query is limited on the server")
+  private Long maxRows;
+
+  @Option(names = {"--query-timeout"}, description = "Time the load may take, e.g. 30s or 5m")
+  private String queryTimeout;
+
+  @Option(names = {"--max-bytes"}, description = "Bytes of loaded values at most, e.g. 256m")
+  private String maxBytes;
+
+  @Option(names = {"--cache-ttl", "-t"}, description = "Keep the object result in the local cache for this long, e.g. 30m or 1d")
+  private String cacheTtl;
+
+  @Option(names = {"--params", "-p"}, description = "Object bind parameters, e.g. customerId:long,status:string")
+  private String params;
+
+  @Option(names = {"--watermark", "-w"}, description = "Column used for incremental refreshes, e.g. updated_at or an increasing id")
+  private String watermark;
+
+  @Option(names = {"--key", "-k"}, description = "Column that identifies a row when refreshed rows are merged")
+  private String key;
+
+  @Option(names = {"--indexes", "-i"}, description = "Indexes built when the object is loaded, e.g. id,created_at:sorted")
+  private String indexes;
 
   @Override
   public void run() {
-    var config = getConfig();
-    var objects = new HashMap<>(loadObjects(config));
-    var connections = new HashMap<>(loadConnections(config));
+    var index = ConfigIndex.of(parent.isLocal());
+    var config = index.getConfig();
+    var objects = new HashMap<>(index.getObjects());
+    var connections = new HashMap<>(index.getConnections());
     var connectionNames = connections.values().stream().filter(Objects::nonNull).map(DbConnection::name).toList();
 
-    if (Stream.of(name, sql, connection).anyMatch(Objects::nonNull)) {
+    if (Stream.of(name, sql, connection, mode, storage, memoryBudget, maxRows, queryTimeout, maxBytes, params, cacheTtl, watermark, key, indexes).anyMatch(Objects::nonNull)) {
       var name = this.name != null ? this.name : question("Enter object name");
       var sql = this.sql != null ? this.sql : question("Enter object sql");
       var connection = this.connection != null ? this.connection :
           (connectionNames.isEmpty() ? question("Enter object connection name") : options("Select a connection", connectionNames));
 
       var object = new DbObject(name, sql, connection);
+      if (mode != null) {
+        object = object.withOption("mode", LoadMode.fromString(mode).name().toLowerCase());
+      }
+      if (storage != null) {
+        object = object.withOption("storage", StorageMode.fromString(storage).name().toLowerCase());
+      }
+      if (memoryBudget != null) {
+        SizeUtils.parse(memoryBudget);
+        object = object.withOption("memoryBudget", memoryBudget);
+      }
+      if (maxRows != null) {
+        object = object.withOption("maxRows", String.valueOf(maxRows));
+      }
+      if (queryTimeout != null) {
+        DurationUtils.parse(queryTimeout);
+        object = object.withOption("queryTimeout", queryTimeout);
+      }
+      if (maxBytes != null) {
+        SizeUtils.parse(maxBytes);
+        object = object.withOption("maxBytes", maxBytes);
+      }
+      if (watermark != null) {
+        object = object.withOption("watermark", watermark);
+      }
+      if (key != null) {
+        object = object.withOption("key", key);
+      }
+      if (indexes != null) {
+        DbIndex.parseList(indexes);
+        object = object.withOption("indexes", indexes);
+      }
+      if (cacheTtl != null) {
+        DurationUtils.parse(cacheTtl);
+        object = object.withOption("cacheTtl", cacheTtl);
+      }
+      if (params != null) {
+        DbParam.parseList(params);
+        object = object.withOption("params", params);
+      }
 
       if (objects.containsKey(name) && confirm("Are you sure you want overwrite this object?")) {
         objects.put(name, object);
@@ -86,6 +160,9 @@ public class ObjectCommand implements BuildCLICommand {
       config.addOrSetProperty("%s.%s.name".formatted(BUILD_CLI_OBJECT, name), name);
       config.addOrSetProperty("%s.%s.sql".formatted(BUILD_CLI_OBJECT, name), object.sql());
       config.addOrSetProperty("%s.%s.connection".formatted(BUILD_CLI_OBJECT, name), object.connection());
+      for (var option : object.options().entrySet()) {
+        config.addOrSetProperty("%s.%s.%s".formatted(BUILD_CLI_OBJECT, name, option.getKey()), option.getValue());
+      }
     }
 
     saveConfig(config, parent.isLocal());
@@ -0,0 +1,31 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+import java.sql.Types;
+
+public enum ColumnType {
+  INT, LONG, DOUBLE, BOOLEAN, TIMESTAMP, STRING, OBJECT;
+
+  /**
+   * Picks the storage type for a JDBC column. Unsigned integers are widened so they never overflow,
+   * and exact numerics only get a primitive column when they have no fractional digits.
+   */
+  public static ColumnType fromJdbc(int sqlType, int precision, int scale, boolean signed) {
+    return switch (sqlType) {
+      case Types.TINYINT, Types.SMALLINT -> INT;
+      case Types.INTEGER -> signed ? INT : LONG;
+      case Types.BIGINT -> signed ? LONG : OBJECT;
+      case Types.REAL, Types.FLOAT, Types.DOUBLE -> DOUBLE;
+      case Types.BOOLEAN -> BOOLEAN;
+      case Types.BIT -> precision <= 1 ? BOOLEAN : OBJECT;
+      case Types.TIMESTAMP -> TIMESTAMP;
+      case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR -> STRING;
+      case Types.NUMERIC, Types.DECIMAL -> {
+        if (scale != 0 || precision <= 0) {
+          yield OBJECT;
+        }
+        yield precision <= 9 ? INT : precision <= 18 ? LONG : OBJECT;
+      }
+      default -> OBJECT;
+    };
+  }
+}
@@ -0,0 +1,143 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+import java.sql.Types;
+
+/**
+ * SQL type names of each platform supported by {@link dev.buildcli.plugin.bdclidb.utils.ConnectionUtils},
+ * used to declare columns when a table is created from the metadata of another database. SQLite
+ * accepts any type name, so it gets the names its driver maps back to the same JDBC types.
+ */
+public enum Dialect {
+  H2("h2", "boolean", "smallint", "integer", "bigint", "double precision", "numeric", "timestamp with time zone",
+      "varchar", 1_000_000, "character large object", "varbinary", "binary large object"),
+  POSTGRESQL("postgresql", "boolean", "smallint", "integer", "bigint", "double precision", "numeric", "timestamptz",
+      "varchar", 10_485_760, "text", "bytea", "bytea"),
+  MYSQL("mysql", "boolean", "smallint", "integer", "bigint", "double", "decimal", "timestamp(6)",
+      "varchar", 16_383, "longtext", "varbinary", "longblob"),
+  ORACLE("oracle", "number(1)", "number(5)", "number(10)", "number(19)", "binary_double", "number", "timestamp with time zone",
+      "varchar2", 4_000, "clob", "raw", "blob"),
+  SQLITE("sqlite", "boolean", "smallint", "integer", "bigint", "double", "numeric", "timestamp",
+      "varchar", Integer.MAX_VALUE, "text", "blob", "blob");
+
+  private final String platform;
+  private final String booleanType;
+  private final String smallintType;
+  private final String integerType;
+  private final String bigintType;
+  private final String doubleType;
+  private final String decimalType;
+  private final String timestampTzType;
+  private final String varcharType;
+  private final int maxVarcharLength;
+  private final String textType;
+  private final String varbinaryType;
+  private final String blobType;
+
+  Dialect(String platform, String booleanType, String smallintType, String integerType, String bigintType, String doubleType,
+          String decimalType, String timestampTzType, String varcharType, int maxVarcharLength, String textType,
+          String varbinaryType, String blobType) {
+    this.platform = platform;
+    this.booleanType = booleanType;
+    this.smallintType = smallintType;
+    this.integerType = integerType;
+    this.bigintType = bigintType;
+    this.doubleType = doubleType;
+    this.decimalType = decimalType;
+    this.timestampTzType = timestampTzType;
+    this.varcharType = varcharType;
+    this.maxVarcharLength = maxVarcharLength;
+    this.textType = textType;
+    this.varbinaryType = varbinaryType;
+    this.blobType = blobType;
+  }
+
+  public static Dialect fromPlatform(String s) {
+    if (s == null || s.isBlank()) {
+      throw new IllegalStateException("Unexpected value: " + s);
+    }
+
+    return switch (s.trim().toLowerCase()) {
+      case "h2" -> H2;
+      case "postgresql", "postgres" -> POSTGRESQL;
+      case "mysql" -> MYSQL;
+      case "oracle" -> ORACLE;
+      case "sqlite" -> SQLITE;
+      default -> throw new IllegalStateException("Unexpected value: " + s);
+    };
+  }
+
+  public String platform() {
+    return platform;
+  }
+
+  /**
+   * Returns the type that declares a column of JDBC type {@code sqlType} in this dialect. Lengths
+   * and precisions the dialect cannot hold fall back to its unbounded types.
+   */
+  public String columnType(int sqlType, int precision, int scale) {
+    return switch (sqlType) {
+      case Types.BOOLEAN -> booleanType;
+      case Types.BIT -> precision <= 1 ? booleanType : bigintType;
+      case Types.TINYINT, Types.SMALLINT -> smallintType;
+      case Types.INTEGER -> integerType;
+      case Types.BIGINT -> bigintType;
+      case Types.REAL, Types.FLOAT, Types.DOUBLE -> doubleType;
+      case Types.NUMERIC, Types.DECIMAL -> precision > 0 && precision <= maxPrecision()
+          ? "%s(%d, %d)".formatted(decimalType, precision, Math.max(0, scale)) : unboundedDecimal();
+      case Types.DATE -> "date";
+      case Types.TIME, Types.TIME_WITH_TIMEZONE -> this == ORACLE ? "timestamp" : "time";
+      case Types.TIMESTAMP -> this == MYSQL ? "datetime(6)" : "timestamp";
+      case Types.TIMESTAMP_WITH_TIMEZONE -> timestampTzType;
+      case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR -> precision > 0 && precision <= maxVarcharLength
+          ? "%s(%d)".formatted(varcharType, precision) : textType;
+      case Types.BINARY, Types.VARBINARY -> precision > 0 && precision <= maxVarbinaryLength()
+          ? "%s(%d)".formatted(varbinaryType, precision) : blobType;
+      case Types.LONGVARBINARY, Types.BLOB -> blobType;
+      default -> textType;
+    };
+  }
+
+  /**
+   * Wraps a query so the server returns at most {@code rows} rows: {@code FETCH FIRST} on Oracle,
+   * {@code LIMIT} elsewhere. Statements that do not start with {@code select}, such as CTEs or
+   * procedure calls, are returned unchanged and only limited on the client.
+   */
+  public String limit(String sql, long rows) {
+    var query = sql.strip();
+    while (query.endsWith(";")) {
+      query = query.substring(0, query.length() - 1).strip();
+    }
+    if (!query.regionMatches(true, 0, "select", 0, 6)) {
+      return sql;
+    }
+    // The line break keeps a trailing line comment from swallowing the closing parenthesis
+    return "select * from (%s\n) limited %s".formatted(query, limitClause(rows));
+  }
+
+  /**
+   * Returns the clause that ends a query to return at most {@code rows} rows.
+   */
+  public String limitClause(long rows) {
+    return this == ORACLE ? "fetch first %d rows only".formatted(rows) : "limit %d".formatted(rows);
+  }
+
+  private int maxPrecision() {
+    return switch (this) {
+      case MYSQL -> 65;
+      case ORACLE -> 38;
+      default -> 1000;
+    };
+  }
+
+  private int maxVarbinaryLength() {
+    return switch (this) {
+      case ORACLE -> 2_000;
+      case POSTGRESQL, SQLITE -> 0;
+      default -> maxVarcharLength;
+    };
+  }
+
+  private String unboundedDecimal() {
+    return this == MYSQL ? "decimal(65, 30)" : decimalType;
+  }
+}
@@ -0,0 +1,28 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+public enum ExportFormat {
+  CSV("csv"), JSONL("jsonl"), BIN("bin");
+
+  private final String extension;
+
+  ExportFormat(String extension) {
+    this.extension = extension;
+  }
+
+  public static ExportFormat fromString(String s) {
+    if (s == null || s.isBlank()) {
+      return CSV;
+    }
+
+    return switch (s.trim().toLowerCase()) {
+      case "csv" -> CSV;
+      case "jsonl", "ndjson", "json" -> JSONL;
+      case "bin", "binary", "snapshot" -> BIN;
+      default -> throw new IllegalStateException("Unexpected value: " + s);
+    };
+  }
+
+  public String extension() {
+    return extension;
+  }
+}
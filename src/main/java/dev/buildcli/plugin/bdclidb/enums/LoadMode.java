@@ -0,0 +1,17 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+public enum LoadMode {
+  EAGER, LAZY;
+
+  public static LoadMode fromString(String s) {
+    if (s == null || s.isBlank()) {
+      return EAGER;
+    }
+
+    return switch (s.trim().toLowerCase()) {
+      case "eager" -> EAGER;
+      case "lazy" -> LAZY;
+      default -> throw new IllegalStateException("Unexpected value: " + s);
+    };
+  }
+}
@@ -0,0 +1,123 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public enum ParamType {
+  STRING(Types.VARCHAR), INT(Types.INTEGER), LONG(Types.BIGINT), DOUBLE(Types.DOUBLE), DECIMAL(Types.DECIMAL),
+  BOOLEAN(Types.BOOLEAN), DATE(Types.DATE), TIMESTAMP(Types.TIMESTAMP);
+
+  private final int sqlType;
+
+  ParamType(int sqlType) {
+    this.sqlType = sqlType;
+  }
+
+  public static ParamType fromString(String s) {
+    if (s == null || s.isBlank()) {
+      return STRING;
+    }
+
+    return switch (s.trim().toLowerCase()) {
+      case "string", "varchar", "text" -> STRING;
+      case "int", "integer" -> INT;
+      case "long", "bigint" -> LONG;
+      case "double", "float" -> DOUBLE;
+      case "decimal", "numeric" -> DECIMAL;
+      case "boolean", "bool" -> BOOLEAN;
+      case "date" -> DATE;
+      case "timestamp", "datetime" -> TIMESTAMP;
+      default -> throw new IllegalStateException("Unexpected value: " + s);
+    };
+  }
+
+  /**
+   * Picks the parameter type that binds values to a column of JDBC type {@code sqlType}.
+   */
+  public static ParamType fromJdbc(int sqlType) {
+    return switch (sqlType) {
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> INT;
+      case Types.BIGINT -> LONG;
+      case Types.REAL, Types.FLOAT, Types.DOUBLE -> DOUBLE;
+      case Types.NUMERIC, Types.DECIMAL -> DECIMAL;
+      case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+      case Types.DATE -> DATE;
+      case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP;
+      default -> STRING;
+    };
+  }
+
+  /**
+   * Binds a REPL value to a statement parameter, converting numbers, strings and java.time values
+   * to the declared type.
+   */
+  public void bind(PreparedStatement stmt, int index, Object value) throws SQLException {
+    if (value == null) {
+      stmt.setNull(index, sqlType);
+      return;
+    }
+
+    switch (this) {
+      case STRING -> stmt.setString(index, value.toString());
+      case INT -> stmt.setInt(index, toNumber(value).intValue());
+      case LONG -> stmt.setLong(index, toNumber(value).longValue());
+      case DOUBLE -> stmt.setDouble(index, value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString().trim()));
+      case DECIMAL -> stmt.setBigDecimal(index, value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString()));
+      case BOOLEAN -> stmt.setBoolean(index, value instanceof Boolean bool ? bool : toBoolean(value));
+      case DATE -> stmt.setDate(index, toDate(value));
+      case TIMESTAMP -> stmt.setTimestamp(index, toTimestamp(value));
+    }
+  }
+
+  private static Number toNumber(Object value) {
+    return value instanceof Number number ? number : new BigDecimal(value.toString().trim());
+  }
+
+  private static boolean toBoolean(Object value) {
+    return switch (value.toString().trim().toLowerCase()) {
+      case "true", "t", "1", "yes", "y" -> true;
+      default -> false;
+    };
+  }
+
+  private static Date toDate(Object value) {
+    if (value instanceof Date date) {
+      return date;
+    }
+    if (value instanceof java.util.Date date) {
+      return new Date(date.getTime());
+    }
+    if (value instanceof LocalDate localDate) {
+      return Date.valueOf(localDate);
+    }
+    return Date.valueOf(LocalDate.parse(value.toString().trim()));
+  }
+
+  private static Timestamp toTimestamp(Object value) {
+    if (value instanceof Timestamp timestamp) {
+      return timestamp;
+    }
+    if (value instanceof java.util.Date date) {
+      return new Timestamp(date.getTime());
+    }
+    if (value instanceof LocalDateTime dateTime) {
+      return Timestamp.valueOf(dateTime);
+    }
+    if (value instanceof Instant instant) {
+      return Timestamp.from(instant);
+    }
+    // ISO-8601 or the SQL form with a space between date and time
+    var text = value.toString().trim();
+    if (text.length() > 10 && text.charAt(10) == ' ') {
+      text = text.substring(0, 10) + 'T' + text.substring(11);
+    }
+    return Timestamp.valueOf(LocalDateTime.parse(text));
+  }
+}
@@ -0,0 +1,17 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+public enum StorageMode {
+  HEAP, OFFHEAP;
+
+  public static StorageMode fromString(String s) {
+    if (s == null || s.isBlank()) {
+      return HEAP;
+    }
+
+    return switch (s.trim().toLowerCase()) {
+      case "heap" -> HEAP;
+      case "offheap", "off-heap" -> OFFHEAP;
+      default -> throw new IllegalStateException("Unexpected value: " + s);
+    };
+  }
+}
@@ -1,19 +1,71 @@
 package dev.buildcli.plugin.bdclidb.models;
 
-public record DbConnection(String name, String url, String user, String password, String platform) {
+import dev.buildcli.plugin.bdclidb.utils.DurationUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+public record DbConnection(String name, String url, String user, String password, String platform, Map<String, String> options) {
+  public DbConnection(String name, String url, String user, String password, String platform) {
+    this(name, url, user, password, platform, Map.of());
+  }
+
   public DbConnection withUrl(String url) {
-    return new DbConnection(name, url, user, password, platform);
+    return new DbConnection(name, url, user, password, platform, options);
   }
 
   public DbConnection withUser(String user) {
-    return new DbConnection(name, url, user, password, platform);
+    return new DbConnection(name, url, user, password, platform, options);
   }
 
   public DbConnection withPassword(String password) {
-    return new DbConnection(name, url, user, password, platform);
+    return new DbConnection(name, url, user, password, platform, options);
   }
 
   public DbConnection withPlatform(String platform) {
-    return new DbConnection(name, url, user, password, platform);
+    return new DbConnection(name, url, user, password, platform, options);
+  }
+
+  public DbConnection withOption(String key, String value) {
+    var options = new HashMap<>(this.options);
+    options.put(key, value);
+    return new DbConnection(name, url, user, password, platform, Map.copyOf(options));
+  }
+
+  public int parallelism() {
+    return Math.max(1, intOption("parallelism", 1));
+  }
+
+  public int poolMin() {
+    return Math.max(0, intOption("poolMin", 0));
+  }
+
+  public int poolMax() {
+    return Math.max(Math.max(1, poolMin()), intOption("poolMax", Math.max(4, parallelism())));
+  }
+
+  public Duration poolIdleTimeout() {
+    return DurationUtils.parse(options.get("poolIdleTimeout"), Duration.ofMinutes(10));
+  }
+
+  public Duration poolValidationTimeout() {
+    return DurationUtils.parse(options.get("poolValidationTimeout"), Duration.ofSeconds(2));
+  }
+
+  /**
+   * Returns how long a borrower waits for a pooled connection while all of them are in use.
+   */
+  public Duration poolBorrowTimeout() {
+    return DurationUtils.parse(options.get("poolBorrowTimeout"), Duration.ofSeconds(30));
+  }
+
+  public int statementCacheSize() {
+    return Math.max(1, intOption("statementCacheSize", 32));
+  }
+
+  private int intOption(String key, int defaultValue) {
+    var value = options.get(key);
+    return value == null ? defaultValue : Integer.parseInt(value.trim());
   }
 }
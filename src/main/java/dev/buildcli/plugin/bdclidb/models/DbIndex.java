@@ -0,0 +1,31 @@
+package dev.buildcli.plugin.bdclidb.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record DbIndex(String column, boolean sorted) {
+  /**
+   * Parses an index list such as {@code id,created_at:sorted}. Indexes without a kind are hash
+   * indexes.
+   */
+  public static List<DbIndex> parseList(String value) {
+    var indexes = new ArrayList<DbIndex>();
+    if (value == null || value.isBlank()) {
+      return indexes;
+    }
+
+    for (var item : value.split(",")) {
+      if (item.isBlank()) {
+        continue;
+      }
+      var parts = item.split(":", 2);
+      var kind = parts.length > 1 ? parts[1].trim().toLowerCase() : "hash";
+      switch (kind) {
+        case "hash" -> indexes.add(new DbIndex(parts[0].trim(), false));
+        case "sorted" -> indexes.add(new DbIndex(parts[0].trim(), true));
+        default -> throw new IllegalStateException("Unexpected value: " + kind);
+      }
+    }
+    return indexes;
+  }
+}
@@ -0,0 +1,53 @@
+package dev.buildcli.plugin.bdclidb.models;
+
+import dev.buildcli.plugin.bdclidb.utils.DurationUtils;
+import dev.buildcli.plugin.bdclidb.utils.SizeUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Limits of an object load: at most {@code maxRows} rows, {@code maxBytes} bytes of loaded values
+ * and {@code queryTimeout} from execution to the last row. Zero (or a null timeout) means no limit.
+ */
+public record DbLimits(long maxRows, Duration queryTimeout, long maxBytes) {
+  public static final DbLimits NONE = new DbLimits(0, null, 0);
+
+  /**
+   * Resolves the limits of an object: its own {@code maxRows}, {@code queryTimeout} and
+   * {@code maxBytes} options, falling back to those of its connection.
+   */
+  public static DbLimits of(DbConnection connection, DbObject object) {
+    var connectionOptions = connection == null ? Map.<String, String>of() : connection.options();
+    var objectOptions = object == null ? Map.<String, String>of() : object.options();
+    var maxRows = option(objectOptions, connectionOptions, "maxRows");
+    var maxBytes = option(objectOptions, connectionOptions, "maxBytes");
+    return new DbLimits(maxRows == null ? 0 : Math.max(0, Long.parseLong(maxRows.trim())),
+        DurationUtils.parse(option(objectOptions, connectionOptions, "queryTimeout"), null),
+        SizeUtils.parse(maxBytes, 0));
+  }
+
+  public boolean hasMaxRows() {
+    return maxRows > 0;
+  }
+
+  public boolean hasMaxBytes() {
+    return maxBytes > 0;
+  }
+
+  public boolean hasQueryTimeout() {
+    return queryTimeout != null && !queryTimeout.isZero();
+  }
+
+  /**
+   * Timeout in whole seconds for {@link java.sql.Statement#setQueryTimeout}, rounded up.
+   */
+  public int queryTimeoutSeconds() {
+    return hasQueryTimeout() ? (int) Math.min(Integer.MAX_VALUE, Math.max(1, (queryTimeout.toMillis() + 999) / 1000)) : 0;
+  }
+
+  private static String option(Map<String, String> objectOptions, Map<String, String> connectionOptions, String key) {
+    var value = objectOptions.get(key);
+    return value == null || value.isBlank() ? connectionOptions.get(key) : value;
+  }
+}
@@ -1,11 +1,88 @@
 package dev.buildcli.plugin.bdclidb.models;
 
-public record DbObject(String name, String sql, String connection) {
+import dev.buildcli.plugin.bdclidb.enums.LoadMode;
+import dev.buildcli.plugin.bdclidb.enums.StorageMode;
+import dev.buildcli.plugin.bdclidb.utils.DurationUtils;
+import dev.buildcli.plugin.bdclidb.utils.SizeUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public record DbObject(String name, String sql, String connection, Map<String, String> options) {
+  public DbObject(String name, String sql, String connection) {
+    this(name, sql, connection, Map.of());
+  }
+
   public DbObject withSql(String value) {
-    return new DbObject(name, value, connection);
+    return new DbObject(name, value, connection, options);
   }
 
   public DbObject withConnection(String connection) {
-    return new DbObject(name, sql, connection);
+    return new DbObject(name, sql, connection, options);
+  }
+
+  public DbObject withOption(String key, String value) {
+    var options = new HashMap<>(this.options);
+    options.put(key, value);
+    return new DbObject(name, sql, connection, Map.copyOf(options));
+  }
+
+  public LoadMode mode() {
+    return LoadMode.fromString(options.get("mode"));
+  }
+
+  public StorageMode storage() {
+    return StorageMode.fromString(options.get("storage"));
+  }
+
+  /**
+   * Returns the column whose highest loaded value marks how far an incremental refresh has read.
+   */
+  public String watermark() {
+    return options.get("watermark");
+  }
+
+  /**
+   * Returns the column that identifies a row when refreshed rows are merged into a loaded result.
+   */
+  public String key() {
+    return options.get("key");
+  }
+
+  /**
+   * Returns the indexes built on the object's rows when it is loaded.
+   */
+  public List<DbIndex> indexes() {
+    return DbIndex.parseList(options.get("indexes"));
+  }
+
+  public List<DbParam> params() {
+    return DbParam.parseList(options.get("params"));
+  }
+
+  public boolean isParameterized() {
+    return !params().isEmpty();
+  }
+
+  /**
+   * Returns how long a cached result of this object stays fresh, or null when it is not cached.
+   */
+  public Duration cacheTtl() {
+    return DurationUtils.parse(options.get("cacheTtl"), null);
+  }
+
+  /**
+   * Returns how many bytes of an eager object's rows are kept on the heap before the rest is
+   * spilled to disk. Defaults to a quarter of the maximum heap size.
+   */
+  public long memoryBudget() {
+    return SizeUtils.parse(options.get("memoryBudget"), Runtime.getRuntime().maxMemory() / 4);
+  }
+
+  public int fetchSize() {
+    var value = options.get("fetchSize");
+    return value == null ? 1000 : Integer.parseInt(value.trim());
   }
 }
@@ -0,0 +1,28 @@
+package dev.buildcli.plugin.bdclidb.models;
+
+import dev.buildcli.plugin.bdclidb.enums.ParamType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record DbParam(String name, ParamType type) {
+  /**
+   * Parses a parameter list such as {@code customerId:long,status:string}. Parameters without a type
+   * are strings.
+   */
+  public static List<DbParam> parseList(String value) {
+    var params = new ArrayList<DbParam>();
+    if (value == null || value.isBlank()) {
+      return params;
+    }
+
+    for (var item : value.split(",")) {
+      if (item.isBlank()) {
+        continue;
+      }
+      var parts = item.split(":", 2);
+      params.add(new DbParam(parts[0].trim(), ParamType.fromString(parts.length > 1 ? parts[1] : null)));
+    }
+    return params;
+  }
+}
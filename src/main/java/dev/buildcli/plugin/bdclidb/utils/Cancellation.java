@@ -0,0 +1,101 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cancellation of REPL evaluations. An evaluation runs inside a {@link Scope} and every JDBC
+ * statement it executes is tracked there, so cancelling the scope cancels the statements on the
+ * server instead of waiting for them to finish. Code outside a scope is not tracked.
+ */
+public final class Cancellation {
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+  private Cancellation() {
+  }
+
+  public static final class Scope {
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    /**
+     * Marks the scope cancelled and cancels the statements it is executing. Statements tracked
+     * afterwards are cancelled as soon as they are tracked.
+     */
+    public void cancel() {
+      cancelled = true;
+      statements.forEach(Cancellation::cancelQuietly);
+    }
+
+    /**
+     * Throws {@link CancellationException} when the scope was cancelled.
+     */
+    public void check() {
+      if (cancelled) {
+        throw new CancellationException("Evaluation cancelled");
+      }
+    }
+  }
+
+  /**
+   * Registration of a running statement, closed once the statement completed.
+   */
+  public interface Tracked extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /**
+   * Runs {@code action} on the current thread inside {@code scope}.
+   */
+  public static void run(Scope scope, Runnable action) {
+    var previous = CURRENT.get();
+    CURRENT.set(scope);
+    try {
+      action.run();
+    } finally {
+      CURRENT.set(previous);
+    }
+  }
+
+  /**
+   * Returns the scope of the current thread, or null outside of a scope.
+   */
+  public static Scope current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Tracks {@code stmt} in the scope of the current thread until the returned registration is
+   * closed, e.g. {@code try (var tracked = Cancellation.track(stmt)) { stmt.executeQuery(); }}.
+   */
+  public static Tracked track(Statement stmt) {
+    var scope = CURRENT.get();
+    if (scope == null) {
+      return () -> {
+      };
+    }
+    scope.check();
+    scope.statements.add(stmt);
+    // The scope may have been cancelled between the check and the registration
+    if (scope.cancelled) {
+      cancelQuietly(stmt);
+    }
+    return () -> scope.statements.remove(stmt);
+  }
+
+  private static void cancelQuietly(Statement stmt) {
+    try {
+      stmt.cancel();
+    } catch (SQLException | RuntimeException e) {
+      // The statement completed or the driver does not support cancel, either way nothing to stop
+    }
+  }
+}
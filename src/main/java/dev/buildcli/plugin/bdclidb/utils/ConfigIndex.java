@@ -0,0 +1,158 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import dev.buildcli.core.domain.configs.BuildCLIConfig;
+import dev.buildcli.core.utils.config.ConfigContextLoader;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Connections and objects of a configuration, parsed in a single pass over its properties. An
+ * index never changes once built, so it can be shared: {@link #getConfig()} hands out a copy of
+ * the properties for callers that edit and save them. The local and global indexes are kept for
+ * the life of the process and rebuilt once the path, modification time or size of their config
+ * file changes.
+ */
+public final class ConfigIndex {
+  private static final Logger logger = LoggerFactory.getLogger(ConfigIndex.class);
+
+  private static final Pattern PROPERTY = Pattern.compile("^buildcli\\.db\\.(connection|object)\\.([a-zA-Z0-9_]+)\\.([a-zA-Z0-9_]+)$");
+  private static final Set<String> CONNECTION_PROPERTIES = Set.of("name", "url", "user", "password", "platform");
+  private static final Set<String> CONNECTION_OPTIONS = Set.of("parallelism", "poolMin", "poolMax", "poolIdleTimeout",
+      "poolValidationTimeout", "poolBorrowTimeout", "statementCacheSize", "maxRows", "queryTimeout", "maxBytes");
+  private static final Set<String> OBJECT_PROPERTIES = Set.of("name", "sql", "connection");
+  private static final Set<String> OBJECT_OPTIONS = Set.of("mode", "fetchSize", "params", "cacheTtl", "storage", "watermark", "key",
+      "indexes", "memoryBudget", "maxRows", "queryTimeout", "maxBytes");
+
+  private static ConfigIndex local;
+  private static ConfigIndex global;
+
+  private final Map<String, String> properties;
+  private final Map<String, DbConnection> connections;
+  private final Map<String, DbObject> objects;
+  private final FileStamp stamp;
+
+  private ConfigIndex(Map<String, String> properties, Map<String, DbConnection> connections, Map<String, DbObject> objects,
+                      FileStamp stamp) {
+    this.properties = Collections.unmodifiableMap(properties);
+    this.connections = Collections.unmodifiableMap(connections);
+    this.objects = Collections.unmodifiableMap(objects);
+    this.stamp = stamp;
+  }
+
+  /**
+   * Identifies a version of a config file without reading it.
+   */
+  private record FileStamp(Path file, FileTime modified, long size) {
+    static FileStamp of(Path file) {
+      try {
+        var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new FileStamp(file, attributes.lastModifiedTime(), attributes.size());
+      } catch (IOException e) {
+        return new FileStamp(file, null, -1);
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the local or global configuration, loading the configuration again only
+   * if its file changed since the index was built.
+   */
+  public static synchronized ConfigIndex of(boolean isLocal) {
+    var stamp = FileStamp.of(isLocal ? ConfigContextLoader.getLocalConfigFile() : ConfigContextLoader.getGlobalConfigFile());
+    var index = isLocal ? local : global;
+
+    if (index == null || !stamp.equals(index.stamp)) {
+      var config = isLocal ? ConfigContextLoader.getLocalConfig() : ConfigContextLoader.getGlobalConfig();
+      index = build(config, stamp);
+      if (isLocal) {
+        local = index;
+      } else {
+        global = index;
+      }
+    }
+    return index;
+  }
+
+  public static ConfigIndex build(BuildCLIConfig config) {
+    return build(config, null);
+  }
+
+  private static ConfigIndex build(BuildCLIConfig config, FileStamp stamp) {
+    var all = new LinkedHashMap<String, String>();
+    var connectionProperties = new HashMap<String, Map<String, String>>();
+    var objectProperties = new HashMap<String, Map<String, String>>();
+
+    for (var item : config.getProperties()) {
+      all.put(item.name(), item.value());
+      if (!item.name().startsWith("buildcli.db.")) {
+        continue;
+      }
+      var matcher = PROPERTY.matcher(item.name());
+      if (!matcher.matches()) {
+        continue;
+      }
+
+      var isConnection = "connection".equals(matcher.group(1));
+      var property = matcher.group(3);
+      if (isConnection ? !CONNECTION_PROPERTIES.contains(property) && !CONNECTION_OPTIONS.contains(property)
+          : !OBJECT_PROPERTIES.contains(property) && !OBJECT_OPTIONS.contains(property)) {
+        logger.warn("Unknown property '{}'", property);
+      }
+      (isConnection ? connectionProperties : objectProperties)
+          .computeIfAbsent(matcher.group(2), k -> new HashMap<>())
+          .put(property, item.value());
+    }
+
+    var connections = new HashMap<String, DbConnection>();
+    connectionProperties.forEach((name, properties) -> connections.put(name, new DbConnection(name, properties.get("url"),
+        properties.get("user"), properties.get("password"), properties.get("platform"), options(properties, CONNECTION_OPTIONS))));
+
+    var objects = new HashMap<String, DbObject>();
+    objectProperties.forEach((name, properties) -> objects.put(name, new DbObject(name, properties.get("sql"),
+        properties.get("connection"), options(properties, OBJECT_OPTIONS))));
+
+    return new ConfigIndex(all, connections, objects, stamp);
+  }
+
+  private static Map<String, String> options(Map<String, String> properties, Set<String> names) {
+    var options = new HashMap<String, String>();
+    for (var entry : properties.entrySet()) {
+      if (names.contains(entry.getKey()) && entry.getValue() != null) {
+        options.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return Map.copyOf(options);
+  }
+
+  /**
+   * Returns a new configuration holding the properties this index was built from. Changes to it
+   * reach the index only once it is saved.
+   */
+  public BuildCLIConfig getConfig() {
+    var config = BuildCLIConfig.empty();
+    properties.forEach(config::addOrSetProperty);
+    return config;
+  }
+
+  public Map<String, DbConnection> getConnections() {
+    return connections;
+  }
+
+  public Map<String, DbObject> getObjects() {
+    return objects;
+  }
+}
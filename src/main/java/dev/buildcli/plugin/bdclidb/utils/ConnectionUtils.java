@@ -1,22 +1,19 @@
 package dev.buildcli.plugin.bdclidb.utils;
 
 import dev.buildcli.core.domain.configs.BuildCLIConfig;
+import dev.buildcli.plugin.bdclidb.enums.Dialect;
 import dev.buildcli.plugin.bdclidb.models.DbConnection;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import dev.buildcli.plugin.bdclidb.utils.pool.ConnectionPool;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.sql.Statement;
 import java.util.Map;
-import java.util.regex.Pattern;
-
-import static dev.buildcli.plugin.bdclidb.constants.ConfigConstants.BUILD_CLI_CONNECTION;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class ConnectionUtils {
-  private static final Logger logger = LoggerFactory.getLogger(ConnectionUtils.class);
-
   private static final Map<String, String> DRIVER_MAP = Map.of(
       "mysql", "com.mysql.cj.jdbc.Driver",
       "postgresql", "org.postgresql.Driver",
@@ -25,34 +22,17 @@ public final class ConnectionUtils {
       "h2", "org.h2.Driver"
   );
 
+  private static final Map<DbConnection, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+
   private ConnectionUtils() {
   }
 
+  /**
+   * Parses the connections of {@code config}. Commands resolve them through {@link ConfigIndex#of}
+   * instead, which reuses the parsed configuration.
+   */
   public static Map<String, DbConnection> loadConnections(BuildCLIConfig config) {
-    var connections = new HashMap<String, DbConnection>();
-    var pattern = Pattern.compile("^buildcli\\.db\\.connection\\.([a-zA-Z0-9_]+)\\.([a-zA-Z0-9_]+)$");
-
-    for (var item : config.getProperties().stream().filter(conf -> conf.name().startsWith(BUILD_CLI_CONNECTION)).toList()) {
-      var matcher = pattern.matcher(item.name());
-
-      if (matcher.matches()) {
-        var connectionName = matcher.group(1);
-        var property = matcher.group(2);
-
-        DbConnection connection;
-        if (connections.containsKey(connectionName)) {
-          connection = connections.get(connectionName);
-
-        } else {
-          connection = new DbConnection(connectionName, null, null, null, null);
-
-        }
-        setDbConnectionProperty(connections, item, property, connectionName, connection);
-      }
-
-    }
-
-    return connections;
+    return ConfigIndex.build(config).getConnections();
   }
 
   public static Connection connect(DbConnection connection) {
@@ -60,49 +40,56 @@ public final class ConnectionUtils {
 
       loadDriver(connection.platform());
 
-      var drivers = DriverManager.getDrivers();
-
-      while (drivers.hasMoreElements()) {
-        var driver = drivers.nextElement();
-        System.out.println(driver);
-      }
-
       return DriverManager.getConnection(connection.url(), connection.user(), connection.password());
     } catch (SQLException | ClassNotFoundException e) {
       throw new RuntimeException(e);
     }
   }
 
-  public static void loadDriver(String platform) throws ClassNotFoundException {
-    System.out.println(platform);
-    if (!DRIVER_MAP.containsKey(platform)) {
-      throw new IllegalArgumentException("Unknown platform: " + platform);
+  /**
+   * Returns the shared pool of a connection, creating it on first use. Pools stay open until
+   * {@link #closePools()} is called.
+   */
+  public static ConnectionPool pool(DbConnection connection) {
+    return POOLS.computeIfAbsent(connection, ConnectionPool::new);
+  }
+
+  /**
+   * Makes the driver stream rows instead of buffering the whole result. Postgres only honours the
+   * fetch size outside auto-commit mode, MySQL only streams with {@code Integer.MIN_VALUE}.
+   */
+  public static void enableStreaming(Connection con, Statement stmt, DbConnection connection, int fetchSize) throws SQLException {
+    con.setAutoCommit(false);
+    stmt.setFetchSize("mysql".equals(connection.platform()) ? Integer.MIN_VALUE : fetchSize);
+  }
+
+  public static void closePools() {
+    for (var pool : POOLS.values()) {
+      pool.close();
     }
+    POOLS.clear();
+  }
 
-    Class.forName(DRIVER_MAP.get(platform));
+  public static Set<String> getPlatforms() {
+    return DRIVER_MAP.keySet();
   }
 
-  private static void setDbConnectionProperty(HashMap<String, DbConnection> connections, BuildCLIConfig.ImmutableProperty item, String property, String connectionName, DbConnection connection) {
-    switch (property) {
-      case "url" -> {
-        connection = connection.withUrl(item.value());
-      }
-      case "user" -> {
-        connection = connection.withUser(item.value());
-      }
-      case "password" -> {
-        connection = connection.withPassword(item.value());
-      }
-      case "platform" -> {
-        connection = connection.withPlatform(item.value());
-      }
-      case "name" -> {
-      }
-      default -> {
-        logger.warn("Unknown property '{}'", property);
-      }
+  /**
+   * Returns the SQL dialect of a connection's platform.
+   */
+  public static Dialect dialect(DbConnection connection) {
+    if (!DRIVER_MAP.containsKey(connection.platform())) {
+      throw new IllegalArgumentException("Unknown platform: " + connection.platform());
     }
 
-    connections.put(connectionName, connection);
+    return Dialect.fromPlatform(connection.platform());
+  }
+
+  public static void loadDriver(String platform) throws ClassNotFoundException {
+    if (!DRIVER_MAP.containsKey(platform)) {
+      throw new IllegalArgumentException("Unknown platform: " + platform);
+    }
+
+    Class.forName(DRIVER_MAP.get(platform));
   }
 }
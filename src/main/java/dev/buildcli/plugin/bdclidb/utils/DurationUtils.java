@@ -0,0 +1,41 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+public final class DurationUtils {
+  private static final Pattern SHORT_FORMAT = Pattern.compile("^(\\d+)\\s*(ms|s|m|h|d)?$");
+
+  private DurationUtils() {
+  }
+
+  /**
+   * Parses config durations such as {@code 500ms}, {@code 30s}, {@code 10m}, {@code 2h}, {@code 1d}
+   * or ISO-8601 ({@code PT10M}). A bare number is read as seconds.
+   */
+  public static Duration parse(String value) {
+    var trimmed = value.trim().toLowerCase();
+    var matcher = SHORT_FORMAT.matcher(trimmed);
+    if (matcher.matches()) {
+      var amount = Long.parseLong(matcher.group(1));
+      var unit = matcher.group(2) == null ? "s" : matcher.group(2);
+      return switch (unit) {
+        case "ms" -> Duration.ofMillis(amount);
+        case "m" -> Duration.ofMinutes(amount);
+        case "h" -> Duration.ofHours(amount);
+        case "d" -> Duration.ofDays(amount);
+        default -> Duration.ofSeconds(amount);
+      };
+    }
+
+    try {
+      return Duration.parse(value.trim().toUpperCase());
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid duration: " + value, e);
+    }
+  }
+
+  public static Duration parse(String value, Duration defaultValue) {
+    return value == null || value.isBlank() ? defaultValue : parse(value);
+  }
+}
@@ -0,0 +1,38 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import java.util.regex.Pattern;
+
+public final class SizeUtils {
+  private static final Pattern FORMAT = Pattern.compile("^(\\d+)\\s*([kmgt]?)b?$");
+
+  private SizeUtils() {
+  }
+
+  /**
+   * Parses config sizes such as {@code 512k}, {@code 256m}, {@code 256MB} or {@code 2g}. A bare
+   * number is read as bytes.
+   */
+  public static long parse(String value) {
+    var matcher = FORMAT.matcher(value.trim().toLowerCase());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid size: " + value);
+    }
+
+    var amount = Long.parseLong(matcher.group(1));
+    var shift = switch (matcher.group(2)) {
+      case "k" -> 10;
+      case "m" -> 20;
+      case "g" -> 30;
+      case "t" -> 40;
+      default -> 0;
+    };
+    if (amount > Long.MAX_VALUE >> shift) {
+      throw new IllegalArgumentException("Size too large: " + value);
+    }
+    return amount << shift;
+  }
+
+  public static long parse(String value, long defaultValue) {
+    return value == null || value.isBlank() ? defaultValue : parse(value);
+  }
+}
@@ -0,0 +1,85 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SqlUtils {
+  private SqlUtils() {
+  }
+
+  public record ParsedSql(String sql, List<String> parameters) {
+  }
+
+  /**
+   * Replaces {@code :name} placeholders with JDBC {@code ?} markers. Quoted text and Postgres
+   * {@code ::type} casts are left untouched. The returned parameter list has one entry per marker,
+   * in order, so a name used twice appears twice.
+   */
+  public static ParsedSql parseNamedParameters(String sql) {
+    var builder = new StringBuilder(sql.length());
+    var parameters = new ArrayList<String>();
+    char quote = 0;
+
+    for (var i = 0; i < sql.length(); i++) {
+      var c = sql.charAt(i);
+
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+        builder.append(c);
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+        builder.append(c);
+      } else if (c == ':' && i + 1 < sql.length() && Character.isJavaIdentifierStart(sql.charAt(i + 1))
+          && (i == 0 || sql.charAt(i - 1) != ':')) {
+        var end = i + 1;
+        while (end < sql.length() && Character.isJavaIdentifierPart(sql.charAt(end))) {
+          end++;
+        }
+        parameters.add(sql.substring(i + 1, end));
+        builder.append('?');
+        i = end - 1;
+      } else {
+        builder.append(c);
+      }
+    }
+
+    return new ParsedSql(builder.toString(), List.copyOf(parameters));
+  }
+
+  /**
+   * Counts the JDBC {@code ?} markers of {@code sql} the way drivers read them: a {@code ?} in
+   * quoted text or a comment is not a marker, and neither is {@code ??}, which escapes the Postgres
+   * {@code ?} operators.
+   */
+  public static int countMarkers(String sql) {
+    var markers = 0;
+    char quote = 0;
+
+    for (var i = 0; i < sql.length(); i++) {
+      var c = sql.charAt(i);
+      var next = i + 1 < sql.length() ? sql.charAt(i + 1) : 0;
+
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '-' && next == '-') {
+        var end = sql.indexOf('\n', i);
+        i = end < 0 ? sql.length() : end;
+      } else if (c == '/' && next == '*') {
+        var end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? sql.length() : end + 1;
+      } else if (c == '?' && next == '?') {
+        i++;
+      } else if (c == '?') {
+        markers++;
+      }
+    }
+
+    return markers;
+  }
+}
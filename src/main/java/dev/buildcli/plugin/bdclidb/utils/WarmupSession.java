@@ -0,0 +1,119 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.data.ObjectLoader;
+import dev.buildcli.plugin.bdclidb.utils.data.ResultCache;
+import dev.buildcli.plugin.bdclidb.utils.repl.DbHandle;
+import dev.buildcli.plugin.bdclidb.utils.repl.Repl;
+import org.jline.reader.impl.DefaultParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A representative plugin session, run by {@code db warmup} in a child JVM so the classes it loads
+ * end up in the class data sharing archive: config parsing, JDBC drivers, object loading through
+ * the result cache against an in-memory H2 database, REPL setup, evaluation and completion.
+ */
+public final class WarmupSession {
+  private static final Logger logger = LoggerFactory.getLogger(WarmupSession.class);
+
+  private static final List<String> EXPRESSIONS = List.of(
+      "users.size()",
+      "total = users.sum { it.AMOUNT }",
+      "def names = users.findAll { it.ACTIVE }.collect { it.NAME }",
+      "users.groupBy { it.NAME }.collectEntries { k, v -> [k, v.size()] }",
+      "db.query('select count(*) as total from users where id > ?', 10)",
+      "db.getTables()",
+      "sql('select a.name, count(*) as total from users a join users b on b.id = a.id group by a.name')"
+  );
+
+  private WarmupSession() {
+  }
+
+  public static void run() {
+    for (var local : new boolean[]{true, false}) {
+      try {
+        ConfigIndex.of(local);
+      } catch (RuntimeException e) {
+        logger.debug("Could not load the {} configuration: {}", local ? "local" : "global", e.getMessage());
+      }
+    }
+
+    for (var platform : ConnectionUtils.getPlatforms()) {
+      try {
+        ConnectionUtils.loadDriver(platform);
+      } catch (ClassNotFoundException e) {
+        logger.debug("Driver of {} is not available", platform);
+      }
+    }
+
+    var connection = new DbConnection("warmup", "jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1", "sa", "", "h2");
+    var object = new DbObject("users", "select * from users", connection.name()).withOption("cacheTtl", "1m");
+    Path cacheDirectory = null;
+    try {
+      cacheDirectory = Files.createTempDirectory("bdclidb-warmup");
+      seed(connection);
+
+      // The first load writes the cache entry, the second maps it back like a cached connect would
+      var cache = new ResultCache(cacheDirectory);
+      ObjectLoader.load(Map.of(connection, List.of(object)), cache, true);
+      var result = ObjectLoader.load(Map.of(connection, List.of(object)), cache, false).getFirst();
+      if (!result.isSuccess()) {
+        throw new RuntimeException("Failed to load the warmup object", result.error());
+      }
+
+      var repl = new Repl();
+      repl.setVariable("users", result.rows());
+      repl.setVariable("db", new DbHandle(ConnectionUtils.pool(connection)));
+      for (var expression : EXPRESSIONS) {
+        repl.evaluateGroovy(expression);
+      }
+
+      var parser = new DefaultParser();
+      for (var prefix : List.of(":", "us", "db.")) {
+        repl.getCompleter().complete(null, parser.parse(prefix, prefix.length()), new ArrayList<>());
+      }
+      repl.getSql().close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      ConnectionUtils.closePools();
+      delete(cacheDirectory);
+    }
+  }
+
+  private static void seed(DbConnection connection) {
+    try (var con = ConnectionUtils.connect(connection); var stmt = con.createStatement()) {
+      stmt.execute("create table if not exists users (id bigint primary key, name varchar(32), amount decimal(12, 2), "
+          + "active boolean, created_at timestamp)");
+      stmt.execute("delete from users");
+      stmt.execute("insert into users select x, 'name-' || mod(x, 50), x * 1.5, mod(x, 2) = 0, "
+          + "dateadd('SECOND', x, timestamp '2024-01-01 00:00:00') from system_range(1, 5000)");
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void delete(Path directory) {
+    if (directory == null) {
+      return;
+    }
+    try (var files = Files.walk(directory)) {
+      for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(file);
+      }
+    } catch (IOException e) {
+      logger.debug("Could not delete {}: {}", directory, e.getMessage());
+    }
+  }
+}
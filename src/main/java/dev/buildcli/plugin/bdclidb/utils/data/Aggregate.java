@@ -0,0 +1,308 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Aggregate function of the parallel query DSL. The static factories are imported into REPL
+ * scripts, so they read like SQL: {@code users.par().groupBy('country').agg(count(), avg('age'))}.
+ * Sums and averages are exact until the final rounding, so they don't depend on how rows were
+ * split between threads.
+ */
+public record Aggregate(Kind kind, String column, String name) {
+  public enum Kind {
+    COUNT, SUM, AVG, MIN, MAX
+  }
+
+  public static Aggregate count() {
+    return new Aggregate(Kind.COUNT, null, "count");
+  }
+
+  /**
+   * Counts the rows where {@code column} is not null.
+   */
+  public static Aggregate count(String column) {
+    return new Aggregate(Kind.COUNT, column, "count_" + column);
+  }
+
+  public static Aggregate sum(String column) {
+    return new Aggregate(Kind.SUM, column, "sum_" + column);
+  }
+
+  public static Aggregate avg(String column) {
+    return new Aggregate(Kind.AVG, column, "avg_" + column);
+  }
+
+  public static Aggregate min(String column) {
+    return new Aggregate(Kind.MIN, column, "min_" + column);
+  }
+
+  public static Aggregate max(String column) {
+    return new Aggregate(Kind.MAX, column, "max_" + column);
+  }
+
+  /**
+   * Renames the result column, e.g. {@code avg('age').named('averageAge')}.
+   */
+  public Aggregate named(String name) {
+    return new Aggregate(kind, column, name);
+  }
+
+  ColumnType resultType(ColumnType input) {
+    return switch (kind) {
+      case COUNT -> ColumnType.LONG;
+      case SUM -> input == ColumnType.INT ? ColumnType.LONG : input;
+      case AVG -> input == ColumnType.OBJECT ? ColumnType.OBJECT : ColumnType.DOUBLE;
+      case MIN, MAX -> input;
+    };
+  }
+
+  Accumulator accumulator(ColumnType input) {
+    return switch (kind) {
+      case COUNT -> new Count();
+      case SUM, AVG -> new Sum(input, kind == Kind.AVG);
+      case MIN, MAX -> new Extreme(input, kind == Kind.MAX);
+    };
+  }
+
+  /**
+   * Partial state of one aggregate over the rows one thread has seen.
+   */
+  abstract static class Accumulator {
+    abstract void add(ResultTable table, int row, int column);
+
+    abstract void merge(Accumulator other);
+
+    abstract Object result();
+  }
+
+  private static final class Count extends Accumulator {
+    private long count;
+
+    @Override
+    void add(ResultTable table, int row, int column) {
+      if (column < 0 || !table.isNull(row, column)) {
+        count++;
+      }
+    }
+
+    @Override
+    void merge(Accumulator other) {
+      count += ((Count) other).count;
+    }
+
+    @Override
+    Object result() {
+      return count;
+    }
+  }
+
+  /**
+   * Exact sum: integers go to a long and doubles to a {@link DoubleAccumulator}, decimals to a
+   * BigDecimal. Non-finite doubles are tracked apart, their sum doesn't depend on order.
+   */
+  private static final class Sum extends Accumulator {
+    private final ColumnType type;
+    private final boolean average;
+    private final DoubleAccumulator doubles = new DoubleAccumulator();
+    private long integral;
+    private BigDecimal decimal = BigDecimal.ZERO;
+    private double special;
+    private long count;
+
+    private Sum(ColumnType type, boolean average) {
+      if (type == ColumnType.STRING || type == ColumnType.BOOLEAN || type == ColumnType.TIMESTAMP) {
+        throw new IllegalArgumentException("Cannot sum a " + type.name().toLowerCase() + " column");
+      }
+      this.type = type;
+      this.average = average;
+    }
+
+    @Override
+    void add(ResultTable table, int row, int column) {
+      if (table.isNull(row, column)) {
+        return;
+      }
+      count++;
+      switch (type) {
+        case INT, LONG -> addIntegral(table.getLong(row, column));
+        case DOUBLE -> addDouble(table.getDouble(row, column));
+        default -> {
+          var value = table.getValue(row, column);
+          if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("Cannot sum " + value.getClass().getName() + " values");
+          }
+          if (number instanceof Double || number instanceof Float) {
+            addDouble(number.doubleValue());
+          } else {
+            decimal = decimal.add(IndexKeys.decimal(number));
+          }
+        }
+      }
+    }
+
+    private void addIntegral(long value) {
+      try {
+        integral = Math.addExact(integral, value);
+      } catch (ArithmeticException e) {
+        decimal = decimal.add(BigDecimal.valueOf(integral)).add(BigDecimal.valueOf(value));
+        integral = 0;
+      }
+    }
+
+    private void addDouble(double value) {
+      if (Double.isFinite(value)) {
+        doubles.add(value);
+      } else {
+        special += value;
+      }
+    }
+
+    @Override
+    void merge(Accumulator other) {
+      var sum = (Sum) other;
+      addIntegral(sum.integral);
+      doubles.merge(sum.doubles);
+      decimal = decimal.add(sum.decimal);
+      special += sum.special;
+      count += sum.count;
+    }
+
+    @Override
+    Object result() {
+      if (count == 0) {
+        return null;
+      }
+      var total = decimal.add(BigDecimal.valueOf(integral)).add(doubles.value());
+      if (average) {
+        return switch (type) {
+          case OBJECT -> total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+          default -> special != 0 ? special : total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128).doubleValue();
+        };
+      }
+      return switch (type) {
+        case INT, LONG -> total.longValueExact();
+        case DOUBLE -> special != 0 ? special : total.doubleValue();
+        default -> total;
+      };
+    }
+  }
+
+  /**
+   * Exact sum of finite doubles as a fixed-point number with 32-bit digits spanning the whole
+   * double range, so adding a value costs a few integer additions and no rounding happens until
+   * {@link #value()}.
+   */
+  static final class DoubleAccumulator {
+    private static final int DIGITS = 70;
+    private static final long MASK = 0xFFFFFFFFL;
+    private static final BigDecimal UNIT = new BigDecimal(Double.MIN_VALUE);
+
+    private final long[] digits = new long[DIGITS];
+    private int pending;
+
+    void add(double value) {
+      var bits = Double.doubleToRawLongBits(value);
+      var exponent = (int) ((bits >>> 52) & 0x7FF);
+      var mantissa = bits & 0xFFFFFFFFFFFFFL;
+      if (exponent == 0) {
+        exponent = 1;
+      } else {
+        mantissa |= 1L << 52;
+      }
+
+      // value = mantissa * 2^(exponent - 1075), placed relative to the smallest subnormal 2^-1074
+      var position = exponent - 1;
+      var digit = position >>> 5;
+      var shift = position & 31;
+      var low = (mantissa << shift) & MASK;
+      var middle = (mantissa >>> (32 - shift)) & MASK;
+      var high = shift == 0 ? 0 : mantissa >>> (64 - shift);
+      if (bits < 0) {
+        digits[digit] -= low;
+        digits[digit + 1] -= middle;
+        digits[digit + 2] -= high;
+      } else {
+        digits[digit] += low;
+        digits[digit + 1] += middle;
+        digits[digit + 2] += high;
+      }
+
+      // Digits absorb 2^31 additions before they can overflow
+      if (++pending == 1 << 30) {
+        carry();
+      }
+    }
+
+    void merge(DoubleAccumulator other) {
+      carry();
+      other.carry();
+      for (var i = 0; i < DIGITS; i++) {
+        digits[i] += other.digits[i];
+      }
+      carry();
+    }
+
+    BigDecimal value() {
+      carry();
+      var total = BigInteger.ZERO;
+      for (var i = DIGITS - 1; i >= 0; i--) {
+        total = total.shiftLeft(32).add(BigInteger.valueOf(digits[i]));
+      }
+      return total.signum() == 0 ? BigDecimal.ZERO : new BigDecimal(total).multiply(UNIT);
+    }
+
+    private void carry() {
+      for (var i = 0; i < DIGITS - 1; i++) {
+        var carry = digits[i] >> 32;
+        digits[i] -= carry << 32;
+        digits[i + 1] += carry;
+      }
+      pending = 0;
+    }
+  }
+
+  private static final class Extreme extends Accumulator {
+    private final ColumnType type;
+    private final boolean max;
+    private Object value;
+
+    private Extreme(ColumnType type, boolean max) {
+      this.type = type;
+      this.max = max;
+    }
+
+    @Override
+    void add(ResultTable table, int row, int column) {
+      offer(table.isNull(row, column) ? null : table.getValue(row, column));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void offer(Object candidate) {
+      if (candidate == null) {
+        return;
+      }
+      if (value == null) {
+        value = candidate;
+        return;
+      }
+      var cmp = ((Comparable<Object>) candidate).compareTo(value);
+      if (max ? cmp > 0 : cmp < 0) {
+        value = candidate;
+      }
+    }
+
+    @Override
+    void merge(Accumulator other) {
+      offer(((Extreme) other).value);
+    }
+
+    @Override
+    Object result() {
+      return value;
+    }
+  }
+}
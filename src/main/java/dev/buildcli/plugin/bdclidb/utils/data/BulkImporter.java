@@ -0,0 +1,224 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ParamType;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads CSV files into a table. The file is parsed as a stream on the calling thread and handed in
+ * batches to writer threads, each with its own connection, that insert through
+ * {@link java.sql.PreparedStatement#addBatch()} with auto-commit off and commit every
+ * {@code commitEvery} rows. The first line names the target columns; values are converted to the
+ * column types reported by the database.
+ */
+public final class BulkImporter {
+  private static final Logger logger = LoggerFactory.getLogger(BulkImporter.class);
+  private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+  private static final List<String[]> END = List.of();
+
+  private BulkImporter() {
+  }
+
+  public record Options(int batchSize, int threads, int commitEvery, char delimiter) {
+    public static Options defaults() {
+      return new Options(1000, 1, 10_000, ',');
+    }
+
+    public Options withBatchSize(int batchSize) {
+      return new Options(batchSize, threads, commitEvery, delimiter);
+    }
+
+    public Options withThreads(int threads) {
+      return new Options(batchSize, threads, commitEvery, delimiter);
+    }
+
+    public Options withCommitEvery(int commitEvery) {
+      return new Options(batchSize, threads, commitEvery, delimiter);
+    }
+
+    public Options withDelimiter(char delimiter) {
+      return new Options(batchSize, threads, commitEvery, delimiter);
+    }
+  }
+
+  public record Result(long rows, int threads, Duration elapsed) {
+    public double rowsPerSecond() {
+      return elapsed.isZero() ? rows : rows * 1e9 / elapsed.toNanos();
+    }
+  }
+
+  /**
+   * Inserts every record of {@code file} into {@code table}. On failure the writers roll back what
+   * they have not committed yet and the exception reports how many rows were committed.
+   */
+  public static Result importCsv(DbConnection connection, String table, Path file, Options options) {
+    var threads = Math.max(1, options.threads());
+    if ("sqlite".equals(connection.platform()) && threads > 1) {
+      logger.info("SQLite allows a single writer, importing with one thread");
+      threads = 1;
+    }
+
+    var start = System.nanoTime();
+    try (var csv = CsvReader.open(file, options.delimiter())) {
+      var columns = csv.next();
+      if (columns == null) {
+        throw new IllegalArgumentException("File " + file + " is empty");
+      }
+      if (Arrays.stream(columns).anyMatch(c -> c == null || c.isBlank())) {
+        throw new IllegalArgumentException("The header of " + file + " has an empty column name");
+      }
+
+      var types = columnTypes(connection, table, columns);
+      var sql = "insert into %s (%s) values (%s)".formatted(table, String.join(", ", columns),
+          String.join(", ", Collections.nCopies(columns.length, "?")));
+
+      var queue = new ArrayBlockingQueue<List<String[]>>(threads * 2);
+      var failure = new AtomicReference<Throwable>();
+      var written = new AtomicLong();
+      var committed = new AtomicLong();
+      try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (var i = 0; i < threads; i++) {
+          executor.submit(() -> write(connection, sql, types, queue, options, written, committed, failure));
+        }
+        try {
+          read(csv, columns.length, queue, options.batchSize(), failure, written, start);
+        } catch (IOException | RuntimeException e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          for (var i = 0; i < threads; i++) {
+            put(queue, END, failure);
+          }
+        }
+      }
+
+      var error = failure.get();
+      if (error != null) {
+        throw new RuntimeException("Import into %s failed after %d committed rows: %s".formatted(table, committed.get(), error.getMessage()), error);
+      }
+      return new Result(committed.get(), threads, Duration.ofNanos(System.nanoTime() - start));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void read(CsvReader csv, int width, BlockingQueue<List<String[]>> queue, int batchSize, AtomicReference<Throwable> failure,
+                           AtomicLong written, long start) throws IOException, InterruptedException {
+    var batch = new ArrayList<String[]>(batchSize);
+    var progress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+    String[] record;
+    while (failure.get() == null && (record = csv.next()) != null) {
+      if (record.length != width) {
+        throw new IllegalArgumentException("Line %d has %d fields, expected %d".formatted(csv.getLine(), record.length, width));
+      }
+      batch.add(record);
+      if (batch.size() == batchSize) {
+        if (!put(queue, batch, failure)) {
+          return;
+        }
+        batch = new ArrayList<>(batchSize);
+      }
+      if (System.nanoTime() > progress) {
+        var rows = written.get();
+        logger.info("Imported {} rows ({} rows/s)", rows, Math.round(rows * 1e9 / (System.nanoTime() - start)));
+        progress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+      }
+    }
+    if (!batch.isEmpty()) {
+      put(queue, batch, failure);
+    }
+  }
+
+  /**
+   * Hands a batch to the writers, giving up once one of them failed.
+   */
+  private static boolean put(BlockingQueue<List<String[]>> queue, List<String[]> batch, AtomicReference<Throwable> failure)
+      throws InterruptedException {
+    while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+      if (failure.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void write(DbConnection connection, String sql, ParamType[] types, BlockingQueue<List<String[]>> queue, Options options,
+                            AtomicLong written, AtomicLong committed, AtomicReference<Throwable> failure) {
+    try (var con = ConnectionUtils.connect(connection); var stmt = con.prepareStatement(sql)) {
+      con.setAutoCommit(false);
+      var uncommitted = 0;
+      try {
+        while (failure.get() == null) {
+          var batch = queue.poll(100, TimeUnit.MILLISECONDS);
+          if (batch == null) {
+            continue;
+          }
+          if (batch == END) {
+            break;
+          }
+          for (var record : batch) {
+            for (var c = 0; c < types.length; c++) {
+              types[c].bind(stmt, c + 1, record[c]);
+            }
+            stmt.addBatch();
+          }
+          stmt.executeBatch();
+          uncommitted += batch.size();
+          written.addAndGet(batch.size());
+          if (uncommitted >= options.commitEvery()) {
+            con.commit();
+            committed.addAndGet(uncommitted);
+            uncommitted = 0;
+          }
+        }
+        if (failure.get() == null) {
+          con.commit();
+          committed.addAndGet(uncommitted);
+        } else {
+          con.rollback();
+        }
+      } catch (SQLException | RuntimeException | InterruptedException e) {
+        failure.compareAndSet(null, e);
+        con.rollback();
+      }
+    } catch (SQLException | RuntimeException e) {
+      failure.compareAndSet(null, e);
+    }
+  }
+
+  /**
+   * Reads the types of the target columns from the metadata of an empty query.
+   */
+  private static ParamType[] columnTypes(DbConnection connection, String table, String[] columns) {
+    var sql = "select %s from %s where 1 = 0".formatted(String.join(", ", columns), table);
+    try (var con = ConnectionUtils.connect(connection); var stmt = con.createStatement(); var rs = stmt.executeQuery(sql)) {
+      var metaData = rs.getMetaData();
+      var types = new ParamType[columns.length];
+      for (var c = 0; c < types.length; c++) {
+        types[c] = ParamType.fromJdbc(metaData.getColumnType(c + 1));
+      }
+      return types;
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link DataOutput} that buffers writes in a direct buffer and flushes it to a channel, usually a
+ * file channel. Unlike {@link java.io.DataOutputStream} it tracks a {@code long} position, so files
+ * larger than 2 GB can be laid out with absolute offsets.
+ */
+public class ChannelWriter implements DataOutput, Closeable {
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+  private CharsetEncoder encoder;
+  private long flushed;
+
+  public ChannelWriter(WritableByteChannel channel) {
+    this(channel, 1 << 20);
+  }
+
+  public ChannelWriter(WritableByteChannel channel, int bufferSize) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  /**
+   * Number of bytes written so far, including the ones still buffered.
+   */
+  public long position() {
+    return flushed + buffer.position();
+  }
+
+  /**
+   * Pads with zeros until the position is a multiple of {@code alignment}.
+   */
+  public void align(int alignment) throws IOException {
+    var padding = (int) ((alignment - position() % alignment) % alignment);
+    for (var i = 0; i < padding; i++) {
+      write(0);
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensure(1);
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b) throws IOException {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      var chunk = Math.min(len, buffer.remaining());
+      buffer.put(b, off, chunk);
+      off += chunk;
+      len -= chunk;
+    }
+  }
+
+  @Override
+  public void writeBoolean(boolean v) throws IOException {
+    write(v ? 1 : 0);
+  }
+
+  @Override
+  public void writeByte(int v) throws IOException {
+    write(v);
+  }
+
+  @Override
+  public void writeShort(int v) throws IOException {
+    ensure(2);
+    buffer.putShort((short) v);
+  }
+
+  @Override
+  public void writeChar(int v) throws IOException {
+    ensure(2);
+    buffer.putChar((char) v);
+  }
+
+  @Override
+  public void writeInt(int v) throws IOException {
+    ensure(4);
+    buffer.putInt(v);
+  }
+
+  @Override
+  public void writeLong(long v) throws IOException {
+    ensure(8);
+    buffer.putLong(v);
+  }
+
+  @Override
+  public void writeFloat(float v) throws IOException {
+    ensure(4);
+    buffer.putFloat(v);
+  }
+
+  @Override
+  public void writeDouble(double v) throws IOException {
+    ensure(8);
+    buffer.putDouble(v);
+  }
+
+  @Override
+  public void writeBytes(String s) throws IOException {
+    for (var i = 0; i < s.length(); i++) {
+      write(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeChars(String s) throws IOException {
+    for (var i = 0; i < s.length(); i++) {
+      writeChar(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeUTF(String s) throws IOException {
+    var bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xFFFF) {
+      throw new IOException("String too long for writeUTF: " + bytes.length + " bytes");
+    }
+    writeShort(bytes.length);
+    write(bytes);
+  }
+
+  /**
+   * Encodes {@code text} as UTF-8 straight into the buffer, without the intermediate byte array of
+   * {@link String#getBytes}. Unpaired surrogates are replaced.
+   */
+  public void writeUtf8(CharSequence text) throws IOException {
+    if (encoder == null) {
+      encoder = StandardCharsets.UTF_8.newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+    var chars = CharBuffer.wrap(text);
+    encoder.reset();
+    while (encoder.encode(chars, buffer, true).isOverflow()) {
+      flush();
+    }
+    while (encoder.flush(buffer).isOverflow()) {
+      flush();
+    }
+  }
+
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      flushed += channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+}
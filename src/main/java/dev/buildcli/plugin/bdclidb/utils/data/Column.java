@@ -0,0 +1,564 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Growable storage for the values of a single result column. Numeric, boolean and timestamp columns
+ * keep their values in primitive arrays with a null bitmap; strings are dictionary-encoded while the
+ * column has few distinct values.
+ */
+public abstract class Column {
+  protected int size;
+
+  public static Column create(ColumnType type, int capacity) {
+    var initialCapacity = Math.max(capacity, 16);
+    return switch (type) {
+      case INT -> new IntColumn(initialCapacity);
+      case LONG -> new LongColumn(initialCapacity);
+      case DOUBLE -> new DoubleColumn(initialCapacity);
+      case BOOLEAN -> new BooleanColumn();
+      case TIMESTAMP -> new TimestampColumn(initialCapacity);
+      case STRING -> new StringColumn(initialCapacity);
+      case OBJECT -> new ObjectColumn(initialCapacity);
+    };
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public abstract boolean isNull(int row);
+
+  public abstract Object get(int row);
+
+  /**
+   * Appends the value of the given (1-based) column of the current result set row.
+   */
+  public abstract void read(ResultSet rs, int index) throws SQLException;
+
+  public abstract void add(Object value);
+
+  public abstract void set(int row, Object value);
+
+  /**
+   * Approximate heap footprint of the column, used to decide when a load spills to disk.
+   */
+  public abstract long estimatedBytes();
+
+  protected void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " out of bounds for length " + size);
+    }
+  }
+
+  protected static int grow(int length, int required) {
+    return Math.max(required, length + (length >> 1) + 1);
+  }
+
+  public static final class IntColumn extends Column {
+    private int[] values;
+    private final BitSet nulls = new BitSet();
+
+    private IntColumn(int capacity) {
+      values = new int[capacity];
+    }
+
+    public int getInt(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      checkRow(row);
+      return nulls.get(row);
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      var value = rs.getInt(index);
+      append(value, rs.wasNull());
+    }
+
+    @Override
+    public void add(Object value) {
+      append(value == null ? 0 : ((Number) value).intValue(), value == null);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      values[row] = value == null ? 0 : ((Number) value).intValue();
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    public long estimatedBytes() {
+      return values.length * 4L + nulls.size() / 8;
+    }
+
+    private void append(int value, boolean isNull) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(values.length, size + 1));
+      }
+      values[size] = value;
+      nulls.set(size, isNull);
+      size++;
+    }
+  }
+
+  public static final class LongColumn extends Column {
+    private long[] values;
+    private final BitSet nulls = new BitSet();
+
+    private LongColumn(int capacity) {
+      values = new long[capacity];
+    }
+
+    public long getLong(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      checkRow(row);
+      return nulls.get(row);
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      var value = rs.getLong(index);
+      append(value, rs.wasNull());
+    }
+
+    @Override
+    public void add(Object value) {
+      append(value == null ? 0 : ((Number) value).longValue(), value == null);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      values[row] = value == null ? 0 : ((Number) value).longValue();
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    public long estimatedBytes() {
+      return values.length * 8L + nulls.size() / 8;
+    }
+
+    private void append(long value, boolean isNull) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(values.length, size + 1));
+      }
+      values[size] = value;
+      nulls.set(size, isNull);
+      size++;
+    }
+  }
+
+  public static final class DoubleColumn extends Column {
+    private double[] values;
+    private final BitSet nulls = new BitSet();
+
+    private DoubleColumn(int capacity) {
+      values = new double[capacity];
+    }
+
+    public double getDouble(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      checkRow(row);
+      return nulls.get(row);
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      var value = rs.getDouble(index);
+      append(value, rs.wasNull());
+    }
+
+    @Override
+    public void add(Object value) {
+      append(value == null ? 0 : ((Number) value).doubleValue(), value == null);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      values[row] = value == null ? 0 : ((Number) value).doubleValue();
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    public long estimatedBytes() {
+      return values.length * 8L + nulls.size() / 8;
+    }
+
+    private void append(double value, boolean isNull) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(values.length, size + 1));
+      }
+      values[size] = value;
+      nulls.set(size, isNull);
+      size++;
+    }
+  }
+
+  public static final class BooleanColumn extends Column {
+    private final BitSet values = new BitSet();
+    private final BitSet nulls = new BitSet();
+
+    private BooleanColumn() {
+    }
+
+    public boolean getBoolean(int row) {
+      checkRow(row);
+      return values.get(row);
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      checkRow(row);
+      return nulls.get(row);
+    }
+
+    @Override
+    public Object get(int row) {
+      return isNull(row) ? null : values.get(row);
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      var value = rs.getBoolean(index);
+      append(value, rs.wasNull());
+    }
+
+    @Override
+    public void add(Object value) {
+      append(value != null && (Boolean) value, value == null);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      values.set(row, value != null && (Boolean) value);
+      nulls.set(row, value == null);
+    }
+
+    @Override
+    public long estimatedBytes() {
+      return (values.size() + nulls.size()) / 8;
+    }
+
+    private void append(boolean value, boolean isNull) {
+      values.set(size, value);
+      nulls.set(size, isNull);
+      size++;
+    }
+  }
+
+  /**
+   * Stores timestamps as epoch milliseconds plus the nanosecond fraction, so no {@link Timestamp}
+   * instance is kept per row.
+   */
+  public static final class TimestampColumn extends Column {
+    private long[] millis;
+    private int[] nanos;
+    private final BitSet nulls = new BitSet();
+
+    private TimestampColumn(int capacity) {
+      millis = new long[capacity];
+      nanos = new int[capacity];
+    }
+
+    public long getMillis(int row) {
+      checkRow(row);
+      return millis[row];
+    }
+
+    public int getNanos(int row) {
+      checkRow(row);
+      return nanos[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      checkRow(row);
+      return nulls.get(row);
+    }
+
+    @Override
+    public Object get(int row) {
+      if (isNull(row)) {
+        return null;
+      }
+      var timestamp = new Timestamp(millis[row]);
+      timestamp.setNanos(nanos[row]);
+      return timestamp;
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      add(rs.getTimestamp(index));
+    }
+
+    @Override
+    public void add(Object value) {
+      if (size == millis.length) {
+        var capacity = grow(millis.length, size + 1);
+        millis = Arrays.copyOf(millis, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+      }
+      size++;
+      set(size - 1, value);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      var timestamp = toTimestamp(value);
+      millis[row] = timestamp == null ? 0 : timestamp.getTime();
+      nanos[row] = timestamp == null ? 0 : timestamp.getNanos();
+      nulls.set(row, timestamp == null);
+    }
+
+    @Override
+    public long estimatedBytes() {
+      return millis.length * 12L + nulls.size() / 8;
+    }
+
+    static Timestamp toTimestamp(Object value) {
+      if (value == null || value instanceof Timestamp) {
+        return (Timestamp) value;
+      }
+      if (value instanceof java.util.Date date) {
+        return new Timestamp(date.getTime());
+      }
+      if (value instanceof java.time.LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime);
+      }
+      if (value instanceof java.time.Instant instant) {
+        return Timestamp.from(instant);
+      }
+      throw new ClassCastException("Cannot store " + value.getClass().getName() + " in a timestamp column");
+    }
+  }
+
+  /**
+   * Dictionary-encodes values while the column has few distinct strings, and falls back to a plain
+   * array once the dictionary stops paying for itself.
+   */
+  public static final class StringColumn extends Column {
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    private static final int MIN_ROWS_BEFORE_FALLBACK = 4096;
+
+    private int[] codes;
+    private long stringBytes;
+    private List<String> dictionary = new ArrayList<>();
+    private Map<String, Integer> lookup = new HashMap<>();
+    private String[] values;
+
+    private StringColumn(int capacity) {
+      codes = new int[capacity];
+    }
+
+    public boolean isDictionaryEncoded() {
+      return values == null;
+    }
+
+    /**
+     * Returns the distinct values of a dictionary-encoded column, indexed by code.
+     */
+    public List<String> dictionary() {
+      return dictionary == null ? List.of() : List.copyOf(dictionary);
+    }
+
+    /**
+     * Returns the dictionary code of a row, or -1 for null.
+     */
+    public int getCode(int row) {
+      checkRow(row);
+      if (values != null) {
+        throw new IllegalStateException("Column is no longer dictionary-encoded");
+      }
+      return codes[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      return get(row) == null;
+    }
+
+    @Override
+    public String get(int row) {
+      checkRow(row);
+      if (values != null) {
+        return values[row];
+      }
+      var code = codes[row];
+      return code < 0 ? null : dictionary.get(code);
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      add(rs.getString(index));
+    }
+
+    @Override
+    public void add(Object value) {
+      var length = values != null ? values.length : codes.length;
+      if (size == length) {
+        var capacity = grow(length, size + 1);
+        if (values != null) {
+          values = Arrays.copyOf(values, capacity);
+        } else {
+          codes = Arrays.copyOf(codes, capacity);
+        }
+      }
+      size++;
+      set(size - 1, value);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      var string = value == null ? null : value.toString();
+      if (values != null) {
+        values[row] = string;
+        stringBytes += stringBytes(string);
+        return;
+      }
+
+      if (string == null) {
+        codes[row] = -1;
+        return;
+      }
+
+      var code = lookup.get(string);
+      if (code == null) {
+        code = dictionary.size();
+        dictionary.add(string);
+        lookup.put(string, code);
+        // The entry is referenced from the dictionary and its lookup
+        stringBytes += stringBytes(string) + 48;
+      }
+      codes[row] = code;
+
+      if (dictionary.size() > MAX_DICTIONARY_SIZE || (size >= MIN_ROWS_BEFORE_FALLBACK && dictionary.size() > size / 2)) {
+        decode();
+      }
+    }
+
+    /**
+     * Counts every string stored as a separate instance; strings shared by several rows or
+     * replaced later are counted once per store, which errs on the side of spilling early.
+     */
+    @Override
+    public long estimatedBytes() {
+      return (values != null ? values.length * 8L : codes.length * 4L) + stringBytes;
+    }
+
+    private static long stringBytes(String string) {
+      return string == null ? 0 : 40 + string.length();
+    }
+
+    private void decode() {
+      values = new String[codes.length];
+      for (var i = 0; i < size; i++) {
+        values[i] = codes[i] < 0 ? null : dictionary.get(codes[i]);
+      }
+      codes = null;
+      dictionary = null;
+      lookup = null;
+    }
+  }
+
+  public static final class ObjectColumn extends Column {
+    private Object[] values;
+    private long objectBytes;
+
+    private ObjectColumn(int capacity) {
+      values = new Object[capacity];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+      return get(row) == null;
+    }
+
+    @Override
+    public Object get(int row) {
+      checkRow(row);
+      return values[row];
+    }
+
+    @Override
+    public void read(ResultSet rs, int index) throws SQLException {
+      add(rs.getObject(index));
+    }
+
+    @Override
+    public void add(Object value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(values.length, size + 1));
+      }
+      values[size++] = value;
+      objectBytes += objectBytes(value);
+    }
+
+    @Override
+    public void set(int row, Object value) {
+      checkRow(row);
+      values[row] = value;
+      objectBytes += objectBytes(value);
+    }
+
+    @Override
+    public long estimatedBytes() {
+      return values.length * 8L + objectBytes;
+    }
+
+    private static long objectBytes(Object value) {
+      return switch (value) {
+        case null -> 0;
+        case String string -> 40 + string.length();
+        case byte[] bytes -> 16 + bytes.length;
+        case BigDecimal decimal -> 40 + decimal.unscaledValue().bitLength() / 8;
+        default -> 32;
+      };
+    }
+  }
+}
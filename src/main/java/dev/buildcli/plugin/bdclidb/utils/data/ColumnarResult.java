@@ -0,0 +1,154 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented, heap-backed result of a query. Values live in one growable {@link Column} per
+ * result column, so rows can be appended and updated in place.
+ */
+public class ColumnarResult extends ResultTable {
+  private final Schema schema;
+  private final Column[] columns;
+  private int size;
+
+  public ColumnarResult(Schema schema) {
+    this(schema, 1024);
+  }
+
+  public ColumnarResult(Schema schema, int capacity) {
+    this.schema = schema;
+    this.columns = new Column[schema.size()];
+    for (var i = 0; i < columns.length; i++) {
+      columns[i] = Column.create(schema.type(i), capacity);
+    }
+  }
+
+  /**
+   * Wraps columns that were filled independently, e.g. when reading a result back from disk.
+   */
+  ColumnarResult(Schema schema, Column[] columns, int size) {
+    for (var column : columns) {
+      if (column.size() != size) {
+        throw new IllegalArgumentException("Expected %d values per column, got %d".formatted(size, column.size()));
+      }
+    }
+    this.schema = schema;
+    this.columns = columns;
+    this.size = size;
+  }
+
+  /**
+   * Reads every remaining row of the result set.
+   */
+  public static ColumnarResult from(ResultSet rs) throws SQLException {
+    var result = new ColumnarResult(Schema.of(rs.getMetaData()));
+    while (rs.next()) {
+      result.readRow(rs);
+    }
+    return result;
+  }
+
+  /**
+   * Appends the current row of the result set.
+   */
+  public void readRow(ResultSet rs) throws SQLException {
+    for (var i = 0; i < columns.length; i++) {
+      columns[i].read(rs, i + 1);
+    }
+    size++;
+  }
+
+  /**
+   * Appends row {@code row} of a result with the same schema.
+   */
+  void appendRow(ResultTable source, int row) {
+    for (var i = 0; i < columns.length; i++) {
+      columns[i].add(source.getValue(row, i));
+    }
+    size++;
+  }
+
+  /**
+   * Approximate heap footprint of the stored values.
+   */
+  public long estimatedBytes() {
+    var bytes = 0L;
+    for (var column : columns) {
+      bytes += column.estimatedBytes();
+    }
+    return bytes;
+  }
+
+  @Override
+  public Schema schema() {
+    return schema;
+  }
+
+  public Column column(int column) {
+    return columns[column];
+  }
+
+  public Column column(String name) {
+    var position = schema.indexOf(name);
+    if (position < 0) {
+      throw new IllegalArgumentException("Unknown column: " + name);
+    }
+    return columns[position];
+  }
+
+  @Override
+  public Object getValue(int row, int column) {
+    return columns[column].get(row);
+  }
+
+  @Override
+  public void setValue(int row, int column, Object value) {
+    columns[column].set(row, value);
+    changed();
+  }
+
+  @Override
+  boolean isNull(int row, int column) {
+    return columns[column].isNull(row);
+  }
+
+  @Override
+  long getLong(int row, int column) {
+    return columns[column] instanceof Column.IntColumn ints ? ints.getInt(row) : ((Column.LongColumn) columns[column]).getLong(row);
+  }
+
+  @Override
+  double getDouble(int row, int column) {
+    return ((Column.DoubleColumn) columns[column]).getDouble(row);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Appends a row. Missing keys become null, keys that are not part of the schema go to the row's
+   * overflow map.
+   */
+  @Override
+  public boolean add(Map<String, Object> row) {
+    var extras = new LinkedHashMap<String, Object>();
+    for (var entry : row.entrySet()) {
+      if (schema.indexOf(entry.getKey()) < 0) {
+        extras.put(entry.getKey(), entry.getValue());
+      }
+    }
+    for (var i = 0; i < columns.length; i++) {
+      columns[i].add(row.get(schema.name(i)));
+    }
+    setExtras(size, extras);
+    size++;
+    modCount++;
+    changed();
+    return true;
+  }
+}
@@ -0,0 +1,151 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming RFC 4180 reader: records are parsed one at a time through a fixed buffer, so files of
+ * any size are read in constant memory. Quoted fields may contain separators, doubled quotes and
+ * line breaks. An empty unquoted field reads as null and a quoted empty field as an empty string,
+ * matching what {@code db export} writes. Blank lines are skipped.
+ */
+public class CsvReader implements Closeable {
+  private final Reader reader;
+  private final char delimiter;
+  private final char[] buffer = new char[1 << 16];
+  private final StringBuilder field = new StringBuilder();
+  private final List<String> fields = new ArrayList<>();
+  private int position;
+  private int limit;
+  private long line = 1;
+  private long recordLine;
+
+  public CsvReader(Reader reader, char delimiter) {
+    this.reader = reader;
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Opens a UTF-8 file, gunzipping it when its name ends with {@code .gz}. A byte order mark is
+   * skipped.
+   */
+  public static CsvReader open(Path file, char delimiter) throws IOException {
+    var in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+    try {
+      var stream = file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+      var csv = new CsvReader(new InputStreamReader(stream, StandardCharsets.UTF_8), delimiter);
+      if (csv.peek() == '\uFEFF') {
+        csv.read();
+      }
+      return csv;
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the fields of the next record, or null at the end of the input.
+   */
+  public String[] next() throws IOException {
+    while (peek() == '\r' || peek() == '\n') {
+      if (read() == '\n') {
+        line++;
+      }
+    }
+    if (peek() < 0) {
+      return null;
+    }
+
+    recordLine = line;
+    fields.clear();
+    while (true) {
+      field.setLength(0);
+      var c = read();
+      var quoted = c == '"';
+      if (quoted) {
+        while (true) {
+          c = read();
+          if (c < 0) {
+            throw new IOException("Unterminated quoted field starting on line " + recordLine);
+          }
+          if (c == '"') {
+            if (peek() != '"') {
+              c = read();
+              break;
+            }
+            read();
+          } else if (c == '\n') {
+            line++;
+          }
+          field.append((char) c);
+        }
+        if (c != delimiter && c != '\r' && c != '\n' && c >= 0) {
+          throw new IOException("Unexpected character after quoted field on line " + line);
+        }
+      } else {
+        while (c != delimiter && c != '\r' && c != '\n' && c >= 0) {
+          field.append((char) c);
+          c = read();
+        }
+      }
+      fields.add(quoted || !field.isEmpty() ? field.toString() : null);
+
+      if (c == delimiter) {
+        continue;
+      }
+      if (c == '\r' && peek() == '\n') {
+        read();
+      }
+      if (c >= 0) {
+        line++;
+      }
+      return fields.toArray(new String[0]);
+    }
+  }
+
+  /**
+   * Line on which the last record returned by {@link #next()} starts.
+   */
+  public long getLine() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position++];
+  }
+
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position];
+  }
+
+  private boolean fill() throws IOException {
+    var count = reader.read(buffer, 0, buffer.length);
+    if (count <= 0) {
+      return false;
+    }
+    position = 0;
+    limit = count;
+    return true;
+  }
+}
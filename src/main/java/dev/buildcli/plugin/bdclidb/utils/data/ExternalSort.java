@@ -0,0 +1,204 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import groovy.lang.Closure;
+import groovy.util.ClosureComparator;
+import org.codehaus.groovy.runtime.NumberAwareComparator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * External merge sort over a result table. Rows are copied to the heap in runs of at most
+ * {@code runRows} rows, sorted and written to scratch snapshots, then merged through a priority
+ * queue over the run heads into a single off-heap result. Only one run, or one row group of merged
+ * output, is on the heap at a time. Ties keep table order, so the sort is stable.
+ */
+final class ExternalSort {
+  private static final int CHECK_INTERVAL = 1024;
+
+  private ExternalSort() {
+  }
+
+  /**
+   * Sorts by the key a one-parameter closure returns, or with a two-parameter closure comparing
+   * two rows, following Groovy's {@code sort(Closure)}.
+   */
+  static SnapshotResult sort(ResultTable table, Closure<?> closure, int runRows) {
+    if (closure.getMaximumNumberOfParameters() == 2) {
+      Function<Map<String, Object>, Object> row = r -> r;
+      return sort(table, row, row, new ClosureComparator<>(closure), runRows);
+    }
+    Function<Map<String, Object>, Object> key = r -> closure.call(r);
+    return sort(table, key, key, new NumberAwareComparator<>(), runRows);
+  }
+
+  /**
+   * Groups rows by the key the closure returns. Keys are numbered in order of first appearance
+   * while the runs are built, the rows are sorted by that number, and each group becomes a view
+   * over its range of the sorted result, so only the distinct keys are kept on the heap.
+   */
+  static Map<Object, List<Map<String, Object>>> groupBy(ResultTable table, Closure<?> closure, int runRows) {
+    var groups = new Groups();
+    var sorted = sort(table, r -> groups.add(closure.call(r)), r -> groups.ordinal(closure.call(r)),
+        Comparator.comparingInt(o -> (Integer) o), runRows);
+
+    var result = new LinkedHashMap<Object, List<Map<String, Object>>>();
+    var start = 0;
+    for (var ordinal = 0; ordinal < groups.keys.size(); ordinal++) {
+      var count = groups.counts[ordinal];
+      result.put(groups.keys.get(ordinal), new RowView(sorted, null, start, start + count));
+      start += count;
+    }
+    return result;
+  }
+
+  /**
+   * {@code runKey} computes the sort key of each row, in table order, as the runs are built;
+   * {@code mergeKey} computes it again for the run heads while merging.
+   */
+  private static SnapshotResult sort(ResultTable table, Function<Map<String, Object>, Object> runKey,
+                                     Function<Map<String, Object>, Object> mergeKey, Comparator<Object> order, int runRows) {
+    var scope = Cancellation.current();
+    var runs = new ArrayList<SnapshotResult>();
+    try {
+      for (var from = 0; from < table.size(); from += runRows) {
+        runs.add(writeRun(table, from, Math.min(table.size(), from + runRows), runKey, order, scope));
+      }
+      return OffHeapStore.create(file -> merge(table.schema(), runs, mergeKey, order, file, scope));
+    } catch (IOException | SQLException e) {
+      throw new RuntimeException(e);
+    } finally {
+      runs.forEach(SnapshotResult::close);
+    }
+  }
+
+  private static SnapshotResult writeRun(ResultTable table, int from, int to, Function<Map<String, Object>, Object> key,
+                                         Comparator<Object> order, Cancellation.Scope scope) throws IOException {
+    var count = to - from;
+    var run = new ColumnarResult(table.schema(), count);
+    for (var row = from; row < to; row++) {
+      checkCancelled(scope, row);
+      run.appendRow(table, row);
+    }
+
+    var keys = new Object[count];
+    var positions = new Integer[count];
+    for (var row = 0; row < count; row++) {
+      keys[row] = key.apply(run.get(row));
+      positions[row] = row;
+    }
+    // Arrays.sort on objects is stable
+    Arrays.sort(positions, (a, b) -> order.compare(keys[a], keys[b]));
+
+    var sorted = new int[count];
+    for (var i = 0; i < count; i++) {
+      sorted[i] = positions[i];
+    }
+    var file = OffHeapStore.scratchFile("run");
+    try {
+      SnapshotWriter.write(file, new RowView(run, sorted, 0, count));
+      return SnapshotResult.open(file, true);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  private static void merge(Schema schema, List<SnapshotResult> runs, Function<Map<String, Object>, Object> key,
+                            Comparator<Object> order, Path file, Cancellation.Scope scope) throws IOException {
+    var heads = new PriorityQueue<Cursor>((a, b) -> {
+      var compared = order.compare(a.key, b.key);
+      return compared != 0 ? compared : Integer.compare(a.run, b.run);
+    });
+    for (var r = 0; r < runs.size(); r++) {
+      var cursor = new Cursor(runs.get(r), r);
+      if (cursor.advance(key)) {
+        heads.add(cursor);
+      }
+    }
+
+    try (var writer = new SnapshotWriter(file, schema)) {
+      var page = new ColumnarResult(schema, SnapshotWriter.ROW_GROUP_SIZE);
+      var rows = 0;
+      while (!heads.isEmpty()) {
+        checkCancelled(scope, rows++);
+        var head = heads.poll();
+        page.appendRow(head.rows, head.position);
+        if (page.size() == SnapshotWriter.ROW_GROUP_SIZE) {
+          writer.writeGroup(page, 0, page.size());
+          page = new ColumnarResult(schema, SnapshotWriter.ROW_GROUP_SIZE);
+        }
+        if (head.advance(key)) {
+          heads.add(head);
+        }
+      }
+      writer.writeGroup(page, 0, page.size());
+    }
+  }
+
+  private static void checkCancelled(Cancellation.Scope scope, int row) {
+    if (scope != null && row % CHECK_INTERVAL == 0) {
+      scope.check();
+    }
+  }
+
+  /**
+   * Position in a sorted run and the key of the row at that position.
+   */
+  private static final class Cursor {
+    private final SnapshotResult rows;
+    private final int run;
+    private int position = -1;
+    private Object key;
+
+    private Cursor(SnapshotResult rows, int run) {
+      this.rows = rows;
+      this.run = run;
+    }
+
+    private boolean advance(Function<Map<String, Object>, Object> keyFunction) {
+      if (++position >= rows.size()) {
+        return false;
+      }
+      key = keyFunction.apply(rows.get(position));
+      return true;
+    }
+  }
+
+  /**
+   * Distinct group keys numbered in order of first appearance, with the row count of each.
+   */
+  private static final class Groups {
+    private final Map<Object, Integer> ordinals = new HashMap<>();
+    private final List<Object> keys = new ArrayList<>();
+    private int[] counts = new int[16];
+
+    private int add(Object key) {
+      var ordinal = ordinals.computeIfAbsent(key, k -> {
+        keys.add(k);
+        return keys.size() - 1;
+      });
+      if (ordinal == counts.length) {
+        counts = Arrays.copyOf(counts, counts.length * 2);
+      }
+      counts[ordinal]++;
+      return ordinal;
+    }
+
+    private int ordinal(Object key) {
+      return ordinals.get(key);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash index on one column of a loaded object: {@code users.index('id')[42]}. Lookups take
+ * constant time. Integer and decimal columns are keyed by primitive longs; rows sharing a key are
+ * chained in table order. The index rebuilds itself when the table changed since it was built.
+ */
+public final class HashIndex {
+  private final ResultTable table;
+  private final int column;
+  private final ColumnType type;
+  private int version = -1;
+  private int size;
+  private LongIntMap primitiveHeads;
+  private Map<Object, Integer> heads;
+  private int[] next;
+
+  HashIndex(ResultTable table, int column) {
+    this.table = table;
+    this.column = column;
+    this.type = table.schema().type(column);
+  }
+
+  /**
+   * Returns the first row with {@code key}, or null.
+   */
+  public synchronized Map<String, Object> get(Object key) {
+    var row = head(key);
+    return row < 0 ? null : table.get(row);
+  }
+
+  /**
+   * Groovy subscript, same as {@link #get}.
+   */
+  public Map<String, Object> getAt(Object key) {
+    return get(key);
+  }
+
+  /**
+   * Returns every row with {@code key}, in table order.
+   */
+  public synchronized ResultTable getAll(Object key) {
+    var rows = new int[4];
+    var count = 0;
+    for (var row = head(key); row >= 0; row = next[row]) {
+      if (count == rows.length) {
+        rows = Arrays.copyOf(rows, count * 2);
+      }
+      rows[count++] = row;
+    }
+    return new RowView(table, rows, 0, count);
+  }
+
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Number of distinct non-null keys.
+   */
+  public synchronized int keyCount() {
+    refresh();
+    return primitiveHeads != null ? primitiveHeads.size() : heads.size();
+  }
+
+  @Override
+  public String toString() {
+    return "HashIndex(%s, %d keys)".formatted(table.schema().name(column), keyCount());
+  }
+
+  private int head(Object key) {
+    refresh();
+    if (key == null) {
+      return -1;
+    }
+    if (primitiveHeads != null) {
+      var primitive = primitiveKey(key);
+      return primitive == null ? -1 : primitiveHeads.get(primitive);
+    }
+    return heads.getOrDefault(IndexKeys.normalize(type, key), -1);
+  }
+
+  private Long primitiveKey(Object key) {
+    if (type == ColumnType.DOUBLE) {
+      return key instanceof Number n ? IndexKeys.doubleBits(n.doubleValue()) : null;
+    }
+    return IndexKeys.integral(key);
+  }
+
+  synchronized void build() {
+    refresh();
+  }
+
+  private void refresh() {
+    if (version == table.version() && size == table.size()) {
+      return;
+    }
+    size = table.size();
+    version = table.version();
+    next = new int[size];
+    var numeric = type == ColumnType.INT || type == ColumnType.LONG || type == ColumnType.DOUBLE;
+    primitiveHeads = numeric ? new LongIntMap(size) : null;
+    heads = numeric ? null : new HashMap<>();
+
+    // Walking backwards leaves the first row of every key at the head of its chain
+    for (var row = size - 1; row >= 0; row--) {
+      if (table.isNull(row, column)) {
+        next[row] = -1;
+      } else if (numeric) {
+        var key = type == ColumnType.DOUBLE ? IndexKeys.doubleBits(table.getDouble(row, column)) : table.getLong(row, column);
+        next[row] = primitiveHeads.put(key, row);
+      } else {
+        var previous = heads.put(IndexKeys.normalize(type, table.getValue(row, column)), row);
+        next[row] = previous == null ? -1 : previous;
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Normalizes lookup keys to the representation a column stores, so {@code index[42]} finds a
+ * {@code long} 42 and {@code '2024-01-01 10:00:00'} finds a timestamp.
+ */
+final class IndexKeys {
+  private IndexKeys() {
+  }
+
+  /**
+   * Returns the key as a long when it is an integral number, or null.
+   */
+  static Long integral(Object key) {
+    return switch (key) {
+      case Long l -> l;
+      case Integer i -> i.longValue();
+      case Short s -> s.longValue();
+      case Byte b -> b.longValue();
+      case BigInteger b when b.bitLength() < 64 -> b.longValue();
+      case BigDecimal d when d.signum() == 0 || d.stripTrailingZeros().scale() <= 0 -> {
+        try {
+          yield d.longValueExact();
+        } catch (ArithmeticException e) {
+          yield null;
+        }
+      }
+      case Double d when d == Math.rint(d) && Math.abs(d) < 0x1p63 -> d.longValue();
+      case Float f when f == Math.rint(f) && Math.abs(f) < 0x1p63 -> f.longValue();
+      case null, default -> null;
+    };
+  }
+
+  /**
+   * Bits of a double with both zeros mapped to the same key.
+   */
+  static long doubleBits(double value) {
+    return Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+  }
+
+  static BigDecimal decimal(Number number) {
+    return switch (number) {
+      case BigDecimal d -> d;
+      case BigInteger b -> new BigDecimal(b);
+      case Double d -> BigDecimal.valueOf(d);
+      case Float f -> BigDecimal.valueOf(f.doubleValue());
+      default -> BigDecimal.valueOf(number.longValue());
+    };
+  }
+
+  /**
+   * Converts a key for a non-numeric column; null when it cannot match any value of the column.
+   */
+  static Object normalize(ColumnType type, Object key) {
+    if (key == null) {
+      return null;
+    }
+    return switch (type) {
+      case STRING -> key.toString();
+      case BOOLEAN -> key instanceof Boolean ? key : key instanceof CharSequence s ? Boolean.valueOf(s.toString()) : null;
+      case TIMESTAMP -> timestamp(key);
+      case OBJECT -> key instanceof CharSequence s ? s.toString()
+          : key instanceof Number n ? decimal(n).stripTrailingZeros() : key;
+      default -> key;
+    };
+  }
+
+  private static Timestamp timestamp(Object key) {
+    if (key instanceof CharSequence s) {
+      var text = s.toString().trim();
+      return text.length() == 10 ? Timestamp.valueOf(LocalDate.parse(text).atStartOfDay()) : Timestamp.valueOf(text.replace('T', ' '));
+    }
+    if (key instanceof LocalDate date) {
+      return Timestamp.valueOf(date.atStartOfDay());
+    }
+    return Column.TimestampColumn.toTimestamp(key);
+  }
+}
@@ -0,0 +1,419 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.StorageMode;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbLimits;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.SqlUtils;
+import dev.buildcli.plugin.bdclidb.utils.pool.ConnectionPool;
+import dev.buildcli.plugin.bdclidb.utils.pool.PooledConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.lang.ref.Cleaner;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Cursor-backed view over a {@link DbObject}. Nothing is fetched until the object is iterated;
+ * every iteration borrows a pooled connection, opens its own cursor and pulls rows from the database one page at a time, so
+ * memory stays bounded by the page size regardless of the table size.
+ * <p>
+ * It is also a query builder: {@code orders.where(status: 'OPEN').select('id', 'total').orderBy('id').limit(100)}
+ * returns a new view whose conditions, projection, order and limit are composed around the object
+ * SQL and run by the database, so only the matching rows and columns are transferred. Views run
+ * when they are iterated, counted or {@link #load() loaded}.
+ */
+public class LazyObject implements Iterable<Map<String, Object>>, Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(LazyObject.class);
+  private static final Cleaner CLEANER = Cleaner.create();
+  /**
+   * Open cursors of every lazy object, oldest first.
+   */
+  private static final Queue<CursorResources> CURSORS = new ConcurrentLinkedQueue<>();
+
+  private final DbObject object;
+  private final DbConnection connection;
+  private final Map<String, Object> arguments;
+  private final ObjectQuery query;
+  private final Set<CursorResources> openCursors;
+
+  public LazyObject(DbObject object, DbConnection connection) {
+    this(object, connection, Map.of());
+  }
+
+  /**
+   * Creates a view over a parameterized object with its bind arguments.
+   */
+  public LazyObject(DbObject object, DbConnection connection, Map<String, Object> arguments) {
+    this(object, connection, Collections.unmodifiableMap(new LinkedHashMap<>(arguments)), ObjectQuery.ALL,
+        ConcurrentHashMap.newKeySet());
+  }
+
+  /**
+   * Views built from this one share its cursor registry, so closing the object closes theirs too.
+   */
+  private LazyObject(DbObject object, DbConnection connection, Map<String, Object> arguments, ObjectQuery query,
+                     Set<CursorResources> openCursors) {
+    this.object = object;
+    this.connection = connection;
+    this.arguments = arguments;
+    this.query = query;
+    this.openCursors = openCursors;
+  }
+
+  /**
+   * Keeps the rows matching every entry, e.g. {@code where(status: 'OPEN', region: ['EU', 'US'])}.
+   * A null value matches {@code is null}, a list matches any of its values and a range matches
+   * {@code between} its bounds.
+   */
+  public LazyObject where(Map<String, ?> criteria) {
+    return with(query.withWhere(criteria));
+  }
+
+  /**
+   * Keeps the rows matching a SQL condition with {@code ?} markers, e.g. {@code where('total > ?', 100)}.
+   */
+  public LazyObject where(String condition, Object... values) {
+    return with(query.withWhere(condition, values));
+  }
+
+  /**
+   * Fetches only the given columns.
+   */
+  public LazyObject select(String... columns) {
+    return with(query.withColumns(columns));
+  }
+
+  /**
+   * Orders by columns, each optionally followed by {@code asc} or {@code desc}, e.g. {@code orderBy('created_at desc', 'id')}.
+   */
+  public LazyObject orderBy(String... columns) {
+    return with(query.withOrder(columns));
+  }
+
+  /**
+   * Fetches at most {@code rows} rows.
+   */
+  public LazyObject limit(long rows) {
+    return with(query.withLimit(rows));
+  }
+
+  /**
+   * Runs the query and loads every row, within the object's memory budget and load limits.
+   */
+  public ResultTable load() {
+    var governor = new LoadGovernor(DbLimits.of(connection, object));
+    try (var pooled = borrow(ConnectionUtils.pool(connection))) {
+      var stmt = pooled.prepare(governor.sql(sql(executedSql()), ConnectionUtils.dialect(connection)));
+      ConnectionUtils.enableStreaming(pooled.connection(), stmt, connection, object.fetchSize());
+      governor.apply(stmt);
+      bind(stmt);
+      try (var tracked = Cancellation.track(stmt); var rs = stmt.executeQuery()) {
+        return governor.mark(object.storage() == StorageMode.OFFHEAP
+            ? OffHeapStore.load(rs, governor) : SpilledResult.load(rs, object.memoryBudget(), governor));
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Counts the matching rows in the database.
+   */
+  public long count() {
+    try (var pooled = borrow(ConnectionUtils.pool(connection))) {
+      var stmt = pooled.prepare(query.count(executedSql(), ConnectionUtils.dialect(connection)));
+      bind(stmt);
+      try (var tracked = Cancellation.track(stmt); var rs = stmt.executeQuery()) {
+        rs.next();
+        return rs.getLong(1);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the SQL this view runs.
+   */
+  public String getSql() {
+    return sql(object.sql());
+  }
+
+  @Override
+  public Iterator<Map<String, Object>> iterator() {
+    return new Cursor();
+  }
+
+  /**
+   * Closes every cursor that was abandoned before reaching the end of the result.
+   */
+  @Override
+  public void close() {
+    for (var resources : openCursors) {
+      resources.run();
+    }
+  }
+
+  public DbObject getObject() {
+    return object;
+  }
+
+  @Override
+  public String toString() {
+    var args = arguments.isEmpty() ? "" : arguments.toString();
+    return "LazyObject[%s%s@%s: %s]".formatted(object.name(), args, connection.name(), getSql());
+  }
+
+  private LazyObject with(ObjectQuery query) {
+    return new LazyObject(object, connection, arguments, query, openCursors);
+  }
+
+  private String sql(String base) {
+    return query.isEmpty() ? base : query.compose(base, ConnectionUtils.dialect(connection));
+  }
+
+  /**
+   * The object SQL as sent to the driver, with named parameters replaced by markers.
+   */
+  private String executedSql() {
+    return object.isParameterized() ? SqlUtils.parseNamedParameters(object.sql()).sql() : object.sql();
+  }
+
+  /**
+   * Binds the object's arguments, then the values of the query conditions.
+   */
+  private void bind(PreparedStatement stmt) throws SQLException {
+    var index = object.isParameterized()
+        ? ParameterizedObject.bind(stmt, object, SqlUtils.parseNamedParameters(object.sql()), arguments) : 0;
+    for (var value : query.values()) {
+      stmt.setObject(++index, value);
+    }
+  }
+
+  /**
+   * Opens a cursor with the row cap of {@code governor} pushed down and its limits applied to the
+   * statement.
+   */
+  private CursorResources open(LoadGovernor governor) {
+    PooledConnection pooled = null;
+    Statement stmt = null;
+    try {
+      var pool = ConnectionUtils.pool(connection);
+      pooled = borrow(pool);
+      var con = pooled.connection();
+      ResultSet rs;
+      var sql = governor.sql(sql(executedSql()), ConnectionUtils.dialect(connection));
+      if (object.isParameterized() || !query.values().isEmpty()) {
+        var prepared = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt = prepared;
+        ConnectionUtils.enableStreaming(con, stmt, connection, object.fetchSize());
+        governor.apply(stmt);
+        bind(prepared);
+        try (var tracked = Cancellation.track(prepared)) {
+          rs = prepared.executeQuery();
+        }
+      } else {
+        stmt = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ConnectionUtils.enableStreaming(con, stmt, connection, object.fetchSize());
+        governor.apply(stmt);
+        try (var tracked = Cancellation.track(stmt)) {
+          rs = stmt.executeQuery(sql);
+        }
+      }
+      var resources = new CursorResources(pool, pooled, stmt, rs, openCursors);
+      openCursors.add(resources);
+      CURSORS.add(resources);
+      return resources;
+    } catch (SQLException e) {
+      closeQuietly(stmt);
+      closeQuietly(pooled);
+      throw new RuntimeException(e);
+    } catch (RuntimeException e) {
+      closeQuietly(stmt);
+      closeQuietly(pooled);
+      throw e;
+    }
+  }
+
+  /**
+   * Borrows a connection of {@code pool}. Iterators dropped early, e.g. by {@code take(10)}, keep
+   * their cursor open, so the oldest cursors on the pool are closed before waiting for one.
+   */
+  private static PooledConnection borrow(ConnectionPool pool) {
+    var pooled = pool.tryBorrow(Duration.ZERO);
+    while (pooled == null && closeOldestCursor(pool)) {
+      pooled = pool.tryBorrow(Duration.ZERO);
+    }
+    return pooled != null ? pooled : pool.borrow();
+  }
+
+  /**
+   * Closes the oldest open cursor on {@code pool}, returning its connection. Returns false when
+   * there is none.
+   */
+  private static boolean closeOldestCursor(ConnectionPool pool) {
+    for (var resources : CURSORS) {
+      if (resources.pool == pool && resources.reclaim()) {
+        logger.debug("Closed the oldest open cursor to free a pooled connection");
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void closeQuietly(AutoCloseable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (Exception e) {
+      logger.debug("Failed to close cursor resource", e);
+    }
+  }
+
+  /**
+   * Iteration over one cursor. The object's load limits apply to every iteration: it ends at
+   * {@code maxRows}, once the pages fetched so far pass {@code maxBytes} or when
+   * {@code queryTimeout} expires.
+   */
+  private class Cursor implements Iterator<Map<String, Object>> {
+    private final LoadGovernor governor = new LoadGovernor(DbLimits.of(connection, object));
+    private final CursorResources resources;
+    private final Cleaner.Cleanable cleanable;
+    private final Schema schema;
+    private final int pageSize = object.fetchSize();
+    private ColumnarResult page;
+    private int position;
+    private boolean exhausted;
+
+    private Cursor() {
+      resources = open(governor);
+      // Closes the cursor once the iterator is dropped early, e.g. by users.take(100)
+      cleanable = CLEANER.register(this, resources);
+      try {
+        schema = Schema.of(resources.rs.getMetaData());
+      } catch (SQLException e) {
+        cleanable.clean();
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if ((page == null || position == page.size()) && !exhausted) {
+        fetchPage();
+      }
+      return page != null && position < page.size();
+    }
+
+    @Override
+    public Map<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.get(position++);
+    }
+
+    private void fetchPage() {
+      // Holding the resources keeps another open() from reclaiming the cursor mid-page
+      synchronized (resources) {
+        if (resources.reclaimed) {
+          throw new IllegalStateException(("The cursor over %s was closed to free its connection for another one, "
+              + "iterate it again or raise poolMax").formatted(object.name()));
+        }
+        // Only tracked while fetching, an open cursor kept in a variable outlives the evaluation
+        try (var tracked = Cancellation.track(resources.stmt)) {
+          var rs = resources.rs;
+          if (page != null) {
+            governor.carry(page.estimatedBytes());
+          }
+          // Rows handed out earlier keep referencing their own page, so a fresh one is needed each time
+          var next = new ColumnarResult(schema, pageSize);
+          page = next;
+          position = 0;
+          while (next.size() < pageSize && rs.next() && governor.admit(next::estimatedBytes)) {
+            next.readRow(rs);
+          }
+
+          if (governor.isTruncated()) {
+            logger.warn("Iteration of {} was truncated by {}", object.name(), governor.getTruncation());
+          }
+          if (next.size() < pageSize || governor.isTruncated()) {
+            exhausted = true;
+            cleanable.clean();
+          }
+        } catch (SQLException e) {
+          exhausted = true;
+          cleanable.clean();
+          throw new RuntimeException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * JDBC resources of a single cursor. Kept apart from the iterator so the cleaner can release
+   * them without holding a reference to it.
+   */
+  private static final class CursorResources implements Runnable {
+    private final ConnectionPool pool;
+    private final PooledConnection pooled;
+    private final Statement stmt;
+    private final ResultSet rs;
+    private final Set<CursorResources> registry;
+    private boolean closed;
+    private boolean reclaimed;
+
+    private CursorResources(ConnectionPool pool, PooledConnection pooled, Statement stmt, ResultSet rs, Set<CursorResources> registry) {
+      this.pool = pool;
+      this.pooled = pooled;
+      this.stmt = stmt;
+      this.rs = rs;
+      this.registry = registry;
+    }
+
+    /**
+     * Closes the cursor for another one that needs its connection. Returns false when it was
+     * already closed.
+     */
+    private synchronized boolean reclaim() {
+      if (closed) {
+        return false;
+      }
+      reclaimed = true;
+      run();
+      return true;
+    }
+
+    @Override
+    public synchronized void run() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      registry.remove(this);
+      CURSORS.remove(this);
+      closeQuietly(rs);
+      closeQuietly(stmt);
+      closeQuietly(pooled);
+    }
+  }
+}
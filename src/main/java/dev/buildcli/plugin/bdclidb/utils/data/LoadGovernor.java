@@ -0,0 +1,105 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.Dialect;
+import dev.buildcli.plugin.bdclidb.models.DbLimits;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces the {@link DbLimits} of one object load. The row cap is pushed down to the server and
+ * to {@link Statement#setMaxRows}, asking for one row more than allowed so a truncated result can
+ * be told apart from one that fits exactly; the timeout is set on the statement. While rows are
+ * read, the governor stops the load at the row cap, once the loaded values pass {@code maxBytes},
+ * or when the timeout expires during the fetch, and records why on the result.
+ */
+public final class LoadGovernor {
+  private static final int CHECK_INTERVAL = 1024;
+
+  private final DbLimits limits;
+  private final long deadline;
+  private long rows;
+  private long carriedBytes;
+  private String truncation;
+
+  public LoadGovernor(DbLimits limits) {
+    this.limits = limits;
+    this.deadline = limits.hasQueryTimeout() ? System.nanoTime() + limits.queryTimeout().toNanos() : Long.MAX_VALUE;
+  }
+
+  public static LoadGovernor unlimited() {
+    return new LoadGovernor(DbLimits.NONE);
+  }
+
+  /**
+   * Returns the SQL to run for {@code sql}, with the row cap pushed down in the given dialect.
+   */
+  public String sql(String sql, Dialect dialect) {
+    return limits.hasMaxRows() && limits.maxRows() < Long.MAX_VALUE ? dialect.limit(sql, limits.maxRows() + 1) : sql;
+  }
+
+  /**
+   * Applies the row cap and timeout to a statement before it is executed. Both are always set, so
+   * a cached statement does not keep the limits of an earlier load.
+   */
+  public void apply(Statement stmt) throws SQLException {
+    stmt.setMaxRows(limits.hasMaxRows() && limits.maxRows() < Integer.MAX_VALUE ? (int) limits.maxRows() + 1 : 0);
+    stmt.setQueryTimeout(limits.queryTimeoutSeconds());
+  }
+
+  /**
+   * Called for every row the result set advanced to, before it is read. Returns false when the row
+   * must not be loaded, which marks the load as truncated. {@code bytes} estimates what the
+   * current stage of the load holds.
+   */
+  boolean admit(LongSupplier bytes) {
+    if (truncation != null) {
+      return false;
+    }
+    if (limits.hasMaxRows() && rows >= limits.maxRows()) {
+      truncation = "maxRows=" + limits.maxRows();
+      return false;
+    }
+    if (rows % CHECK_INTERVAL == 0 && rows > 0) {
+      if (limits.hasMaxBytes() && carriedBytes + bytes.getAsLong() > limits.maxBytes()) {
+        truncation = "maxBytes=" + limits.maxBytes();
+        return false;
+      }
+      if (System.nanoTime() > deadline) {
+        truncation = "queryTimeout=" + limits.queryTimeout();
+        return false;
+      }
+    }
+    rows++;
+    return true;
+  }
+
+  /**
+   * Adds the bytes of an earlier stage, e.g. the in-heap rows of a load that spills to disk.
+   */
+  void carry(long bytes) {
+    carriedBytes += bytes;
+  }
+
+  public boolean isTruncated() {
+    return truncation != null;
+  }
+
+  /**
+   * Returns the limit that cut the load short, e.g. {@code maxRows=1000}, or null.
+   */
+  public String getTruncation() {
+    return truncation;
+  }
+
+  /**
+   * Marks {@code rows} with the truncation of this load, if any, and returns them.
+   */
+  public <T extends ResultTable> T mark(T rows) {
+    if (truncation != null) {
+      rows.setTruncation(truncation);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,283 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory H2 database holding copies of loaded objects as tables, so objects from different
+ * connections can be joined with SQL. Columns used in {@code a.x = b.y} predicates of a query are
+ * indexed before it runs, which turns joins into index lookups instead of nested scans. Identifiers
+ * are case-insensitive.
+ */
+public class LocalDatabase implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(LocalDatabase.class);
+
+  private static final AtomicInteger IDS = new AtomicInteger();
+  private static final int BATCH_SIZE = 1024;
+  private static final Pattern TABLE_REFERENCE = Pattern.compile(
+      "(?i)\\b(?:from|join)\\s+\"?(\\w+)\"?(?:\\s+(?:as\\s+)?(?!(?:on|where|join|inner|left|right|full|cross|natural|group|order|limit|union)\\b)(\\w+))?");
+  private static final Pattern EQUALITY = Pattern.compile("\"?(\\w+)\"?\\.\"?(\\w+)\"?\\s*=\\s*\"?(\\w+)\"?\\.\"?(\\w+)\"?");
+
+  private final DbConnection database = new DbConnection("local", "jdbc:h2:mem:bdclidb-local-%d;DB_CLOSE_DELAY=-1;CASE_INSENSITIVE_IDENTIFIERS=TRUE"
+      .formatted(IDS.incrementAndGet()), "sa", "", "h2");
+  private final Map<String, Table> tables = new HashMap<>();
+  private Connection connection;
+
+  private static final class Table {
+    private final String name;
+    private final ResultTable rows;
+    private final int size;
+    private final int version;
+    private final Set<List<String>> indexes = new LinkedHashSet<>();
+
+    private Table(String name, ResultTable rows, int version) {
+      this.name = name;
+      this.rows = rows;
+      this.size = rows.size();
+      this.version = version;
+    }
+  }
+
+  /**
+   * Whether {@code name} holds a copy of {@code rows} that has not changed since it was copied,
+   * through added rows or values set in place.
+   */
+  public synchronized boolean isCurrent(String name, ResultTable rows) {
+    var table = tables.get(key(name));
+    return table != null && table.rows == rows && table.size == rows.size() && table.version == rows.version();
+  }
+
+  /**
+   * Copies {@code rows} into table {@code name}, replacing an existing copy and recreating its
+   * indexes.
+   */
+  public synchronized void register(String name, ResultTable rows) {
+    var start = System.nanoTime();
+    var version = rows.version();
+    var previous = tables.remove(key(name));
+    var schema = rows.schema();
+    var types = new String[schema.size()];
+    for (var column = 0; column < types.length; column++) {
+      types[column] = sqlType(rows, column);
+    }
+
+    try {
+      var con = connection();
+      try (var stmt = con.createStatement()) {
+        stmt.execute("drop table if exists " + quote(name));
+        var columns = new ArrayList<String>();
+        for (var column = 0; column < types.length; column++) {
+          columns.add(quote(schema.name(column)) + " " + types[column]);
+        }
+        stmt.execute("create table %s (%s)".formatted(quote(name), String.join(", ", columns)));
+      }
+
+      var markers = String.join(", ", Collections.nCopies(types.length, "?"));
+      con.setAutoCommit(false);
+      try (var insert = con.prepareStatement("insert into %s values (%s)".formatted(quote(name), markers))) {
+        for (var row = 0; row < rows.size(); row++) {
+          for (var column = 0; column < types.length; column++) {
+            var value = rows.getValue(row, column);
+            insert.setObject(column + 1, value != null && "VARCHAR".equals(types[column]) ? value.toString() : value);
+          }
+          insert.addBatch();
+          if ((row + 1) % BATCH_SIZE == 0) {
+            insert.executeBatch();
+          }
+        }
+        insert.executeBatch();
+        con.commit();
+      } finally {
+        con.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to register %s: %s".formatted(name, e.getMessage()), e);
+    }
+
+    var table = new Table(name, rows, version);
+    tables.put(key(name), table);
+    if (previous != null) {
+      for (var index : previous.indexes) {
+        createIndex(name, index.toArray(String[]::new));
+      }
+    }
+    logger.debug("Registered {} ({} rows) in {} ms", name, rows.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Indexes {@code columns} of a registered table; indexes survive re-registration.
+   */
+  public synchronized void createIndex(String name, String... columns) {
+    var table = tables.get(key(name));
+    if (table == null) {
+      throw new IllegalArgumentException("Table " + name + " is not registered");
+    }
+    var index = Arrays.stream(columns).map(LocalDatabase::key).toList();
+    if (table.indexes.contains(index)) {
+      return;
+    }
+
+    var indexName = quote("idx_%s_%s".formatted(table.name, String.join("_", index)));
+    var indexColumns = Arrays.stream(columns).map(LocalDatabase::quote).collect(Collectors.joining(", "));
+    try (var stmt = connection().createStatement()) {
+      stmt.execute("create index if not exists %s on %s (%s)".formatted(indexName, quote(table.name), indexColumns));
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to index %s(%s): %s".formatted(name, String.join(", ", columns), e.getMessage()), e);
+    }
+    table.indexes.add(index);
+  }
+
+  public synchronized void drop(String name) {
+    var table = tables.remove(key(name));
+    if (table == null) {
+      return;
+    }
+    try (var stmt = connection().createStatement()) {
+      stmt.execute("drop table if exists " + quote(table.name));
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public synchronized ColumnarResult query(String sql, Object... params) {
+    indexJoinColumns(sql);
+    try (var stmt = connection().prepareStatement(sql)) {
+      for (var i = 0; i < params.length; i++) {
+        stmt.setObject(i + 1, params[i]);
+      }
+      try (var tracked = Cancellation.track(stmt); var rs = stmt.executeQuery()) {
+        return ColumnarResult.from(rs);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public synchronized Set<String> getTables() {
+    return tables.values().stream().map(t -> t.name).collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  @Override
+  public synchronized void close() {
+    tables.clear();
+    if (connection == null) {
+      return;
+    }
+    try (var stmt = connection.createStatement()) {
+      stmt.execute("shutdown");
+    } catch (SQLException e) {
+      logger.debug("Failed to shut down the local database: {}", e.getMessage());
+    } finally {
+      try {
+        connection.close();
+      } catch (SQLException ignored) {
+      }
+      connection = null;
+    }
+  }
+
+  /**
+   * Indexes the registered columns compared in {@code a.x = b.y} predicates, resolving table
+   * aliases from the query's from and join clauses.
+   */
+  private void indexJoinColumns(String sql) {
+    var aliases = new HashMap<String, String>();
+    var references = TABLE_REFERENCE.matcher(sql);
+    while (references.find()) {
+      var table = references.group(1);
+      aliases.put(key(table), table);
+      if (references.group(2) != null) {
+        aliases.put(key(references.group(2)), table);
+      }
+    }
+
+    var equalities = EQUALITY.matcher(sql);
+    while (equalities.find()) {
+      indexColumn(aliases.get(key(equalities.group(1))), equalities.group(2));
+      indexColumn(aliases.get(key(equalities.group(3))), equalities.group(4));
+    }
+  }
+
+  private void indexColumn(String name, String column) {
+    var table = name == null ? null : tables.get(key(name));
+    var position = table == null ? -1 : table.rows.schema().indexOfIgnoreCase(column);
+    if (position >= 0) {
+      createIndex(table.name, table.rows.schema().name(position));
+    }
+  }
+
+  private Connection connection() {
+    if (connection == null) {
+      connection = ConnectionUtils.connect(database);
+    }
+    return connection;
+  }
+
+  private static String sqlType(ResultTable rows, int column) {
+    return switch (rows.schema().type(column)) {
+      case INT -> "INTEGER";
+      case LONG -> "BIGINT";
+      case DOUBLE -> "DOUBLE PRECISION";
+      case BOOLEAN -> "BOOLEAN";
+      case TIMESTAMP -> "TIMESTAMP(9)";
+      case STRING -> "VARCHAR";
+      case OBJECT -> objectType(rows, column);
+    };
+  }
+
+  /**
+   * Object columns take the type of their first value; values of types H2 has no column for are
+   * stored as text.
+   */
+  private static String objectType(ResultTable rows, int column) {
+    for (var row = 0; row < rows.size(); row++) {
+      var value = rows.getValue(row, column);
+      if (value == null) {
+        continue;
+      }
+      return switch (value) {
+        case BigDecimal ignored -> "NUMERIC";
+        case java.sql.Date ignored -> "DATE";
+        case LocalDate ignored -> "DATE";
+        case java.sql.Time ignored -> "TIME";
+        case LocalTime ignored -> "TIME";
+        case byte[] ignored -> "VARBINARY";
+        case UUID ignored -> "UUID";
+        default -> "VARCHAR";
+      };
+    }
+    return "VARCHAR";
+  }
+
+  private static String key(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  private static String quote(String identifier) {
+    return '"' + identifier.replace("\"", "\"\"") + '"';
+  }
+}
@@ -0,0 +1,63 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to non-negative int values, used by indexes on numeric
+ * columns so neither keys nor row numbers are boxed.
+ */
+final class LongIntMap {
+  private static final int EMPTY = -1;
+
+  private final long[] keys;
+  private final int[] values;
+  private final int mask;
+  private int size;
+
+  LongIntMap(int expected) {
+    var capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    Arrays.fill(values, EMPTY);
+  }
+
+  /**
+   * Returns the value of {@code key}, or -1.
+   */
+  int get(long key) {
+    for (var slot = slot(key); ; slot = (slot + 1) & mask) {
+      if (values[slot] == EMPTY || keys[slot] == key) {
+        return values[slot];
+      }
+    }
+  }
+
+  /**
+   * Associates {@code value} with {@code key} and returns the previous value, or -1.
+   */
+  int put(long key, int value) {
+    for (var slot = slot(key); ; slot = (slot + 1) & mask) {
+      if (values[slot] == EMPTY) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return EMPTY;
+      }
+      if (keys[slot] == key) {
+        var previous = values[slot];
+        values[slot] = value;
+        return previous;
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int slot(long key) {
+    var hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
@@ -0,0 +1,382 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ExportFormat;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.SqlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams objects from their result sets straight to files: CSV with a header row, JSON Lines
+ * with one object per row, or the binary snapshot format of the result cache. Rows are written
+ * as they are fetched through a direct buffer and a file channel, so memory stays at one fetch
+ * page (one row group for snapshots) whatever the size of the export. Files are written next to
+ * their destination and moved into place once complete.
+ */
+public final class ObjectExporter {
+  private static final Logger logger = LoggerFactory.getLogger(ObjectExporter.class);
+
+  private ObjectExporter() {
+  }
+
+  public record Result(DbObject object, Path file, long rows, long bytes, Throwable error, Duration elapsed) {
+    public boolean isSuccess() {
+      return error == null;
+    }
+  }
+
+  /**
+   * Exports every object to its file in {@code files}. Connections are exported concurrently, each
+   * with up to {@code parallelism} objects in flight, like {@link ObjectLoader#load}. Parameterized
+   * objects are bound to {@code arguments}.
+   */
+  public static List<Result> export(Map<DbConnection, List<DbObject>> objectsByConnection, Map<String, Path> files,
+                                    ExportFormat format, boolean gzip, Map<String, Object> arguments) {
+    var results = new ConcurrentLinkedQueue<Result>();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var tasks = new ArrayList<Future<?>>();
+      for (var entry : objectsByConnection.entrySet()) {
+        if (!entry.getValue().isEmpty()) {
+          tasks.add(executor.submit(() -> exportConnection(entry.getKey(), entry.getValue(), files, format, gzip, arguments, results)));
+        }
+      }
+
+      for (var task : tasks) {
+        try {
+          task.get();
+        } catch (ExecutionException e) {
+          logger.error("Unexpected failure while exporting objects", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    return List.copyOf(results);
+  }
+
+  private static void exportConnection(DbConnection connection, Collection<DbObject> objects, Map<String, Path> files,
+                                       ExportFormat format, boolean gzip, Map<String, Object> arguments, Queue<Result> results) {
+    var pending = new ConcurrentLinkedQueue<>(objects);
+    var workers = Math.min(connection.parallelism(), pending.size());
+    var connectionErrors = new ConcurrentLinkedQueue<Throwable>();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < workers; i++) {
+        executor.submit(() -> {
+          try (var pooled = ConnectionUtils.pool(connection).borrow()) {
+            DbObject object;
+            while ((object = pending.poll()) != null) {
+              results.add(export(pooled.connection(), connection, object, files.get(object.name()), format, gzip, arguments));
+            }
+          } catch (Exception e) {
+            logger.warn("Failed to connect to database {}: {}", connection.name(), e.getMessage());
+            connectionErrors.add(e);
+          }
+        });
+      }
+    }
+
+    DbObject object;
+    while ((object = pending.poll()) != null) {
+      results.add(new Result(object, files.get(object.name()), 0, 0, connectionErrors.peek(), Duration.ZERO));
+    }
+  }
+
+  /**
+   * Exports one object over {@code con} to {@code file}.
+   */
+  public static Result export(Connection con, DbConnection connection, DbObject object, Path file, ExportFormat format,
+                              boolean gzip, Map<String, Object> arguments) {
+    var start = System.nanoTime();
+    var partial = file.resolveSibling(file.getFileName() + ".part");
+    Statement stmt = null;
+    try {
+      ResultSet rs;
+      if (object.isParameterized()) {
+        var parsed = SqlUtils.parseNamedParameters(object.sql());
+        var prepared = con.prepareStatement(parsed.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt = prepared;
+        ConnectionUtils.enableStreaming(con, stmt, connection, object.fetchSize());
+        ParameterizedObject.bind(prepared, object, parsed, arguments);
+        rs = prepared.executeQuery();
+      } else {
+        stmt = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ConnectionUtils.enableStreaming(con, stmt, connection, object.fetchSize());
+        rs = stmt.executeQuery(object.sql());
+      }
+
+      long rows;
+      try (rs) {
+        rows = format == ExportFormat.BIN ? writeSnapshot(rs, partial, gzip) : writeText(rs, partial, format, gzip);
+      }
+      Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+
+      var bytes = Files.size(file);
+      var elapsed = Duration.ofNanos(System.nanoTime() - start);
+      logger.info("Exported {} rows of {} to {} ({} KB) in {} ms", rows, object.name(), file, bytes >> 10, elapsed.toMillis());
+      return new Result(object, file, rows, bytes, null, elapsed);
+    } catch (SQLException | IOException | RuntimeException e) {
+      logger.warn("Failed to export object {}: {}", object.name(), e.getMessage());
+      deleteQuietly(partial);
+      return new Result(object, file, 0, 0, e, Duration.ofNanos(System.nanoTime() - start));
+    } finally {
+      if (stmt != null) {
+        try {
+          stmt.close();
+        } catch (SQLException e) {
+          logger.debug("Failed to close export statement", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Snapshots are laid out with absolute offsets, so a compressed one is written uncompressed first.
+   */
+  private static long writeSnapshot(ResultSet rs, Path file, boolean gzip) throws IOException, SQLException {
+    if (!gzip) {
+      return SnapshotWriter.write(file, rs);
+    }
+    var snapshot = file.resolveSibling(file.getFileName() + ".bin");
+    try {
+      var rows = SnapshotWriter.write(snapshot, rs);
+      try (var in = Files.newInputStream(snapshot); var out = new GZIPOutputStream(Files.newOutputStream(file), 1 << 16)) {
+        in.transferTo(out);
+      }
+      return rows;
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  private static long writeText(ResultSet rs, Path file, ExportFormat format, boolean gzip) throws IOException, SQLException {
+    var schema = Schema.of(rs.getMetaData());
+    var json = format == ExportFormat.JSONL;
+    var keys = new String[schema.size()];
+    for (var c = 0; c < keys.length; c++) {
+      var key = new StringBuilder();
+      appendJsonString(key, schema.name(c));
+      keys[c] = key.append(':').toString();
+    }
+
+    var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    WritableByteChannel target = gzip ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16)) : channel;
+    try (target; var out = new ChannelWriter(target)) {
+      var line = new StringBuilder(256);
+      if (!json) {
+        for (var c = 0; c < schema.size(); c++) {
+          if (c > 0) {
+            line.append(',');
+          }
+          appendCsvString(line, schema.name(c));
+        }
+        out.writeUtf8(line.append('\n'));
+      }
+
+      var rows = 0L;
+      while (rs.next()) {
+        line.setLength(0);
+        if (json) {
+          line.append('{');
+          for (var c = 0; c < schema.size(); c++) {
+            if (c > 0) {
+              line.append(',');
+            }
+            line.append(keys[c]);
+            appendValue(line, rs, c, schema, true);
+          }
+          line.append('}');
+        } else {
+          for (var c = 0; c < schema.size(); c++) {
+            if (c > 0) {
+              line.append(',');
+            }
+            appendValue(line, rs, c, schema, false);
+          }
+        }
+        out.writeUtf8(line.append('\n'));
+        rows++;
+      }
+      return rows;
+    }
+  }
+
+  /**
+   * Appends column {@code c} of the current row. Primitive columns are read without boxing; nulls
+   * are empty in CSV and {@code null} in JSON.
+   */
+  private static void appendValue(StringBuilder line, ResultSet rs, int c, Schema schema, boolean json) throws SQLException {
+    var column = c + 1;
+    switch (schema.type(c)) {
+      case INT -> {
+        var value = rs.getInt(column);
+        if (rs.wasNull()) {
+          appendNull(line, json);
+        } else {
+          line.append(value);
+        }
+      }
+      case LONG -> {
+        var value = rs.getLong(column);
+        if (rs.wasNull()) {
+          appendNull(line, json);
+        } else {
+          line.append(value);
+        }
+      }
+      case DOUBLE -> {
+        var value = rs.getDouble(column);
+        if (rs.wasNull()) {
+          appendNull(line, json);
+        } else if (json && !Double.isFinite(value)) {
+          appendString(line, Double.toString(value), true);
+        } else {
+          line.append(value);
+        }
+      }
+      case BOOLEAN -> {
+        var value = rs.getBoolean(column);
+        if (rs.wasNull()) {
+          appendNull(line, json);
+        } else {
+          line.append(value);
+        }
+      }
+      case TIMESTAMP -> {
+        var value = rs.getTimestamp(column);
+        if (value == null) {
+          appendNull(line, json);
+        } else {
+          appendString(line, value.toLocalDateTime().toString(), json);
+        }
+      }
+      case STRING -> {
+        var value = rs.getString(column);
+        if (value == null) {
+          appendNull(line, json);
+        } else {
+          appendString(line, value, json);
+        }
+      }
+      case OBJECT -> appendObject(line, rs.getObject(column), json);
+    }
+  }
+
+  private static void appendObject(StringBuilder line, Object value, boolean json) throws SQLException {
+    switch (value) {
+      case null -> appendNull(line, json);
+      case BigDecimal decimal -> line.append(decimal.toPlainString());
+      case Double d when !Double.isFinite(d) -> appendString(line, d.toString(), json);
+      case Float f when !Float.isFinite(f) -> appendString(line, f.toString(), json);
+      case Number number -> line.append(number);
+      case Boolean bool -> line.append(bool);
+      case byte[] bytes -> appendString(line, Base64.getEncoder().encodeToString(bytes), json);
+      case Blob blob -> appendString(line, Base64.getEncoder().encodeToString(blob.getBytes(1, (int) blob.length())), json);
+      case Clob clob -> appendString(line, clob.getSubString(1, (int) clob.length()), json);
+      default -> appendString(line, value.toString(), json);
+    }
+  }
+
+  private static void appendNull(StringBuilder line, boolean json) {
+    if (json) {
+      line.append("null");
+    }
+  }
+
+  private static void appendString(StringBuilder line, String value, boolean json) {
+    if (json) {
+      appendJsonString(line, value);
+    } else {
+      appendCsvString(line, value);
+    }
+  }
+
+  /**
+   * RFC 4180: fields with separators, quotes or line breaks are quoted, quotes are doubled.
+   */
+  private static void appendCsvString(StringBuilder line, String value) {
+    var quote = false;
+    for (var i = 0; i < value.length() && !quote; i++) {
+      var ch = value.charAt(i);
+      quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+    }
+    if (!quote) {
+      line.append(value);
+      return;
+    }
+    line.append('"');
+    for (var i = 0; i < value.length(); i++) {
+      var ch = value.charAt(i);
+      if (ch == '"') {
+        line.append('"');
+      }
+      line.append(ch);
+    }
+    line.append('"');
+  }
+
+  private static void appendJsonString(StringBuilder line, String value) {
+    line.append('"');
+    for (var i = 0; i < value.length(); i++) {
+      var ch = value.charAt(i);
+      switch (ch) {
+        case '"' -> line.append("\\\"");
+        case '\\' -> line.append("\\\\");
+        case '\n' -> line.append("\\n");
+        case '\r' -> line.append("\\r");
+        case '\t' -> line.append("\\t");
+        case '\b' -> line.append("\\b");
+        case '\f' -> line.append("\\f");
+        default -> {
+          if (ch < 0x20) {
+            line.append("\\u%04x".formatted((int) ch));
+          } else {
+            line.append(ch);
+          }
+        }
+      }
+    }
+    line.append('"');
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.debug("Failed to delete {}", file, e);
+    }
+  }
+}
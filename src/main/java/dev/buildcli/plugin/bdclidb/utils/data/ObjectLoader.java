@@ -0,0 +1,212 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.StorageMode;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbLimits;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads eager objects concurrently. Every connection gets its own virtual-thread task, which in turn
+ * starts up to {@link DbConnection#parallelism()} workers. Each worker borrows one pooled connection
+ * and drains the connection's object queue, so no more than {@code parallelism} queries run against
+ * a database at once. Failures are recorded per object and never abort the other loads.
+ */
+public final class ObjectLoader {
+  private static final Logger logger = LoggerFactory.getLogger(ObjectLoader.class);
+
+  private ObjectLoader() {
+  }
+
+  public record Result(DbObject object, ResultTable rows, Throwable error, Duration elapsed, boolean cached) {
+    public boolean isSuccess() {
+      return error == null;
+    }
+  }
+
+  public static List<Result> load(Map<DbConnection, List<DbObject>> objectsByConnection) {
+    return load(objectsByConnection, null, false);
+  }
+
+  /**
+   * Loads the objects, serving those with a {@code cacheTtl} from the result cache while their entry
+   * is fresh. With {@code refresh} every object is fetched again and its cache entry rewritten.
+   */
+  public static List<Result> load(Map<DbConnection, List<DbObject>> objectsByConnection, ResultCache cache, boolean refresh) {
+    var results = new ConcurrentLinkedQueue<Result>();
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var tasks = new ArrayList<Future<?>>();
+      for (var entry : objectsByConnection.entrySet()) {
+        if (!entry.getValue().isEmpty()) {
+          tasks.add(executor.submit(() -> loadConnection(entry.getKey(), entry.getValue(), cache, refresh, results)));
+        }
+      }
+
+      for (var task : tasks) {
+        try {
+          task.get();
+        } catch (ExecutionException e) {
+          logger.error("Unexpected failure while loading objects", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    return List.copyOf(results);
+  }
+
+  private static void loadConnection(DbConnection connection, Collection<DbObject> objects, ResultCache cache, boolean refresh,
+                                     Queue<Result> results) {
+    var pending = new ConcurrentLinkedQueue<DbObject>();
+    for (var object : objects) {
+      var start = System.nanoTime();
+      var cached = cache == null || refresh || !ResultCache.isEnabled(object) ? null : cache.read(object, connection).orElse(null);
+      if (cached != null) {
+        buildIndexes(object, cached);
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Loaded {} rows into {} from cache in {} ms", cached.size(), object.name(), elapsed.toMillis());
+        results.add(new Result(object, cached, null, elapsed, true));
+      } else {
+        pending.add(object);
+      }
+    }
+
+    if (pending.isEmpty()) {
+      return;
+    }
+    var workers = Math.min(connection.parallelism(), pending.size());
+    var connectionErrors = new ConcurrentLinkedQueue<Throwable>();
+
+    logger.info("Retrieving {} objects from database {} with {} worker(s)", pending.size(), connection.name(), workers);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < workers; i++) {
+        executor.submit(() -> {
+          try (var pooled = ConnectionUtils.pool(connection).borrow()) {
+            DbObject object;
+            while ((object = pending.poll()) != null) {
+              var result = loadObject(pooled.connection(), connection, object);
+              // A truncated result would be served from the cache without its marker
+              if (cache != null && result.isSuccess() && ResultCache.isEnabled(object) && !result.rows().isTruncated()) {
+                writeCache(cache, connection, object, result.rows());
+              }
+              results.add(result);
+            }
+          } catch (Exception e) {
+            logger.warn("Failed to connect to database {}: {}", connection.name(), e.getMessage());
+            connectionErrors.add(e);
+          }
+        });
+      }
+    }
+
+    // Every worker failed to connect, so whatever is left can no longer be loaded
+    DbObject object;
+    while ((object = pending.poll()) != null) {
+      results.add(new Result(object, null, connectionErrors.peek(), Duration.ZERO, false));
+    }
+  }
+
+  /**
+   * Heap objects are streamed too, so the driver never buffers more than a fetch page of a result
+   * that outgrows the object's memory budget and spills to disk. The object's {@link DbLimits} are
+   * pushed down to the query and enforced while its rows are read.
+   */
+  private static Result loadObject(Connection con, DbConnection connection, DbObject object) {
+    var start = System.nanoTime();
+    var offHeap = object.storage() == StorageMode.OFFHEAP;
+    var governor = new LoadGovernor(DbLimits.of(connection, object));
+    try (var stmt = con.createStatement()) {
+      ConnectionUtils.enableStreaming(con, stmt, connection, object.fetchSize());
+      governor.apply(stmt);
+      ResultTable rows;
+      try (var rs = stmt.executeQuery(governor.sql(object.sql(), ConnectionUtils.dialect(connection)))) {
+        rows = governor.mark(offHeap ? OffHeapStore.load(rs, governor) : SpilledResult.load(rs, object.memoryBudget(), governor));
+      }
+      buildIndexes(object, rows);
+      var elapsed = Duration.ofNanos(System.nanoTime() - start);
+      logger.info("Loaded {} rows into {}{} in {} ms", rows.size(), object.name(), storageNote(rows, offHeap), elapsed.toMillis());
+      if (rows.isTruncated()) {
+        logger.warn("Object {} was truncated by {}", object.name(), rows.getTruncation());
+      }
+      return new Result(object, rows, null, elapsed, false);
+    } catch (SQLException | RuntimeException e) {
+      logger.warn("Failed to load object {}: {}", object.name(), e.getMessage());
+      return new Result(object, null, e, Duration.ofNanos(System.nanoTime() - start), false);
+    } catch (OutOfMemoryError e) {
+      // The partial result is unreachable by now, so the other loads and the REPL can carry on
+      logger.warn("Object {} does not fit in memory, lower its memoryBudget or use storage=offheap", object.name());
+      return new Result(object, null, e, Duration.ofNanos(System.nanoTime() - start), false);
+    } finally {
+      endTransaction(con);
+    }
+  }
+
+  /**
+   * Ends the transaction streaming opened, so the next object loaded on this connection starts
+   * clean. Postgres rejects every statement of a transaction after one failed.
+   */
+  private static void endTransaction(Connection con) {
+    try {
+      if (!con.getAutoCommit()) {
+        con.rollback();
+        con.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      logger.debug("Failed to end the load transaction", e);
+    }
+  }
+
+  /**
+   * A failed cache write only costs the next load its cache hit, the loaded rows are still used.
+   */
+  private static void writeCache(ResultCache cache, DbConnection connection, DbObject object, ResultTable rows) {
+    try {
+      cache.write(object, connection, rows);
+    } catch (RuntimeException e) {
+      logger.warn("Failed to cache object {}: {}", object.name(), e.getMessage());
+    }
+  }
+
+  private static String storageNote(ResultTable rows, boolean offHeap) {
+    if (offHeap) {
+      return " (off-heap)";
+    }
+    return rows instanceof SpilledResult spilled ? " (%d spilled to disk)".formatted(spilled.getSpilledRows()) : "";
+  }
+
+  /**
+   * Builds the indexes declared by {@code object}. A column missing from the rows only skips its
+   * index.
+   */
+  public static void buildIndexes(DbObject object, ResultTable rows) {
+    for (var index : object.indexes()) {
+      try {
+        if (index.sorted()) {
+          rows.sortedIndex(index.column()).build();
+        } else {
+          rows.index(index.column()).build();
+        }
+      } catch (IllegalArgumentException e) {
+        logger.warn("Index on {}.{} was not built: {}", object.name(), index.column(), e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.Dialect;
+import dev.buildcli.plugin.bdclidb.utils.SqlUtils;
+import groovy.lang.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Clauses composed on top of an object's SQL by the query builder of {@link LazyObject}. The object
+ * query becomes a subquery, and the projection, conditions, order and row limit are applied to it
+ * by the database. All clauses belong to the same {@code select}, so the order in which they are
+ * added does not matter. Values are bound as {@code ?} markers after the object's own parameters.
+ */
+record ObjectQuery(List<String> columns, List<String> conditions, List<Object> values, List<String> order, long limit) {
+  static final ObjectQuery ALL = new ObjectQuery(List.of(), List.of(), List.of(), List.of(), -1);
+
+  private static final String NAME = "(?:[A-Za-z_][A-Za-z0-9_$]*|\"[^\"]+\")";
+  private static final Pattern COLUMN = Pattern.compile(NAME + "(?:\\." + NAME + ")?");
+  private static final Pattern ORDER = Pattern.compile("(" + COLUMN.pattern() + ")(?:\\s+(asc|desc))?", Pattern.CASE_INSENSITIVE);
+
+  boolean isEmpty() {
+    return columns.isEmpty() && conditions.isEmpty() && order.isEmpty() && limit < 0;
+  }
+
+  /**
+   * Adds one condition per entry: {@code null} becomes {@code is null}, collections {@code in},
+   * ranges {@code between} and any other value {@code =}.
+   */
+  ObjectQuery withWhere(Map<String, ?> criteria) {
+    var conditions = new ArrayList<>(this.conditions);
+    var values = new ArrayList<>(this.values);
+    for (var entry : criteria.entrySet()) {
+      var column = column(entry.getKey());
+      var value = entry.getValue();
+      if (value == null) {
+        conditions.add(column + " is null");
+      } else if (value instanceof Range<?> range && !range.isEmpty()) {
+        // Ranges are lists too, checked first so 1..100000 is not bound value by value
+        conditions.add(column + " between ? and ?");
+        var low = range.isReverse() ? range.size() - 1 : 0;
+        values.add(bindable(range.get(low)));
+        values.add(bindable(range.get(range.size() - 1 - low)));
+      } else if (value instanceof Collection<?> collection) {
+        if (collection.isEmpty()) {
+          conditions.add("1 = 0");
+        } else {
+          conditions.add(column + " in (" + String.join(", ", Collections.nCopies(collection.size(), "?")) + ")");
+          collection.forEach(v -> values.add(bindable(v)));
+        }
+      } else {
+        conditions.add(column + " = ?");
+        values.add(bindable(value));
+      }
+    }
+    return new ObjectQuery(columns, List.copyOf(conditions), Collections.unmodifiableList(values), order, limit);
+  }
+
+  /**
+   * Adds a condition written in SQL, with {@code ?} markers for {@code args}. Question marks in
+   * quoted text or comments and the escaped Postgres operators ({@code ??|}) are not markers.
+   */
+  ObjectQuery withWhere(String condition, Object... args) {
+    var markers = SqlUtils.countMarkers(condition);
+    if (markers != args.length) {
+      throw new IllegalArgumentException("Condition '%s' has %d marker(s) but %d value(s)".formatted(condition, markers, args.length));
+    }
+    var conditions = new ArrayList<>(this.conditions);
+    conditions.add("(" + condition + ")");
+    var values = new ArrayList<>(this.values);
+    for (var arg : args) {
+      values.add(bindable(arg));
+    }
+    return new ObjectQuery(columns, List.copyOf(conditions), Collections.unmodifiableList(values), order, limit);
+  }
+
+  ObjectQuery withColumns(String... columns) {
+    return new ObjectQuery(Arrays.stream(columns).map(ObjectQuery::column).toList(), conditions, values, order, limit);
+  }
+
+  /**
+   * Orders by columns, each optionally followed by {@code asc} or {@code desc}, e.g. {@code 'created_at desc'}.
+   */
+  ObjectQuery withOrder(String... orderBy) {
+    var order = new ArrayList<String>();
+    for (var column : orderBy) {
+      var matcher = ORDER.matcher(column.strip());
+      if (!matcher.matches()) {
+        throw new IllegalArgumentException("Invalid order column: " + column);
+      }
+      order.add(matcher.group(2) == null ? matcher.group(1) : matcher.group(1) + " " + matcher.group(2).toLowerCase());
+    }
+    return new ObjectQuery(columns, conditions, values, List.copyOf(order), limit);
+  }
+
+  ObjectQuery withLimit(long limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit must not be negative: " + limit);
+    }
+    return new ObjectQuery(columns, conditions, values, order, limit);
+  }
+
+  /**
+   * Returns {@code sql} wrapped in a {@code select} that applies these clauses in the given dialect.
+   */
+  String compose(String sql, Dialect dialect) {
+    if (isEmpty()) {
+      return sql;
+    }
+    // The line break keeps a trailing line comment from swallowing the closing parenthesis
+    var query = new StringBuilder("select ")
+        .append(columns.isEmpty() ? "*" : String.join(", ", columns))
+        .append(" from (").append(strip(sql)).append("\n) src");
+    if (!conditions.isEmpty()) {
+      query.append(" where ").append(String.join(" and ", conditions));
+    }
+    if (!order.isEmpty()) {
+      query.append(" order by ").append(String.join(", ", order));
+    }
+    if (limit >= 0) {
+      query.append(' ').append(dialect.limitClause(limit));
+    }
+    return query.toString();
+  }
+
+  /**
+   * Returns a query counting the rows {@link #compose} selects. The order only matters, and is only
+   * kept, when a limit picks the first rows.
+   */
+  String count(String sql, Dialect dialect) {
+    var counted = limit < 0 ? new ObjectQuery(columns, conditions, values, List.of(), limit) : this;
+    return "select count(*) from (%s\n) counted".formatted(strip(counted.compose(sql, dialect)));
+  }
+
+  private static String strip(String sql) {
+    var query = sql.strip();
+    while (query.endsWith(";")) {
+      query = query.substring(0, query.length() - 1).strip();
+    }
+    return query;
+  }
+
+  /**
+   * Column names are written into the SQL, so only plain or double-quoted identifiers are accepted.
+   */
+  private static String column(String name) {
+    var column = name == null ? "" : name.strip();
+    if (!COLUMN.matcher(column).matches()) {
+      throw new IllegalArgumentException("Invalid column: " + name);
+    }
+    return column;
+  }
+
+  /**
+   * Groovy strings are not understood by JDBC drivers.
+   */
+  private static Object bindable(Object value) {
+    return value instanceof CharSequence text && !(value instanceof String) ? text.toString() : value;
+  }
+}
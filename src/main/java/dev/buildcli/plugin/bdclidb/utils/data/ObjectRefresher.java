@@ -0,0 +1,249 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbLimits;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refreshes loaded eager objects. Objects that declare a {@code watermark} column only fetch the
+ * rows whose watermark reaches the highest value already loaded. With a {@code key} column those
+ * rows replace the loaded rows with the same key and the others are appended; without one they
+ * are appended as they are. Objects without a watermark are reloaded in full. Deleted rows are
+ * not detected by an incremental refresh.
+ */
+public class ObjectRefresher {
+  private static final Logger logger = LoggerFactory.getLogger(ObjectRefresher.class);
+
+  private final ResultCache cache;
+  private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+  public ObjectRefresher(ResultCache cache) {
+    this.cache = cache;
+  }
+
+  private record Target(DbObject object, DbConnection connection) {
+  }
+
+  /**
+   * {@code truncation} names the limit that cut the fetched rows short, e.g. {@code maxRows=1000},
+   * or is null.
+   */
+  public record Refresh(ResultTable rows, int fetched, int updated, int inserted, boolean incremental, Duration elapsed,
+                        String truncation) {
+  }
+
+  public void register(DbObject object, DbConnection connection) {
+    targets.put(object.name(), new Target(object, connection));
+  }
+
+  public boolean isRefreshable(String name) {
+    return targets.containsKey(name);
+  }
+
+  public Set<String> getNames() {
+    return Collections.unmodifiableSet(new TreeSet<>(targets.keySet()));
+  }
+
+  /**
+   * Brings {@code current}, the loaded rows of object {@code name}, up to date. Heap results are
+   * updated in place; snapshot-backed results are rewritten, so the returned rows must replace
+   * the old ones.
+   */
+  public Refresh refresh(String name, ResultTable current) {
+    var target = targets.get(name);
+    if (target == null) {
+      throw new IllegalArgumentException("Object " + name + " cannot be refreshed");
+    }
+
+    var start = System.nanoTime();
+    var object = target.object();
+    var watermark = object.watermark() == null || current == null ? -1 : column(current.schema(), object.watermark(), name);
+    var high = watermark < 0 ? null : highWatermark(current, watermark);
+    if (high == null) {
+      return reload(target, start);
+    }
+
+    var keyed = object.key() != null;
+    var delta = fetchDelta(target, high, keyed);
+    if (delta.isTruncated()) {
+      logger.warn("Refresh of {} was truncated by {}, refresh it again for the remaining rows", name, delta.getTruncation());
+    }
+    if (!delta.schema().equals(current.schema())) {
+      logger.info("Columns of {} changed since it was loaded, reloading it", name);
+      return reload(target, start);
+    }
+
+    var updates = new HashMap<Integer, Integer>();
+    var inserts = new ArrayList<Integer>();
+    if (keyed) {
+      matchKeys(current, delta, column(current.schema(), object.key(), name), updates, inserts);
+    } else {
+      for (var row = 0; row < delta.size(); row++) {
+        inserts.add(row);
+      }
+    }
+
+    var rows = merge(target, current, delta, updates, inserts);
+    if (rows != current) {
+      ObjectLoader.buildIndexes(object, rows);
+    }
+    if (ResultCache.isEnabled(object) && !(rows instanceof SnapshotResult snapshot && !OffHeapStore.isOffHeap(snapshot))) {
+      cache.write(object, target.connection(), rows);
+    }
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    logger.debug("Refreshed {} from watermark {}: {} rows fetched in {} ms", name, high, delta.size(), elapsed.toMillis());
+    return new Refresh(rows, delta.size(), updates.size(), inserts.size(), true, elapsed, delta.getTruncation());
+  }
+
+  private Refresh reload(Target target, long start) {
+    var result = ObjectLoader.load(Map.of(target.connection(), List.of(target.object())), cache, true).getFirst();
+    if (!result.isSuccess()) {
+      throw new RuntimeException("Failed to reload " + target.object().name() + ": " + result.error().getMessage(), result.error());
+    }
+    var rows = result.rows();
+    return new Refresh(rows, rows.size(), 0, rows.size(), false, Duration.ofNanos(System.nanoTime() - start), rows.getTruncation());
+  }
+
+  /**
+   * Fetches the rows beyond {@code high} within the object's {@link DbLimits}. They are ordered by
+   * watermark, so a delta cut short by the limits holds the oldest changes and the next refresh
+   * continues after them.
+   */
+  private static ColumnarResult fetchDelta(Target target, Object high, boolean keyed) {
+    var object = target.object();
+    var governor = new LoadGovernor(DbLimits.of(target.connection(), object));
+    // Rows at the watermark itself may have changed after the last load; with a key they are merged, not duplicated
+    var sql = "select * from (%s) delta where %s %s ? order by %s".formatted(object.sql(), object.watermark(), keyed ? ">=" : ">",
+        object.watermark());
+    try (var pooled = ConnectionUtils.pool(target.connection()).borrow();
+         var stmt = pooled.connection().prepareStatement(governor.sql(sql, ConnectionUtils.dialect(target.connection())))) {
+      governor.apply(stmt);
+      stmt.setObject(1, high);
+      try (var rs = stmt.executeQuery()) {
+        var delta = new ColumnarResult(Schema.of(rs.getMetaData()));
+        while (rs.next() && governor.admit(delta::estimatedBytes)) {
+          delta.readRow(rs);
+        }
+        return governor.mark(delta);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Pairs delta rows with loaded rows of the same key in a single pass over the loaded rows.
+   */
+  private static void matchKeys(ResultTable current, ResultTable delta, int key, Map<Integer, Integer> updates, List<Integer> inserts) {
+    var pending = new HashMap<Object, Integer>();
+    for (var row = 0; row < delta.size(); row++) {
+      pending.put(delta.getValue(row, key), row);
+    }
+    var latest = new TreeSet<>(pending.values());
+
+    for (var row = 0; row < current.size() && !pending.isEmpty(); row++) {
+      var match = pending.remove(current.getValue(row, key));
+      if (match != null) {
+        updates.put(row, match);
+        latest.remove(match);
+      }
+    }
+    inserts.addAll(latest);
+  }
+
+  private ResultTable merge(Target target, ResultTable current, ResultTable delta, Map<Integer, Integer> updates,
+                            List<Integer> inserts) {
+    if (current instanceof ColumnarResult columnar) {
+      for (var update : updates.entrySet()) {
+        for (var column = 0; column < columnar.schema().size(); column++) {
+          columnar.setValue(update.getKey(), column, delta.getValue(update.getValue(), column));
+        }
+      }
+      for (var insert : inserts) {
+        columnar.add(delta.get(insert));
+      }
+      return columnar;
+    }
+
+    var merged = new MergedTable(current, delta, updates, inserts);
+    if (OffHeapStore.isOffHeap(current)) {
+      return OffHeapStore.store(merged);
+    }
+
+    var object = target.object();
+    cache.write(object, target.connection(), merged);
+    return cache.read(object, target.connection())
+        .orElseThrow(() -> new IllegalStateException("Could not rewrite the cache entry of " + object.name()));
+  }
+
+  private static int column(Schema schema, String column, String object) {
+    var position = schema.indexOfIgnoreCase(column);
+    if (position < 0) {
+      throw new IllegalArgumentException("Object %s has no column %s".formatted(object, column));
+    }
+    return position;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object highWatermark(ResultTable rows, int column) {
+    Comparable<Object> high = null;
+    for (var row = 0; row < rows.size(); row++) {
+      var value = rows.getValue(row, column);
+      if (value != null && (high == null || high.compareTo(value) < 0)) {
+        high = (Comparable<Object>) value;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Read-only view of the loaded rows with the refreshed rows applied, used to rewrite snapshots
+   * without copying the loaded rows onto the heap.
+   */
+  private static final class MergedTable extends ResultTable {
+    private final ResultTable base;
+    private final ResultTable delta;
+    private final Map<Integer, Integer> updates;
+    private final List<Integer> inserts;
+
+    private MergedTable(ResultTable base, ResultTable delta, Map<Integer, Integer> updates, List<Integer> inserts) {
+      this.base = base;
+      this.delta = delta;
+      this.updates = updates;
+      this.inserts = inserts;
+    }
+
+    @Override
+    public Schema schema() {
+      return base.schema();
+    }
+
+    @Override
+    public Object getValue(int row, int column) {
+      if (row >= base.size()) {
+        return delta.getValue(inserts.get(row - base.size()), column);
+      }
+      var update = updates.get(row);
+      return update == null ? base.getValue(row, column) : delta.getValue(update, column);
+    }
+
+    @Override
+    public int size() {
+      return base.size() + inserts.size();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the rows of objects with {@code storage=offheap} outside the Java heap. Rows are streamed
+ * into a scratch snapshot one row group at a time and read back through memory mappings, so a
+ * multi-GB object lives in the page cache instead of the heap and never adds to GC pauses. Results
+ * stay mapped until they are released, when their variable is rebound or the REPL exits.
+ */
+public final class OffHeapStore {
+  private static final Logger logger = LoggerFactory.getLogger(OffHeapStore.class);
+  private static final Path DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "bdclidb-" + ProcessHandle.current().pid());
+  // Identity semantics: list equality would compare every row
+  private static final Set<SnapshotResult> LIVE = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+  private OffHeapStore() {
+  }
+
+  /**
+   * Streams every remaining row of the result set into off-heap storage.
+   */
+  public static SnapshotResult load(ResultSet rs) throws SQLException {
+    return load(rs, LoadGovernor.unlimited());
+  }
+
+  /**
+   * Like {@link #load(ResultSet)}, stopping where {@code governor} cuts the load short.
+   */
+  public static SnapshotResult load(ResultSet rs, LoadGovernor governor) throws SQLException {
+    return create(file -> SnapshotWriter.write(file, rs, governor));
+  }
+
+  /**
+   * Copies a result into off-heap storage.
+   */
+  public static SnapshotResult store(ResultTable table) {
+    try {
+      return create(file -> SnapshotWriter.write(file, table));
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Writes a snapshot through {@code source} into a new scratch file and opens it as a live
+   * off-heap result.
+   */
+  static SnapshotResult create(SnapshotSource source) throws SQLException {
+    Path file = null;
+    try {
+      file = scratchFile("object");
+      source.writeTo(file);
+      var result = SnapshotResult.open(file, true);
+      LIVE.add(result);
+      return result;
+    } catch (IOException e) {
+      deleteQuietly(file);
+      throw new RuntimeException(e);
+    } catch (SQLException | RuntimeException e) {
+      deleteQuietly(file);
+      throw e;
+    }
+  }
+
+  /**
+   * Creates an empty scratch file that is deleted when the process exits, for intermediate files
+   * such as the sorted runs of an external sort.
+   */
+  static Path scratchFile(String prefix) throws IOException {
+    Files.createDirectories(DIRECTORY);
+    var file = Files.createTempFile(DIRECTORY, prefix, ".snap");
+    file.toFile().deleteOnExit();
+    return file;
+  }
+
+  /**
+   * True for off-heap results and for spilled results, whose rows past the memory budget are off
+   * heap.
+   */
+  public static boolean isOffHeap(Object value) {
+    return switch (value) {
+      case SnapshotResult result -> LIVE.contains(result);
+      case SpilledResult spilled -> LIVE.contains(spilled.tail());
+      case null, default -> false;
+    };
+  }
+
+  /**
+   * Releases an off-heap or spilled result. Other values are ignored.
+   */
+  public static void release(Object value) {
+    if (value instanceof SpilledResult spilled) {
+      release(spilled.tail());
+    } else if (value instanceof SnapshotResult result && LIVE.remove(result)) {
+      logger.debug("Releasing off-heap result {}", result.getFile());
+      result.close();
+    }
+  }
+
+  public static void releaseAll() {
+    List<SnapshotResult> results;
+    synchronized (LIVE) {
+      results = new ArrayList<>(LIVE);
+    }
+    results.forEach(OffHeapStore::release);
+    deleteQuietly(DIRECTORY);
+  }
+
+  @FunctionalInterface
+  interface SnapshotSource {
+    void writeTo(Path file) throws IOException, SQLException;
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.debug("Could not delete {}", file, e);
+    }
+  }
+}
@@ -0,0 +1,286 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import groovy.lang.Closure;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Filters and aggregates a loaded object on the fork-join pool:
+ * {@code users.par().where { it.active }.groupBy('country').agg(count(), avg('age'))}. Rows are split
+ * into ranges that are processed in parallel with per-range partial aggregates, which are merged
+ * in row order. Groups come out in order of first appearance and sums are exact, so results are
+ * the same as a sequential pass. Queries are immutable; every step returns a new one. Cancelling
+ * the evaluation that runs a query stops its ranges between rows.
+ */
+public final class ParallelQuery {
+  private static final int MIN_SPLIT = 4096;
+  private static final int CHECK_INTERVAL = 1024;
+
+  private final ResultTable table;
+  private final List<Closure<?>> predicates;
+  private final int[] groupColumns;
+  private final int split;
+
+  ParallelQuery(ResultTable table) {
+    this(table, List.of(), new int[0], 0);
+  }
+
+  private ParallelQuery(ResultTable table, List<Closure<?>> predicates, int[] groupColumns, int split) {
+    this.table = table;
+    this.predicates = predicates;
+    this.groupColumns = groupColumns;
+    this.split = split;
+  }
+
+  /**
+   * Keeps the rows for which {@code predicate} is true; it is called with the row and must be
+   * safe to run from several threads at once.
+   */
+  public ParallelQuery where(Closure<?> predicate) {
+    var predicates = new ArrayList<>(this.predicates);
+    predicates.add(predicate);
+    return new ParallelQuery(table, List.copyOf(predicates), groupColumns, split);
+  }
+
+  public ParallelQuery groupBy(String... columns) {
+    var positions = new int[columns.length];
+    for (var i = 0; i < columns.length; i++) {
+      positions[i] = position(columns[i]);
+    }
+    return new ParallelQuery(table, predicates, positions, split);
+  }
+
+  /**
+   * Splits ranges down to {@code rows} rows instead of sizing them from the table and the pool.
+   */
+  ParallelQuery withSplit(int rows) {
+    if (rows < 1) {
+      throw new IllegalArgumentException("Split must be at least one row: " + rows);
+    }
+    return new ParallelQuery(table, predicates, groupColumns, rows);
+  }
+
+  /**
+   * Computes {@code aggregates} for every group, or for all matching rows without groupBy. The
+   * result has the group columns followed by one column per aggregate.
+   */
+  public ColumnarResult agg(Aggregate... aggregates) {
+    var columns = new int[aggregates.length];
+    var inputTypes = new ColumnType[aggregates.length];
+    for (var i = 0; i < aggregates.length; i++) {
+      columns[i] = aggregates[i].column() == null ? -1 : position(aggregates[i].column());
+      inputTypes[i] = columns[i] < 0 ? ColumnType.LONG : table.schema().type(columns[i]);
+    }
+
+    var groups = run(new Aggregation(0, table.size(), aggregates, columns, inputTypes, Cancellation.current()));
+    if (groups.isEmpty() && groupColumns.length == 0) {
+      groups.put(List.of(), accumulators(aggregates, inputTypes));
+    }
+
+    var names = new String[groupColumns.length + aggregates.length];
+    var types = new ColumnType[names.length];
+    for (var i = 0; i < groupColumns.length; i++) {
+      names[i] = table.schema().name(groupColumns[i]);
+      types[i] = table.schema().type(groupColumns[i]);
+    }
+    for (var i = 0; i < aggregates.length; i++) {
+      names[groupColumns.length + i] = aggregates[i].name();
+      types[groupColumns.length + i] = aggregates[i].resultType(inputTypes[i]);
+    }
+
+    var result = new ColumnarResult(new Schema(names, types), groups.size());
+    for (var group : groups.entrySet()) {
+      var row = new LinkedHashMap<String, Object>();
+      for (var i = 0; i < groupColumns.length; i++) {
+        row.put(names[i], group.getKey().get(i));
+      }
+      for (var i = 0; i < aggregates.length; i++) {
+        row.put(names[groupColumns.length + i], group.getValue()[i].result());
+      }
+      result.add(row);
+    }
+    return result;
+  }
+
+  /**
+   * Number of matching rows.
+   */
+  public long count() {
+    var result = new ParallelQuery(table, predicates, new int[0], split).agg(Aggregate.count());
+    return result.isEmpty() ? 0 : (long) result.getValue(0, result.schema().size() - 1);
+  }
+
+  /**
+   * The matching rows in table order, as a view over the table.
+   */
+  public ResultTable rows() {
+    var rows = run(new Selection(0, table.size(), Cancellation.current()));
+    return new RowView(table, rows, 0, rows.length);
+  }
+
+  @Override
+  public String toString() {
+    return "ParallelQuery(%d rows, %d filters, %d group columns)".formatted(table.size(), predicates.size(), groupColumns.length);
+  }
+
+  private <T> T run(RecursiveTask<T> task) {
+    return ForkJoinPool.commonPool().invoke(task);
+  }
+
+  private int threshold() {
+    if (split > 0) {
+      return split;
+    }
+    return Math.max(MIN_SPLIT, table.size() / (ForkJoinPool.getCommonPoolParallelism() * 8 + 1));
+  }
+
+  /**
+   * Workers of the pool are not interrupted with the evaluation, so ranges poll its scope instead.
+   */
+  private static void checkCancelled(Cancellation.Scope scope, int row) {
+    if (scope != null && row % CHECK_INTERVAL == 0) {
+      scope.check();
+    }
+  }
+
+  private boolean matches(int row) {
+    if (predicates.isEmpty()) {
+      return true;
+    }
+    var values = table.get(row);
+    for (var predicate : predicates) {
+      var result = predicate.call(values);
+      if (!DefaultTypeTransformation.castToBoolean(result)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Aggregate.Accumulator[] accumulators(Aggregate[] aggregates, ColumnType[] inputTypes) {
+    var accumulators = new Aggregate.Accumulator[aggregates.length];
+    for (var i = 0; i < aggregates.length; i++) {
+      accumulators[i] = aggregates[i].accumulator(inputTypes[i]);
+    }
+    return accumulators;
+  }
+
+  private int position(String column) {
+    var position = table.schema().indexOfIgnoreCase(column);
+    if (position < 0) {
+      throw new IllegalArgumentException("Unknown column: " + column);
+    }
+    return position;
+  }
+
+  private final class Aggregation extends RecursiveTask<LinkedHashMap<List<Object>, Aggregate.Accumulator[]>> {
+    private final int from;
+    private final int to;
+    private final Aggregate[] aggregates;
+    private final int[] columns;
+    private final ColumnType[] inputTypes;
+    private final Cancellation.Scope scope;
+
+    private Aggregation(int from, int to, Aggregate[] aggregates, int[] columns, ColumnType[] inputTypes, Cancellation.Scope scope) {
+      this.from = from;
+      this.to = to;
+      this.aggregates = aggregates;
+      this.columns = columns;
+      this.inputTypes = inputTypes;
+      this.scope = scope;
+    }
+
+    @Override
+    protected LinkedHashMap<List<Object>, Aggregate.Accumulator[]> compute() {
+      if (to - from > threshold()) {
+        var mid = (from + to) >>> 1;
+        var left = new Aggregation(from, mid, aggregates, columns, inputTypes, scope);
+        left.fork();
+        var right = new Aggregation(mid, to, aggregates, columns, inputTypes, scope).compute();
+        var groups = left.join();
+        // Left groups first keeps the order of first appearance
+        for (var group : right.entrySet()) {
+          var partial = groups.get(group.getKey());
+          if (partial == null) {
+            groups.put(group.getKey(), group.getValue());
+          } else {
+            for (var i = 0; i < partial.length; i++) {
+              partial[i].merge(group.getValue()[i]);
+            }
+          }
+        }
+        return groups;
+      }
+
+      var groups = new LinkedHashMap<List<Object>, Aggregate.Accumulator[]>();
+      for (var row = from; row < to; row++) {
+        checkCancelled(scope, row);
+        if (!matches(row)) {
+          continue;
+        }
+        var key = groupColumns.length == 0 ? List.of() : groupKey(row);
+        var accumulators = groups.computeIfAbsent(key, k -> accumulators(aggregates, inputTypes));
+        for (var i = 0; i < accumulators.length; i++) {
+          accumulators[i].add(table, row, columns[i]);
+        }
+      }
+      return groups;
+    }
+
+    private List<Object> groupKey(int row) {
+      var key = new Object[groupColumns.length];
+      for (var i = 0; i < key.length; i++) {
+        key[i] = table.getValue(row, groupColumns[i]);
+      }
+      return Arrays.asList(key);
+    }
+  }
+
+  private final class Selection extends RecursiveTask<int[]> {
+    private final int from;
+    private final int to;
+    private final Cancellation.Scope scope;
+
+    private Selection(int from, int to, Cancellation.Scope scope) {
+      this.from = from;
+      this.to = to;
+      this.scope = scope;
+    }
+
+    @Override
+    protected int[] compute() {
+      if (to - from > threshold()) {
+        var mid = (from + to) >>> 1;
+        var left = new Selection(from, mid, scope);
+        left.fork();
+        var right = new Selection(mid, to, scope).compute();
+        var rows = left.join();
+        var merged = Arrays.copyOf(rows, rows.length + right.length);
+        System.arraycopy(right, 0, merged, rows.length, right.length);
+        return merged;
+      }
+
+      var rows = new int[Math.min(to - from, 1024)];
+      var count = 0;
+      for (var row = from; row < to; row++) {
+        checkCancelled(scope, row);
+        if (matches(row)) {
+          if (count == rows.length) {
+            rows = Arrays.copyOf(rows, Math.min(to - from, count * 2));
+          }
+          rows[count++] = row;
+        }
+      }
+      return Arrays.copyOf(rows, count);
+    }
+  }
+}
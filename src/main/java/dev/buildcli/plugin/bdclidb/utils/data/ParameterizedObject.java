@@ -0,0 +1,110 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.LoadMode;
+import dev.buildcli.plugin.bdclidb.enums.StorageMode;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbLimits;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.models.DbParam;
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.SqlUtils;
+import groovy.lang.Closure;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link DbObject} that declares bind parameters. It is bound in the REPL as a closure, so it is
+ * called like a function: {@code orders(customerId: 42)} or positionally {@code orders(42)}.
+ * Queries run through the prepared statements cached on each pooled connection.
+ */
+public class ParameterizedObject extends Closure<Object> {
+  private final DbObject object;
+  private final DbConnection connection;
+  private final SqlUtils.ParsedSql parsed;
+  private final List<DbParam> params;
+
+  public ParameterizedObject(DbObject object, DbConnection connection) {
+    super(null);
+    this.object = object;
+    this.connection = connection;
+    this.parsed = SqlUtils.parseNamedParameters(object.sql());
+    this.params = object.params();
+  }
+
+  public Object doCall(Map<String, Object> arguments) {
+    for (var name : arguments.keySet()) {
+      if (params.stream().noneMatch(p -> p.name().equals(name))) {
+        throw new IllegalArgumentException("Unknown parameter '%s' for object %s".formatted(name, object.name()));
+      }
+    }
+
+    if (object.mode() == LoadMode.LAZY) {
+      return new LazyObject(object, connection, arguments);
+    }
+
+    try (var pooled = ConnectionUtils.pool(connection).borrow()) {
+      var governor = new LoadGovernor(DbLimits.of(connection, object));
+      var stmt = pooled.prepare(governor.sql(parsed.sql(), ConnectionUtils.dialect(connection)));
+      var offHeap = object.storage() == StorageMode.OFFHEAP;
+      ConnectionUtils.enableStreaming(pooled.connection(), stmt, connection, object.fetchSize());
+      governor.apply(stmt);
+      bind(stmt, object, parsed, arguments);
+      try (var tracked = Cancellation.track(stmt); var rs = stmt.executeQuery()) {
+        return governor.mark(offHeap ? OffHeapStore.load(rs, governor) : SpilledResult.load(rs, object.memoryBudget(), governor));
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public Object doCall(Object... values) {
+    if (values.length != params.size()) {
+      throw new IllegalArgumentException("Object %s expects %d parameter(s): %s".formatted(object.name(), params.size(), signature()));
+    }
+
+    var arguments = new LinkedHashMap<String, Object>();
+    for (var i = 0; i < values.length; i++) {
+      arguments.put(params.get(i).name(), values[i]);
+    }
+    return doCall(arguments);
+  }
+
+  public DbObject getObject() {
+    return object;
+  }
+
+  @Override
+  public String toString() {
+    return "%s(%s) @%s: %s".formatted(object.name(), signature(), connection.name(), object.sql());
+  }
+
+  private String signature() {
+    return String.join(", ", params.stream().map(p -> p.name() + ": " + p.type().name().toLowerCase()).toList());
+  }
+
+  /**
+   * Binds named arguments to the markers of a parsed object query. When the SQL uses plain
+   * {@code ?} markers instead of names, the declared parameters are bound in order. Returns the
+   * number of markers bound.
+   */
+  static int bind(PreparedStatement stmt, DbObject object, SqlUtils.ParsedSql parsed, Map<String, Object> arguments) throws SQLException {
+    var declared = object.params();
+    List<String> markers = parsed.parameters().isEmpty() ? declared.stream().map(DbParam::name).toList() : parsed.parameters();
+
+    for (var i = 0; i < markers.size(); i++) {
+      var name = markers.get(i);
+      var param = declared.stream().filter(p -> p.name().equals(name)).findFirst()
+          .orElseThrow(() -> new IllegalArgumentException("Parameter '%s' of object %s is not declared in params".formatted(name, object.name())));
+      if (!arguments.containsKey(name)) {
+        throw new IllegalArgumentException("Missing parameter '%s' for object %s".formatted(name, object.name()));
+      }
+      param.type().bind(stmt, i + 1, arguments.get(name));
+    }
+    return markers.size();
+  }
+}
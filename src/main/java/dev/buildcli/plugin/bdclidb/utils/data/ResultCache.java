@@ -0,0 +1,114 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * On-disk cache of object results. Entries are keyed by the object name, a hash of the object's
+ * identity (name, connection URL and user) and a hash of its SQL, so editing an object or pointing
+ * it at another database invalidates its entry. Entries are stored in the snapshot format of
+ * {@link SnapshotWriter} and are served while they are younger than the object's {@code cacheTtl};
+ * objects without a TTL are never cached.
+ */
+public class ResultCache {
+  private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+  private final Path directory;
+
+  public ResultCache() {
+    this(Path.of(System.getProperty("user.home"), ".buildcli", "bdclidb", "cache"));
+  }
+
+  public ResultCache(Path directory) {
+    this.directory = directory;
+  }
+
+  public static boolean isEnabled(DbObject object) {
+    return object.cacheTtl() != null;
+  }
+
+  /**
+   * Opens a fresh entry as a memory-mapped {@link SnapshotResult}, so cache hits cost a few page
+   * mappings instead of decoding every row.
+   */
+  public Optional<ResultTable> read(DbObject object, DbConnection connection) {
+    var ttl = object.cacheTtl();
+    var file = fileFor(object, connection);
+    if (ttl == null || !Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+
+    try {
+      var modified = Files.getLastModifiedTime(file).toInstant();
+      if (modified.plus(ttl).isBefore(Instant.now())) {
+        logger.debug("Cache entry for {} expired at {}", object.name(), modified.plus(ttl));
+        return Optional.empty();
+      }
+
+      return Optional.of(SnapshotResult.open(file));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Ignoring unreadable cache entry {}: {}", file, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  public void write(DbObject object, DbConnection connection, ResultTable result) {
+    var file = fileFor(object, connection);
+    try {
+      Files.createDirectories(directory);
+      var temp = Files.createTempFile(directory, object.name(), ".tmp");
+      SnapshotWriter.write(temp, result);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      removeStaleEntries(object, connection, file);
+    } catch (IOException e) {
+      logger.warn("Could not cache object {}: {}", object.name(), e.getMessage());
+    }
+  }
+
+  Path fileFor(DbObject object, DbConnection connection) {
+    return directory.resolve(prefix(object, connection) + sha256(object.sql()).substring(0, 16) + ".bin");
+  }
+
+  /**
+   * The directory is shared by every project and scope, so only earlier entries of the same object
+   * on the same database are stale; objects of the same name elsewhere keep their entries.
+   */
+  private void removeStaleEntries(DbObject object, DbConnection connection, Path current) throws IOException {
+    var stale = Pattern.compile(Pattern.quote(prefix(object, connection)) + "[0-9a-f]{16}\\.bin");
+    // Entries of the former <name>-<hash>.bin layout can no longer be read
+    var legacy = Pattern.compile(Pattern.quote(object.name()) + "-[0-9a-f]{16}\\.bin");
+    try (var files = Files.list(directory)) {
+      files.filter(f -> !f.equals(current))
+          .filter(f -> stale.matcher(f.getFileName().toString()).matches() || legacy.matcher(f.getFileName().toString()).matches())
+          .forEach(f -> f.toFile().delete());
+    }
+  }
+
+  private static String prefix(DbObject object, DbConnection connection) {
+    var identity = String.join("\n", object.name(), String.valueOf(connection.url()), String.valueOf(connection.user()));
+    return object.name() + "-" + sha256(identity).substring(0, 16) + "-";
+  }
+
+  private static String sha256(String value) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
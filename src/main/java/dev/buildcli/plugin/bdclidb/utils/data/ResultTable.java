@@ -0,0 +1,286 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class of every loaded object result. Implementations store values column by column and this
+ * class exposes them to Groovy as a {@code List<Map>} of lightweight row views that share the
+ * result's {@link Schema}. Keys outside the schema, e.g. {@code users.each { it.score = 1 }}, are
+ * kept in a per-row overflow map on the heap; they are not part of the schema, so indexes, copies
+ * to disk and {@code sql()} do not see them.
+ */
+public abstract class ResultTable extends AbstractList<Map<String, Object>> implements RandomAccess {
+  private final Map<Integer, HashIndex> hashIndexes = new ConcurrentHashMap<>();
+  private final Map<Integer, SortedIndex> sortedIndexes = new ConcurrentHashMap<>();
+  private volatile Map<Integer, Map<String, Object>> extras = new ConcurrentHashMap<>();
+  private int version;
+  private volatile String truncation;
+
+  public abstract Schema schema();
+
+  public abstract Object getValue(int row, int column);
+
+  public void setValue(int row, int column, Object value) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " is read-only");
+  }
+
+  /**
+   * Returns the hash index on {@code column}, building it on first use: {@code users.index('id')[42]}.
+   */
+  public HashIndex index(String column) {
+    return hashIndexes.computeIfAbsent(position(column), c -> new HashIndex(this, c));
+  }
+
+  /**
+   * Returns the sorted index on {@code column}, building it on first use:
+   * {@code events.sortedIndex('created_at').between('2024-01-01', '2024-02-01')}.
+   */
+  public SortedIndex sortedIndex(String column) {
+    return sortedIndexes.computeIfAbsent(position(column), c -> new SortedIndex(this, c));
+  }
+
+  /**
+   * Starts a parallel query over the rows: {@code users.par().where { it.active }.groupBy('country').agg(count())}.
+   */
+  public ParallelQuery par() {
+    return new ParallelQuery(this);
+  }
+
+  /**
+   * True when a load limit cut the result short: {@code orders.truncated}.
+   */
+  public boolean isTruncated() {
+    return truncation != null;
+  }
+
+  /**
+   * Returns the limit that cut the result short, e.g. {@code maxRows=1000}, or null.
+   */
+  public String getTruncation() {
+    return truncation;
+  }
+
+  void setTruncation(String truncation) {
+    this.truncation = truncation;
+  }
+
+  /**
+   * Marks the rows as changed so indexes are rebuilt on their next lookup.
+   */
+  protected void changed() {
+    version++;
+  }
+
+  int version() {
+    return version;
+  }
+
+  boolean isNull(int row, int column) {
+    return getValue(row, column) == null;
+  }
+
+  /**
+   * Value of an integer column without boxing where the storage allows it.
+   */
+  long getLong(int row, int column) {
+    return ((Number) getValue(row, column)).longValue();
+  }
+
+  double getDouble(int row, int column) {
+    return ((Number) getValue(row, column)).doubleValue();
+  }
+
+  private int position(String column) {
+    var position = schema().indexOfIgnoreCase(column);
+    if (position < 0) {
+      throw new IllegalArgumentException("Unknown column: " + column);
+    }
+    return position;
+  }
+
+  @Override
+  public Map<String, Object> get(int index) {
+    checkIndex(index);
+    return new Row(index);
+  }
+
+  /**
+   * Overwrites row {@code index} with the values of {@code row} and returns a copy of the row it
+   * replaced. Columns missing from {@code row} become null.
+   */
+  @Override
+  public Map<String, Object> set(int index, Map<String, Object> row) {
+    checkIndex(index);
+    // row may be a view of this table, so it is copied before anything is written
+    var values = new LinkedHashMap<>(row);
+    var previous = new LinkedHashMap<>(get(index));
+    for (var column = 0; column < schema().size(); column++) {
+      setValue(index, column, values.remove(schema().name(column)));
+    }
+    setExtras(index, values);
+    return previous;
+  }
+
+  /**
+   * Sorts the rows in place, keeping the order of equal rows. Groovy's {@code sort { }} lands
+   * here too, so {@code users.sort { it.id }} reorders the loaded rows like it would a list of
+   * maps.
+   */
+  @Override
+  public void sort(Comparator<? super Map<String, Object>> order) {
+    var positions = new Integer[size()];
+    for (var i = 0; i < positions.length; i++) {
+      positions[i] = i;
+    }
+    // Arrays.sort on objects is stable
+    Arrays.sort(positions, (a, b) -> order.compare(get(a), get(b)));
+    permute(positions);
+    modCount++;
+  }
+
+  /**
+   * Moves row {@code order[i]} to position {@code i}.
+   */
+  private void permute(Integer[] order) {
+    for (var column = 0; column < schema().size(); column++) {
+      var values = new Object[order.length];
+      for (var row = 0; row < order.length; row++) {
+        values[row] = getValue(order[row], column);
+      }
+      for (var row = 0; row < order.length; row++) {
+        setValue(row, column, values[row]);
+      }
+    }
+    if (!extras.isEmpty()) {
+      var moved = new ConcurrentHashMap<Integer, Map<String, Object>>();
+      for (var row = 0; row < order.length; row++) {
+        var values = extras.get(order[row]);
+        if (values != null) {
+          moved.put(row, values);
+        }
+      }
+      extras = moved;
+    }
+  }
+
+  /**
+   * Replaces the keys of row {@code row} that are not part of the schema.
+   */
+  void setExtras(int row, Map<String, Object> values) {
+    if (values.isEmpty()) {
+      extras.remove(row);
+    } else {
+      extras.put(row, Collections.synchronizedMap(new LinkedHashMap<>(values)));
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+    }
+  }
+
+  /**
+   * Row view backed by the result storage. Writes go straight to the underlying column.
+   */
+  private final class Row extends AbstractMap<String, Object> {
+    private final int row;
+
+    private Row(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public Object get(Object key) {
+      var column = schema().indexOf(key);
+      if (column >= 0) {
+        return getValue(row, column);
+      }
+      var values = extras.get(row);
+      return values == null ? null : values.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      if (schema().indexOf(key) >= 0) {
+        return true;
+      }
+      var values = extras.get(row);
+      return values != null && values.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      var column = schema().indexOf(key);
+      if (column < 0) {
+        return extras.computeIfAbsent(row, r -> Collections.synchronizedMap(new LinkedHashMap<>())).put(key, value);
+      }
+      var previous = getValue(row, column);
+      setValue(row, column, value);
+      return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+      if (schema().indexOf(key) >= 0) {
+        throw new UnsupportedOperationException("Cannot remove column '" + key + "' from a loaded row");
+      }
+      var values = extras.get(row);
+      return values == null ? null : values.remove(key);
+    }
+
+    @Override
+    public int size() {
+      var values = extras.get(row);
+      return schema().size() + (values == null ? 0 : values.size());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      var values = extras.get(row);
+      var overflow = values == null ? List.<Entry<String, Object>>of() : List.copyOf(new LinkedHashMap<>(values).entrySet());
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<>() {
+            private int column;
+
+            @Override
+            public boolean hasNext() {
+              return column < schema().size() + overflow.size();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              var entry = column < schema().size()
+                  ? new SimpleImmutableEntry<>(schema().name(column), getValue(row, column)) : overflow.get(column - schema().size());
+              column++;
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return schema().size() + overflow.size();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+/**
+ * Rows of a table selected by position, such as the matches of an index lookup, or a contiguous
+ * range of rows when no positions are given. Values are read from, and written to, the underlying
+ * table.
+ */
+final class RowView extends ResultTable {
+  private final ResultTable table;
+  private final int[] rows;
+  private final int from;
+  private final int to;
+
+  RowView(ResultTable table, int[] rows, int from, int to) {
+    this.table = table;
+    this.rows = rows;
+    this.from = from;
+    this.to = to;
+  }
+
+  @Override
+  public Schema schema() {
+    return table.schema();
+  }
+
+  @Override
+  public Object getValue(int row, int column) {
+    return table.getValue(position(row), column);
+  }
+
+  @Override
+  public void setValue(int row, int column, Object value) {
+    table.setValue(position(row), column, value);
+  }
+
+  @Override
+  public int size() {
+    return to - from;
+  }
+
+  private int position(int row) {
+    if (row < 0 || row >= size()) {
+      throw new IndexOutOfBoundsException("Index " + row + " out of bounds for length " + size());
+    }
+    return rows == null ? from + row : rows[from + row];
+  }
+}
@@ -0,0 +1,104 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column names and storage types shared by every row of a result.
+ */
+public final class Schema {
+  private final String[] names;
+  private final ColumnType[] types;
+  private final Map<String, Integer> positions;
+
+  public Schema(String[] names, ColumnType[] types) {
+    if (names.length != types.length) {
+      throw new IllegalArgumentException("Expected %d column types, got %d".formatted(names.length, types.length));
+    }
+    this.names = names.clone();
+    this.types = types.clone();
+    this.positions = new HashMap<>();
+    for (var i = 0; i < names.length; i++) {
+      positions.putIfAbsent(names[i], i);
+    }
+  }
+
+  /**
+   * Reads the schema of a result set. Columns are named by their labels, so aliases such as
+   * {@code select count(*) as total} name the column on every driver.
+   */
+  public static Schema of(ResultSetMetaData metaData) throws SQLException {
+    var count = metaData.getColumnCount();
+    var names = new String[count];
+    var types = new ColumnType[count];
+    for (var i = 0; i < count; i++) {
+      names[i] = metaData.getColumnLabel(i + 1);
+      types[i] = ColumnType.fromJdbc(metaData.getColumnType(i + 1), metaData.getPrecision(i + 1),
+          metaData.getScale(i + 1), metaData.isSigned(i + 1));
+    }
+    return new Schema(names, types);
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  public String name(int column) {
+    return names[column];
+  }
+
+  public ColumnType type(int column) {
+    return types[column];
+  }
+
+  /**
+   * Returns the position of a column, or -1 when the result has no such column.
+   */
+  public int indexOf(Object name) {
+    var position = positions.get(name);
+    return position == null ? -1 : position;
+  }
+
+  /**
+   * Like {@link #indexOf(Object)}, but falls back to a case-insensitive match, since databases
+   * differ in how they report the case of unquoted column names.
+   */
+  public int indexOfIgnoreCase(String name) {
+    var position = indexOf(name);
+    for (var i = 0; position < 0 && i < names.length; i++) {
+      if (names[i].equalsIgnoreCase(name)) {
+        position = i;
+      }
+    }
+    return position;
+  }
+
+  public List<String> names() {
+    return List.of(names);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof Schema other && Arrays.equals(names, other.names) && Arrays.equals(types, other.types);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+  }
+
+  @Override
+  public String toString() {
+    var builder = new StringBuilder("Schema[");
+    for (var i = 0; i < names.length; i++) {
+      builder.append(i == 0 ? "" : ", ").append(names[i]).append(' ').append(types[i]);
+    }
+    return builder.append(']').toString();
+  }
+}
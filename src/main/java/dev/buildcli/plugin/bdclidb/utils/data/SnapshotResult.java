@@ -0,0 +1,280 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+/**
+ * Read-only view over a snapshot written by {@link SnapshotWriter}. Opening a snapshot only reads
+ * the header and footer and maps each row group into memory; values are decoded from the mapped
+ * pages on access, so reopening even a very large result takes milliseconds and the pages are
+ * shared with every other process reading the same file.
+ */
+public class SnapshotResult extends ResultTable implements Closeable {
+  private final Path file;
+  private final Schema schema;
+  private final int[] groupStarts;
+  private final int size;
+  private final boolean scratch;
+  private volatile Group[] groups;
+
+  private SnapshotResult(Path file, Schema schema, Group[] groups, boolean scratch) {
+    this.file = file;
+    this.scratch = scratch;
+    this.schema = schema;
+    this.groups = groups;
+    this.groupStarts = new int[groups.length];
+    var rows = 0L;
+    for (var g = 0; g < groups.length; g++) {
+      groupStarts[g] = (int) rows;
+      rows += groups[g].rows;
+    }
+    if (rows > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Snapshot " + file + " has too many rows: " + rows);
+    }
+    this.size = (int) rows;
+  }
+
+  public static SnapshotResult open(Path file) throws IOException {
+    return open(file, false);
+  }
+
+  /**
+   * Opens a snapshot. A {@code scratch} snapshot owns its file and deletes it when closed.
+   */
+  static SnapshotResult open(Path file, boolean scratch) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var length = channel.size();
+      var tail = read(channel, length - 12, 12);
+      var footerOffset = tail.getLong();
+      if (tail.getInt() != SnapshotWriter.MAGIC) {
+        throw new IOException("Not a snapshot file: " + file);
+      }
+
+      var footer = read(channel, footerOffset, (int) (length - 12 - footerOffset));
+      var groupCount = footer.getInt();
+      var columnCount = footer.getInt();
+      var groupRows = new int[groupCount];
+      var chunkOffsets = new long[groupCount][columnCount];
+      for (var g = 0; g < groupCount; g++) {
+        groupRows[g] = footer.getInt();
+        for (var c = 0; c < columnCount; c++) {
+          chunkOffsets[g][c] = footer.getLong();
+        }
+      }
+
+      var headerEnd = groupCount > 0 && columnCount > 0 ? chunkOffsets[0][0] : footerOffset;
+      var header = read(channel, 0, (int) headerEnd);
+      if (header.getInt() != SnapshotWriter.MAGIC || header.getInt() != SnapshotWriter.VERSION) {
+        throw new IOException("Unsupported snapshot file: " + file);
+      }
+      var schema = readSchema(header);
+      if (schema.size() != columnCount) {
+        throw new IOException("Corrupt snapshot file: " + file);
+      }
+
+      var groups = new Group[groupCount];
+      for (var g = 0; g < groupCount; g++) {
+        var start = schema.size() == 0 ? footerOffset : chunkOffsets[g][0];
+        var end = g + 1 < groupCount && schema.size() > 0 ? chunkOffsets[g + 1][0] : footerOffset;
+        if (end - start > Integer.MAX_VALUE) {
+          throw new IOException("Row group " + g + " of " + file + " is too large to map");
+        }
+        var buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        groups[g] = new Group(schema, groupRows[g], buffer, start, chunkOffsets[g]);
+      }
+      return new SnapshotResult(file, schema, groups, scratch);
+    }
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  @Override
+  public Schema schema() {
+    return schema;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Object getValue(int row, int column) {
+    var groups = this.groups;
+    if (groups == null) {
+      throw new IllegalStateException("Snapshot " + file + " is closed");
+    }
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " out of bounds for length " + size);
+    }
+    var g = Arrays.binarySearch(groupStarts, row);
+    if (g < 0) {
+      g = -g - 2;
+    }
+    return groups[g].value(row - groupStarts[g], column);
+  }
+
+  /**
+   * Drops the mappings and, for scratch snapshots, deletes the file. The pages themselves are
+   * unmapped once the buffers are garbage collected.
+   */
+  @Override
+  public void close() {
+    groups = null;
+    if (scratch) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        file.toFile().deleteOnExit();
+      }
+    }
+  }
+
+  public boolean isClosed() {
+    return groups == null;
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+    var buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of snapshot file");
+      }
+    }
+    return buffer.flip();
+  }
+
+  private static Schema readSchema(ByteBuffer header) {
+    var count = header.getInt();
+    var names = new String[count];
+    var types = new ColumnType[count];
+    for (var i = 0; i < count; i++) {
+      var bytes = new byte[header.getInt()];
+      header.get(bytes);
+      names[i] = new String(bytes, StandardCharsets.UTF_8);
+      types[i] = ColumnType.values()[header.get()];
+    }
+    return new Schema(names, types);
+  }
+
+  /**
+   * One mapped row group and the positions of its column chunks.
+   */
+  private static final class Group {
+    private final Schema schema;
+    private final int rows;
+    private final ByteBuffer buffer;
+    private final int[] nulls;
+    private final int[] data;
+    private final int[] offsets;
+    private final int[] codes;
+    private final int[] bytes;
+    private final String[][] dictionaries;
+
+    private Group(Schema schema, int rows, ByteBuffer buffer, long start, long[] chunkOffsets) {
+      var columns = schema.size();
+      this.schema = schema;
+      this.rows = rows;
+      this.buffer = buffer;
+      this.nulls = new int[columns];
+      this.data = new int[columns];
+      this.offsets = new int[columns];
+      this.codes = new int[columns];
+      this.bytes = new int[columns];
+      this.dictionaries = new String[columns][];
+
+      for (var c = 0; c < columns; c++) {
+        nulls[c] = (int) (chunkOffsets[c] - start);
+        data[c] = nulls[c] + SnapshotWriter.bitmapBytes(rows);
+        codes[c] = -1;
+        switch (schema.type(c)) {
+          case STRING -> {
+            var encoding = buffer.getInt(data[c]);
+            var count = buffer.getInt(data[c] + 4);
+            offsets[c] = data[c] + 8;
+            bytes[c] = offsets[c] + (count + 1) * 4;
+            if (encoding == SnapshotWriter.DICTIONARY) {
+              codes[c] = bytes[c];
+              bytes[c] += rows * 4;
+              dictionaries[c] = new String[count];
+            }
+          }
+          case OBJECT -> {
+            offsets[c] = data[c];
+            bytes[c] = offsets[c] + (rows + 1) * 4;
+          }
+          default -> {
+          }
+        }
+      }
+    }
+
+    private Object value(int row, int column) {
+      if (bit(nulls[column], row)) {
+        return null;
+      }
+      var position = data[column];
+      return switch (schema.type(column)) {
+        case INT -> buffer.getInt(position + row * 4);
+        case LONG -> buffer.getLong(position + row * 8);
+        case DOUBLE -> buffer.getDouble(position + row * 8);
+        case BOOLEAN -> bit(position, row);
+        case TIMESTAMP -> {
+          var timestamp = new Timestamp(buffer.getLong(position + row * 8));
+          timestamp.setNanos(buffer.getInt(position + rows * 8 + row * 4));
+          yield timestamp;
+        }
+        case STRING -> codes[column] < 0 ? string(column, row) : dictionaryEntry(column, buffer.getInt(codes[column] + row * 4));
+        case OBJECT -> object(column, row);
+      };
+    }
+
+    private boolean bit(int position, int row) {
+      return (buffer.getLong(position + (row >>> 6) * 8) & (1L << row)) != 0;
+    }
+
+    private String dictionaryEntry(int column, int code) {
+      var dictionary = dictionaries[column];
+      var entry = dictionary[code];
+      if (entry == null) {
+        entry = string(column, code);
+        dictionary[code] = entry;
+      }
+      return entry;
+    }
+
+    private String string(int column, int entry) {
+      return new String(entryBytes(column, entry), StandardCharsets.UTF_8);
+    }
+
+    private Object object(int column, int row) {
+      try {
+        return ValueCodec.read(new DataInputStream(new ByteArrayInputStream(entryBytes(column, row))));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private byte[] entryBytes(int column, int entry) {
+      var from = buffer.getInt(offsets[column] + entry * 4);
+      var to = buffer.getInt(offsets[column] + (entry + 1) * 4);
+      var value = new byte[to - from];
+      buffer.get(bytes[column] + from, value);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes results in the snapshot format read by {@link SnapshotResult}.
+ *
+ * <p>A snapshot is a header with the schema, a sequence of row groups and a footer. Each row group
+ * holds one chunk per column: a null bitmap followed by fixed-width values, or by offsets and
+ * UTF-8 bytes for strings (dictionary-encoded when the group has few distinct values). Every chunk
+ * starts on an 8-byte boundary so it can be read in place from a mapped file. The footer lists
+ * the column count, then the row count and chunk offsets of each group, and ends with its own
+ * offset and the magic number.
+ */
+public class SnapshotWriter implements Closeable {
+  static final int MAGIC = 0x4244534E;
+  static final int VERSION = 1;
+  static final int ROW_GROUP_SIZE = 1 << 16;
+  static final int PLAIN = 0;
+  static final int DICTIONARY = 1;
+
+  private final FileChannel channel;
+  private final ChannelWriter out;
+  private final Schema schema;
+  private final List<Integer> groupRows = new ArrayList<>();
+  private final List<long[]> groupOffsets = new ArrayList<>();
+  private long rows;
+
+  public SnapshotWriter(Path file, Schema schema) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    this.out = new ChannelWriter(channel);
+    this.schema = schema;
+
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(schema.size());
+    for (var i = 0; i < schema.size(); i++) {
+      ValueCodec.writeString(out, schema.name(i));
+      out.writeByte(schema.type(i).ordinal());
+    }
+    out.align(8);
+  }
+
+  /**
+   * Writes a whole result to {@code file}, split into row groups of {@value #ROW_GROUP_SIZE} rows.
+   */
+  public static void write(Path file, ResultTable table) throws IOException {
+    try (var writer = new SnapshotWriter(file, table.schema())) {
+      writer.append(table);
+    }
+  }
+
+  /**
+   * Streams every remaining row of the result set to {@code file}, keeping at most one row group
+   * on the heap at a time. Returns the number of rows written.
+   */
+  public static long write(Path file, ResultSet rs) throws IOException, SQLException {
+    return write(file, rs, LoadGovernor.unlimited());
+  }
+
+  /**
+   * Like {@link #write(Path, ResultSet)}, stopping where {@code governor} cuts the load short.
+   * Written row groups count towards its byte limit at their size on disk.
+   */
+  public static long write(Path file, ResultSet rs, LoadGovernor governor) throws IOException, SQLException {
+    var schema = Schema.of(rs.getMetaData());
+    try (var writer = new SnapshotWriter(file, schema)) {
+      var page = new ColumnarResult(schema, ROW_GROUP_SIZE);
+      while (rs.next()) {
+        var current = page;
+        if (!governor.admit(() -> writer.out.position() + current.estimatedBytes())) {
+          break;
+        }
+        page.readRow(rs);
+        if (page.size() == ROW_GROUP_SIZE) {
+          writer.writeGroup(page, 0, page.size());
+          page = new ColumnarResult(schema, ROW_GROUP_SIZE);
+        }
+      }
+      writer.writeGroup(page, 0, page.size());
+      return writer.getRows();
+    }
+  }
+
+  public void append(ResultTable table) throws IOException {
+    for (var from = 0; from < table.size(); from += ROW_GROUP_SIZE) {
+      writeGroup(table, from, Math.min(table.size(), from + ROW_GROUP_SIZE));
+    }
+  }
+
+  /**
+   * Writes rows {@code [from, to)} of {@code table} as one row group.
+   */
+  public void writeGroup(ResultTable table, int from, int to) throws IOException {
+    if (!table.schema().equals(schema)) {
+      throw new IllegalArgumentException("Schema mismatch: expected " + schema + ", got " + table.schema());
+    }
+
+    var count = to - from;
+    if (count <= 0) {
+      return;
+    }
+    var offsets = new long[schema.size()];
+    for (var c = 0; c < schema.size(); c++) {
+      offsets[c] = out.position();
+      writeNulls(table, c, from, count);
+      switch (schema.type(c)) {
+        case INT -> {
+          for (var row = from; row < to; row++) {
+            out.writeInt(table.getValue(row, c) instanceof Integer i ? i : 0);
+          }
+        }
+        case LONG -> {
+          for (var row = from; row < to; row++) {
+            out.writeLong(table.getValue(row, c) instanceof Long l ? l : 0L);
+          }
+        }
+        case DOUBLE -> {
+          for (var row = from; row < to; row++) {
+            out.writeDouble(table.getValue(row, c) instanceof Double d ? d : 0d);
+          }
+        }
+        case BOOLEAN -> writeBooleans(table, c, from, count);
+        case TIMESTAMP -> {
+          for (var row = from; row < to; row++) {
+            out.writeLong(table.getValue(row, c) instanceof Timestamp t ? t.getTime() : 0L);
+          }
+          for (var row = from; row < to; row++) {
+            out.writeInt(table.getValue(row, c) instanceof Timestamp t ? t.getNanos() : 0);
+          }
+        }
+        case STRING -> writeStrings(table, c, from, count);
+        case OBJECT -> writeObjects(table, c, from, count);
+      }
+      out.align(8);
+    }
+
+    groupRows.add(count);
+    groupOffsets.add(offsets);
+    rows += count;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      var footer = out.position();
+      out.writeInt(groupRows.size());
+      out.writeInt(schema.size());
+      for (var g = 0; g < groupRows.size(); g++) {
+        out.writeInt(groupRows.get(g));
+        for (var offset : groupOffsets.get(g)) {
+          out.writeLong(offset);
+        }
+      }
+      out.writeLong(footer);
+      out.writeInt(MAGIC);
+      out.close();
+    } finally {
+      channel.close();
+    }
+  }
+
+  static int bitmapBytes(int rows) {
+    return ((rows + 63) >>> 6) << 3;
+  }
+
+  private void writeNulls(ResultTable table, int column, int from, int count) throws IOException {
+    writeBits(count, row -> table.getValue(from + row, column) == null);
+  }
+
+  private void writeBooleans(ResultTable table, int column, int from, int count) throws IOException {
+    writeBits(count, row -> Boolean.TRUE.equals(table.getValue(from + row, column)));
+  }
+
+  private void writeBits(int count, RowPredicate predicate) throws IOException {
+    for (var word = 0; word < bitmapBytes(count) / 8; word++) {
+      var bits = 0L;
+      for (var bit = 0; bit < 64 && word * 64 + bit < count; bit++) {
+        if (predicate.test(word * 64 + bit)) {
+          bits |= 1L << bit;
+        }
+      }
+      out.writeLong(bits);
+    }
+  }
+
+  /**
+   * Layout: encoding, entry count, {@code count + 1} byte offsets, row codes (dictionary only),
+   * then the UTF-8 bytes of the entries.
+   */
+  private void writeStrings(ResultTable table, int column, int from, int count) throws IOException {
+    var dictionary = new HashMap<String, Integer>();
+    var entries = new ArrayList<byte[]>();
+    var codes = new int[count];
+    for (var row = 0; row < count; row++) {
+      var value = table.getValue(from + row, column);
+      if (value == null) {
+        codes[row] = -1;
+        continue;
+      }
+      codes[row] = dictionary.computeIfAbsent(value.toString(), s -> {
+        entries.add(s.getBytes(StandardCharsets.UTF_8));
+        return entries.size() - 1;
+      });
+    }
+
+    var encoded = entries.size() <= count / 2;
+    if (!encoded) {
+      entries.clear();
+      for (var row = 0; row < count; row++) {
+        var value = table.getValue(from + row, column);
+        entries.add(value == null ? new byte[0] : value.toString().getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    out.writeInt(encoded ? DICTIONARY : PLAIN);
+    out.writeInt(entries.size());
+    writeEntries(entries, encoded ? codes : null);
+  }
+
+  private void writeObjects(ResultTable table, int column, int from, int count) throws IOException {
+    var entries = new ArrayList<byte[]>(count);
+    var bytes = new ByteArrayOutputStream();
+    var data = new DataOutputStream(bytes);
+    for (var row = 0; row < count; row++) {
+      bytes.reset();
+      ValueCodec.write(data, table.getValue(from + row, column));
+      entries.add(bytes.toByteArray());
+    }
+    writeEntries(entries, null);
+  }
+
+  private void writeEntries(List<byte[]> entries, int[] codes) throws IOException {
+    var offset = 0;
+    out.writeInt(offset);
+    for (var entry : entries) {
+      offset += entry.length;
+      out.writeInt(offset);
+    }
+    if (codes != null) {
+      for (var code : codes) {
+        out.writeInt(code);
+      }
+    }
+    for (var entry : entries) {
+      out.write(entry);
+    }
+  }
+
+  @FunctionalInterface
+  private interface RowPredicate {
+    boolean test(int row) throws IOException;
+  }
+}
@@ -0,0 +1,229 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorted index on one column of a loaded object, for range queries:
+ * {@code events.sortedIndex('created_at').between('2024-01-01', '2024-02-01')}. Ranges are found
+ * by binary search and returned as views over the table in key order; null values are not
+ * indexed. Integer and decimal keys are kept in primitive arrays. The index rebuilds itself when
+ * the table changed since it was built.
+ */
+public final class SortedIndex {
+  private final ResultTable table;
+  private final int column;
+  private final ColumnType type;
+  private int version = -1;
+  private int size = -1;
+  private int[] order;
+  private long[] longKeys;
+  private double[] doubleKeys;
+  private Object[] keys;
+
+  SortedIndex(ResultTable table, int column) {
+    this.table = table;
+    this.column = column;
+    this.type = table.schema().type(column);
+  }
+
+  /**
+   * Rows whose key lies between {@code from} and {@code to}; a null bound leaves that end open.
+   */
+  public synchronized ResultTable range(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+    refresh();
+    var start = from == null ? 0 : search(from, !fromInclusive);
+    var end = to == null ? order.length : search(to, toInclusive);
+    return new RowView(table, order, start, Math.max(start, end));
+  }
+
+  /**
+   * Rows with {@code from <= key <= to}.
+   */
+  public ResultTable between(Object from, Object to) {
+    return range(from, true, to, true);
+  }
+
+  public ResultTable atLeast(Object from) {
+    return range(from, true, null, false);
+  }
+
+  public ResultTable greaterThan(Object from) {
+    return range(from, false, null, false);
+  }
+
+  public ResultTable atMost(Object to) {
+    return range(null, false, to, true);
+  }
+
+  public ResultTable lessThan(Object to) {
+    return range(null, false, to, false);
+  }
+
+  public ResultTable getAll(Object key) {
+    return range(key, true, key, true);
+  }
+
+  /**
+   * Row with the lowest key, or null when every key is null.
+   */
+  public synchronized Map<String, Object> first() {
+    refresh();
+    return order.length == 0 ? null : table.get(order[0]);
+  }
+
+  public synchronized Map<String, Object> last() {
+    refresh();
+    return order.length == 0 ? null : table.get(order[order.length - 1]);
+  }
+
+  @Override
+  public synchronized String toString() {
+    refresh();
+    return "SortedIndex(%s, %d rows)".formatted(table.schema().name(column), order.length);
+  }
+
+  /**
+   * First position whose key is above {@code bound}, or at or above it when not {@code strict}.
+   */
+  private int search(Object bound, boolean strict) {
+    var low = 0;
+    var high = order.length;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      var cmp = compare(mid, bound);
+      if (cmp > 0 || (cmp == 0 && !strict)) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(int position, Object bound) {
+    if (longKeys != null) {
+      var integral = IndexKeys.integral(bound);
+      return integral != null ? Long.compare(longKeys[position], integral)
+          : BigDecimal.valueOf(longKeys[position]).compareTo(IndexKeys.decimal(number(bound)));
+    }
+    if (doubleKeys != null) {
+      return Double.compare(doubleKeys[position], number(bound).doubleValue());
+    }
+    return ((Comparable<Object>) keys[position]).compareTo(IndexKeys.normalize(type, bound));
+  }
+
+  private Number number(Object bound) {
+    if (bound instanceof Number number) {
+      return number;
+    }
+    if (bound instanceof CharSequence text) {
+      return new BigDecimal(text.toString().trim());
+    }
+    throw new IllegalArgumentException("Cannot compare %s with numeric column %s".formatted(bound, table.schema().name(column)));
+  }
+
+  synchronized void build() {
+    refresh();
+  }
+
+  private void refresh() {
+    if (version == table.version() && size == table.size()) {
+      return;
+    }
+    version = table.version();
+    size = table.size();
+
+    var rows = new int[size];
+    var count = 0;
+    for (var row = 0; row < size; row++) {
+      if (!table.isNull(row, column)) {
+        rows[count++] = row;
+      }
+    }
+    order = Arrays.copyOf(rows, count);
+    longKeys = null;
+    doubleKeys = null;
+    keys = null;
+
+    switch (type) {
+      case INT, LONG -> {
+        var values = new long[size];
+        for (var row : order) {
+          values[row] = table.getLong(row, column);
+        }
+        sort(order, (a, b) -> Long.compare(values[a], values[b]));
+        longKeys = new long[count];
+        for (var i = 0; i < count; i++) {
+          longKeys[i] = values[order[i]];
+        }
+      }
+      case DOUBLE -> {
+        var values = new double[size];
+        for (var row : order) {
+          values[row] = table.getDouble(row, column);
+        }
+        sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        doubleKeys = new double[count];
+        for (var i = 0; i < count; i++) {
+          doubleKeys[i] = values[order[i]];
+        }
+      }
+      default -> {
+        var values = new Object[size];
+        for (var row : order) {
+          values[row] = IndexKeys.normalize(type, table.getValue(row, column));
+        }
+        sort(order, (a, b) -> compareObjects(values[a], values[b]));
+        keys = new Object[count];
+        for (var i = 0; i < count; i++) {
+          keys[i] = values[order[i]];
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compareObjects(Object a, Object b) {
+    if (!(a instanceof Comparable<?>)) {
+      throw new IllegalArgumentException("Column %s holds values that cannot be ordered: %s"
+          .formatted(table.schema().name(column), a.getClass().getName()));
+    }
+    return ((Comparable<Object>) a).compareTo(b);
+  }
+
+  /**
+   * Stable merge sort of row numbers, so equal keys keep table order and keys are compared as
+   * primitives.
+   */
+  private static void sort(int[] rows, IntBinaryOperator comparator) {
+    var buffer = new int[rows.length];
+    for (var width = 1; width < rows.length; width *= 2) {
+      for (var low = 0; low < rows.length - width; low += 2 * width) {
+        var mid = low + width;
+        var high = Math.min(low + 2 * width, rows.length);
+        if (comparator.applyAsInt(rows[mid - 1], rows[mid]) <= 0) {
+          continue;
+        }
+        var i = low;
+        var j = mid;
+        var k = low;
+        while (i < mid && j < high) {
+          buffer[k++] = comparator.applyAsInt(rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+        }
+        while (i < mid) {
+          buffer[k++] = rows[i++];
+        }
+        while (j < high) {
+          buffer[k++] = rows[j++];
+        }
+        System.arraycopy(buffer, low, rows, low, high - low);
+      }
+    }
+  }
+}
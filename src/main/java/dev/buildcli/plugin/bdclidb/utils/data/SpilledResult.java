@@ -0,0 +1,133 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import groovy.lang.Closure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of an eager load that outgrew its memory budget: the rows read before the budget was
+ * reached stay on the heap and the remainder is streamed into an off-heap scratch snapshot. Groovy
+ * sees a single read-only list; {@code sort} and {@code groupBy} run as external merge sorts whose
+ * runs are as large as half the in-heap rows, so they never hold the whole object in memory.
+ */
+public final class SpilledResult extends ResultTable {
+  private static final Logger logger = LoggerFactory.getLogger(SpilledResult.class);
+  private static final int CHECK_INTERVAL = 4096;
+
+  private final ColumnarResult head;
+  private final SnapshotResult tail;
+
+  private SpilledResult(ColumnarResult head, SnapshotResult tail) {
+    this.head = head;
+    this.tail = tail;
+  }
+
+  /**
+   * Reads every remaining row of the result set, spilling to disk once the rows held on the heap
+   * are estimated to exceed {@code memoryBudget} bytes. Returns a plain {@link ColumnarResult} when
+   * the budget is never reached.
+   */
+  public static ResultTable load(ResultSet rs, long memoryBudget) throws SQLException {
+    return load(rs, memoryBudget, LoadGovernor.unlimited());
+  }
+
+  /**
+   * Like {@link #load(ResultSet, long)}, stopping where {@code governor} cuts the load short.
+   */
+  public static ResultTable load(ResultSet rs, long memoryBudget, LoadGovernor governor) throws SQLException {
+    var head = new ColumnarResult(Schema.of(rs.getMetaData()));
+    while (rs.next() && governor.admit(head::estimatedBytes)) {
+      head.readRow(rs);
+      if (head.size() % CHECK_INTERVAL == 0 && head.estimatedBytes() > memoryBudget) {
+        logger.info("Result exceeded its memory budget of {} MB after {} rows, spilling the remainder to disk", memoryBudget >> 20,
+            head.size());
+        governor.carry(head.estimatedBytes());
+        var tail = OffHeapStore.load(rs, governor);
+        if (tail.isEmpty()) {
+          OffHeapStore.release(tail);
+          return head;
+        }
+        return new SpilledResult(head, tail);
+      }
+    }
+    return head;
+  }
+
+  @Override
+  public Schema schema() {
+    return head.schema();
+  }
+
+  @Override
+  public int size() {
+    return head.size() + tail.size();
+  }
+
+  @Override
+  public Object getValue(int row, int column) {
+    return row < head.size() ? head.getValue(row, column) : tail.getValue(row - head.size(), column);
+  }
+
+  @Override
+  boolean isNull(int row, int column) {
+    return row < head.size() ? head.isNull(row, column) : tail.isNull(row - head.size(), column);
+  }
+
+  @Override
+  long getLong(int row, int column) {
+    return row < head.size() ? head.getLong(row, column) : tail.getLong(row - head.size(), column);
+  }
+
+  @Override
+  double getDouble(int row, int column) {
+    return row < head.size() ? head.getDouble(row, column) : tail.getDouble(row - head.size(), column);
+  }
+
+  /**
+   * Number of rows kept on the heap.
+   */
+  public int getHeapRows() {
+    return head.size();
+  }
+
+  /**
+   * Number of rows spilled to disk.
+   */
+  public int getSpilledRows() {
+    return tail.size();
+  }
+
+  SnapshotResult tail() {
+    return tail;
+  }
+
+  /**
+   * Sorts the rows with an external merge sort into a new off-heap result. Like Groovy's
+   * {@code sort}, a one-parameter closure returns the sort key and a two-parameter closure compares
+   * two rows; the sort is stable.
+   */
+  public SnapshotResult sort(Closure<?> closure) {
+    return ExternalSort.sort(this, closure, runRows());
+  }
+
+  public SnapshotResult toSorted(Closure<?> closure) {
+    return sort(closure);
+  }
+
+  /**
+   * Groups the rows by the key the closure returns. Groups keep the order of first appearance and
+   * each one is a view over a contiguous range of an off-heap copy sorted by group.
+   */
+  public Map<Object, List<Map<String, Object>>> groupBy(Closure<?> closure) {
+    return ExternalSort.groupBy(this, closure, runRows());
+  }
+
+  private int runRows() {
+    return Math.max(CHECK_INTERVAL, head.size() / 2);
+  }
+}
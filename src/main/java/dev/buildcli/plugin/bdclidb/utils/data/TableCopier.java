@@ -0,0 +1,327 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.Dialect;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.SqlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies the rows of an object from one connection into a table of another. The calling thread
+ * streams the source result set into a bounded queue of batches while a writer thread inserts
+ * them on the target connection with {@link PreparedStatement#addBatch()}, so fetching and
+ * inserting overlap and the copy runs at the speed of the slower side. A missing target table is
+ * created from the source metadata with the column types of the target {@link Dialect}.
+ */
+public final class TableCopier {
+  private static final Logger logger = LoggerFactory.getLogger(TableCopier.class);
+  private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+  private static final List<Object[]> END = List.of();
+
+  private TableCopier() {
+  }
+
+  public record Options(int batchSize, int queueDepth, int commitEvery, boolean truncate) {
+    public static Options defaults() {
+      return new Options(1000, 4, 10_000, false);
+    }
+
+    public Options withBatchSize(int batchSize) {
+      return new Options(batchSize, queueDepth, commitEvery, truncate);
+    }
+
+    public Options withQueueDepth(int queueDepth) {
+      return new Options(batchSize, queueDepth, commitEvery, truncate);
+    }
+
+    public Options withCommitEvery(int commitEvery) {
+      return new Options(batchSize, queueDepth, commitEvery, truncate);
+    }
+
+    public Options withTruncate(boolean truncate) {
+      return new Options(batchSize, queueDepth, commitEvery, truncate);
+    }
+  }
+
+  /**
+   * Outcome of a copy. {@code readWait} is the time the reader spent waiting for room in the
+   * queue and {@code writeWait} the time the writer spent waiting for batches; the larger one
+   * tells which side was faster.
+   */
+  public record Result(long rows, Duration elapsed, Duration readWait, Duration writeWait) {
+    public double rowsPerSecond() {
+      return elapsed.isZero() ? rows : rows * 1e9 / elapsed.toNanos();
+    }
+
+    /**
+     * Returns {@code "target"} when the reader mostly waited for the writer, {@code "source"}
+     * otherwise.
+     */
+    public String bottleneck() {
+      return readWait.compareTo(writeWait) > 0 ? "target" : "source";
+    }
+  }
+
+  private record Columns(String[] names, int[] types, int[] precisions, int[] scales) {
+  }
+
+  /**
+   * Copies every row of {@code object}, read from {@code source}, into {@code table} on
+   * {@code target}. Parameterized objects are bound to {@code arguments}. On failure the writer
+   * rolls back what it has not committed yet and the exception reports how many rows were
+   * committed.
+   */
+  public static Result copy(DbConnection source, DbObject object, DbConnection target, String table, Options options,
+                            Map<String, Object> arguments) {
+    var dialect = ConnectionUtils.dialect(target);
+    var start = System.nanoTime();
+    Statement stmt = null;
+    try (var con = ConnectionUtils.connect(source)) {
+      ResultSet rs;
+      if (object.isParameterized()) {
+        var parsed = SqlUtils.parseNamedParameters(object.sql());
+        var prepared = con.prepareStatement(parsed.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt = prepared;
+        ConnectionUtils.enableStreaming(con, stmt, source, object.fetchSize());
+        ParameterizedObject.bind(prepared, object, parsed, arguments);
+        rs = prepared.executeQuery();
+      } else {
+        stmt = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ConnectionUtils.enableStreaming(con, stmt, source, object.fetchSize());
+        rs = stmt.executeQuery(object.sql());
+      }
+
+      try (rs) {
+        var columns = columns(rs);
+        var queue = new ArrayBlockingQueue<List<Object[]>>(Math.max(1, options.queueDepth()));
+        var failure = new AtomicReference<Throwable>();
+        var written = new AtomicLong();
+        var committed = new AtomicLong();
+        var writeWait = new AtomicLong();
+        var readWait = 0L;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+          executor.submit(() -> write(target, dialect, table, columns, queue, options, written, committed, writeWait, failure));
+          try {
+            readWait = read(rs, columns, queue, options.batchSize(), failure, written, start);
+          } catch (SQLException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            put(queue, END, failure);
+          }
+        }
+
+        var error = failure.get();
+        if (error != null) {
+          throw new RuntimeException("Copy of %s into %s failed after %d committed rows: %s".formatted(object.name(), table,
+              committed.get(), error.getMessage()), error);
+        }
+        return new Result(committed.get(), Duration.ofNanos(System.nanoTime() - start), Duration.ofNanos(readWait),
+            Duration.ofNanos(writeWait.get()));
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      if (stmt != null) {
+        try {
+          stmt.close();
+        } catch (SQLException e) {
+          logger.debug("Failed to close copy statement", e);
+        }
+      }
+    }
+  }
+
+  private static Columns columns(ResultSet rs) throws SQLException {
+    var metaData = rs.getMetaData();
+    var count = metaData.getColumnCount();
+    var columns = new Columns(new String[count], new int[count], new int[count], new int[count]);
+    for (var c = 0; c < count; c++) {
+      columns.names()[c] = metaData.getColumnLabel(c + 1);
+      columns.types()[c] = metaData.getColumnType(c + 1);
+      columns.precisions()[c] = metaData.getPrecision(c + 1);
+      columns.scales()[c] = metaData.getScale(c + 1);
+    }
+    return columns;
+  }
+
+  /**
+   * Fetches rows into batches and queues them, returning how long it waited for the writer.
+   */
+  private static long read(ResultSet rs, Columns columns, BlockingQueue<List<Object[]>> queue, int batchSize,
+                           AtomicReference<Throwable> failure, AtomicLong written, long start) throws SQLException, InterruptedException {
+    var types = columns.types();
+    var batch = new ArrayList<Object[]>(batchSize);
+    var waited = 0L;
+    var progress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+    while (failure.get() == null && rs.next()) {
+      var row = new Object[types.length];
+      for (var c = 0; c < types.length; c++) {
+        row[c] = value(rs, c + 1, types[c]);
+      }
+      batch.add(row);
+      if (batch.size() == batchSize) {
+        var waiting = System.nanoTime();
+        if (!put(queue, batch, failure)) {
+          return waited;
+        }
+        waited += System.nanoTime() - waiting;
+        batch = new ArrayList<>(batchSize);
+      }
+      if (System.nanoTime() > progress) {
+        var rows = written.get();
+        logger.info("Copied {} rows ({} rows/s)", rows, Math.round(rows * 1e9 / (System.nanoTime() - start)));
+        progress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+      }
+    }
+    if (!batch.isEmpty()) {
+      put(queue, batch, failure);
+    }
+    return waited;
+  }
+
+  /**
+   * Reads a value in a form any driver binds: temporal columns as JDBC or java.time values, large
+   * objects materialized, and vendor types such as arrays or JSON as their text.
+   */
+  private static Object value(ResultSet rs, int column, int sqlType) throws SQLException {
+    return switch (sqlType) {
+      case Types.DATE -> rs.getDate(column);
+      case Types.TIME -> rs.getTime(column);
+      case Types.TIMESTAMP -> rs.getTimestamp(column);
+      case Types.TIMESTAMP_WITH_TIMEZONE -> rs.getObject(column, OffsetDateTime.class);
+      case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> rs.getBytes(column);
+      case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB,
+           Types.OTHER, Types.ARRAY, Types.STRUCT, Types.SQLXML, Types.JAVA_OBJECT -> rs.getString(column);
+      default -> rs.getObject(column);
+    };
+  }
+
+  /**
+   * Hands a batch to the writer, giving up once it failed.
+   */
+  private static boolean put(BlockingQueue<List<Object[]>> queue, List<Object[]> batch, AtomicReference<Throwable> failure)
+      throws InterruptedException {
+    while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+      if (failure.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void write(DbConnection target, Dialect dialect, String table, Columns columns, BlockingQueue<List<Object[]>> queue,
+                            Options options, AtomicLong written, AtomicLong committed, AtomicLong waited, AtomicReference<Throwable> failure) {
+    var sql = "insert into %s (%s) values (%s)".formatted(table, String.join(", ", columns.names()),
+        String.join(", ", Collections.nCopies(columns.names().length, "?")));
+    try (var con = ConnectionUtils.connect(target)) {
+      prepareTable(con, dialect, table, columns);
+      con.setAutoCommit(false);
+      try (var stmt = con.prepareStatement(sql)) {
+        if (options.truncate()) {
+          try (var delete = con.createStatement()) {
+            delete.executeUpdate("delete from " + table);
+          }
+        }
+
+        var types = columns.types();
+        var uncommitted = 0;
+        while (failure.get() == null) {
+          var waiting = System.nanoTime();
+          var batch = queue.poll(100, TimeUnit.MILLISECONDS);
+          waited.addAndGet(System.nanoTime() - waiting);
+          if (batch == null) {
+            continue;
+          }
+          if (batch == END) {
+            break;
+          }
+          for (var row : batch) {
+            for (var c = 0; c < types.length; c++) {
+              bind(stmt, c + 1, row[c], types[c], dialect);
+            }
+            stmt.addBatch();
+          }
+          stmt.executeBatch();
+          uncommitted += batch.size();
+          written.addAndGet(batch.size());
+          if (uncommitted >= options.commitEvery()) {
+            con.commit();
+            committed.addAndGet(uncommitted);
+            uncommitted = 0;
+          }
+        }
+        if (failure.get() == null) {
+          con.commit();
+          committed.addAndGet(uncommitted);
+        } else {
+          con.rollback();
+        }
+      } catch (SQLException | RuntimeException | InterruptedException e) {
+        failure.compareAndSet(null, e);
+        con.rollback();
+      }
+    } catch (SQLException | RuntimeException e) {
+      failure.compareAndSet(null, e);
+    }
+  }
+
+  private static void bind(PreparedStatement stmt, int index, Object value, int sqlType, Dialect dialect) throws SQLException {
+    if (value == null) {
+      stmt.setNull(index, sqlType);
+    } else if (dialect == Dialect.SQLITE && value instanceof Temporal) {
+      stmt.setString(index, value.toString());
+    } else {
+      stmt.setObject(index, value);
+    }
+  }
+
+  /**
+   * Creates {@code table} from the source columns unless it already exists.
+   */
+  private static void prepareTable(Connection con, Dialect dialect, String table, Columns columns) throws SQLException {
+    try (var stmt = con.createStatement(); var rs = stmt.executeQuery("select * from %s where 1 = 0".formatted(table))) {
+      return;
+    } catch (SQLException e) {
+      logger.debug("Table {} not found, creating it: {}", table, e.getMessage());
+    }
+
+    var ddl = new StringBuilder("create table ").append(table).append(" (");
+    for (var c = 0; c < columns.names().length; c++) {
+      if (c > 0) {
+        ddl.append(", ");
+      }
+      ddl.append(columns.names()[c]).append(' ')
+          .append(dialect.columnType(columns.types()[c], columns.precisions()[c], columns.scales()[c]));
+    }
+    var sql = ddl.append(')').toString();
+    logger.info("Creating table: {}", sql);
+    try (var stmt = con.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+}
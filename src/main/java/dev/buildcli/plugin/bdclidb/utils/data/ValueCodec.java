@@ -0,0 +1,179 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Tagged binary encoding for the values of untyped ({@code OBJECT}) columns. Types without a
+ * dedicated tag are stored as their string form.
+ */
+public final class ValueCodec {
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte BIG_DECIMAL = 6;
+  private static final byte BIG_INTEGER = 7;
+  private static final byte DATE = 8;
+  private static final byte TIME = 9;
+  private static final byte TIMESTAMP = 10;
+  private static final byte BYTES = 11;
+  private static final byte LOCAL_DATE = 12;
+  private static final byte LOCAL_TIME = 13;
+  private static final byte LOCAL_DATE_TIME = 14;
+  private static final byte OFFSET_DATE_TIME = 15;
+  private static final byte UUID_VALUE = 16;
+  private static final byte SHORT = 17;
+  private static final byte FLOAT = 18;
+
+  private ValueCodec() {
+  }
+
+  public static void write(DataOutput out, Object value) throws IOException {
+    switch (value) {
+      case null -> out.writeByte(NULL);
+      case String string -> {
+        out.writeByte(STRING);
+        writeString(out, string);
+      }
+      case Integer i -> {
+        out.writeByte(INT);
+        out.writeInt(i);
+      }
+      case Long l -> {
+        out.writeByte(LONG);
+        out.writeLong(l);
+      }
+      case Short s -> {
+        out.writeByte(SHORT);
+        out.writeShort(s);
+      }
+      case Double d -> {
+        out.writeByte(DOUBLE);
+        out.writeDouble(d);
+      }
+      case Float f -> {
+        out.writeByte(FLOAT);
+        out.writeFloat(f);
+      }
+      case Boolean b -> {
+        out.writeByte(BOOLEAN);
+        out.writeBoolean(b);
+      }
+      case BigDecimal decimal -> {
+        out.writeByte(BIG_DECIMAL);
+        writeString(out, decimal.toString());
+      }
+      case BigInteger integer -> {
+        out.writeByte(BIG_INTEGER);
+        writeString(out, integer.toString());
+      }
+      case Date date -> {
+        out.writeByte(DATE);
+        out.writeLong(date.getTime());
+      }
+      case Time time -> {
+        out.writeByte(TIME);
+        out.writeLong(time.getTime());
+      }
+      case Timestamp timestamp -> {
+        out.writeByte(TIMESTAMP);
+        out.writeLong(timestamp.getTime());
+        out.writeInt(timestamp.getNanos());
+      }
+      case byte[] bytes -> {
+        out.writeByte(BYTES);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      case LocalDate localDate -> {
+        out.writeByte(LOCAL_DATE);
+        out.writeLong(localDate.toEpochDay());
+      }
+      case LocalTime localTime -> {
+        out.writeByte(LOCAL_TIME);
+        out.writeLong(localTime.toNanoOfDay());
+      }
+      case LocalDateTime dateTime -> {
+        out.writeByte(LOCAL_DATE_TIME);
+        writeString(out, dateTime.toString());
+      }
+      case OffsetDateTime dateTime -> {
+        out.writeByte(OFFSET_DATE_TIME);
+        writeString(out, dateTime.toString());
+      }
+      case UUID uuid -> {
+        out.writeByte(UUID_VALUE);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+      }
+      default -> {
+        out.writeByte(STRING);
+        writeString(out, value.toString());
+      }
+    }
+  }
+
+  public static Object read(DataInput in) throws IOException {
+    var tag = in.readByte();
+    return switch (tag) {
+      case NULL -> null;
+      case STRING -> readString(in);
+      case INT -> in.readInt();
+      case LONG -> in.readLong();
+      case SHORT -> in.readShort();
+      case DOUBLE -> in.readDouble();
+      case FLOAT -> in.readFloat();
+      case BOOLEAN -> in.readBoolean();
+      case BIG_DECIMAL -> new BigDecimal(readString(in));
+      case BIG_INTEGER -> new BigInteger(readString(in));
+      case DATE -> new Date(in.readLong());
+      case TIME -> new Time(in.readLong());
+      case TIMESTAMP -> {
+        var timestamp = new Timestamp(in.readLong());
+        timestamp.setNanos(in.readInt());
+        yield timestamp;
+      }
+      case BYTES -> {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        yield bytes;
+      }
+      case LOCAL_DATE -> LocalDate.ofEpochDay(in.readLong());
+      case LOCAL_TIME -> LocalTime.ofNanoOfDay(in.readLong());
+      case LOCAL_DATE_TIME -> LocalDateTime.parse(readString(in));
+      case OFFSET_DATE_TIME -> OffsetDateTime.parse(readString(in));
+      case UUID_VALUE -> new UUID(in.readLong(), in.readLong());
+      default -> throw new IOException("Unknown value tag: " + tag);
+    };
+  }
+
+  /**
+   * Writes a length-prefixed UTF-8 string. Unlike {@link DataOutput#writeUTF} it has no 64 KB limit.
+   */
+  public static void writeString(DataOutput out, String value) throws IOException {
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  public static String readString(DataInput in) throws IOException {
+    var bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
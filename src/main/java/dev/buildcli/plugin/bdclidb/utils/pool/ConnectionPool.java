@@ -0,0 +1,247 @@
+package dev.buildcli.plugin.bdclidb.utils.pool;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small connection pool for a single {@link DbConnection}. It keeps between {@code poolMin} and
+ * {@code poolMax} physical connections and hands out the most recently used (warmest) idle
+ * connection first, so its prepared statement cache gets reused. Connections that sat idle are
+ * validated before they are lent out, and those idle for longer than {@code poolIdleTimeout} are
+ * closed.
+ */
+public class ConnectionPool implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+  private static final Duration VALIDATION_INTERVAL = Duration.ofSeconds(5);
+  private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    var thread = new Thread(runnable, "bdclidb-pool-evictor");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final DbConnection connection;
+  private final Semaphore permits;
+  private final Deque<PooledConnection> idle = new ArrayDeque<>();
+  private final ScheduledFuture<?> eviction;
+  private int total;
+  private volatile boolean closed;
+
+  public ConnectionPool(DbConnection connection) {
+    this.connection = connection;
+    this.permits = new Semaphore(connection.poolMax(), true);
+
+    var period = Math.max(1_000, connection.poolIdleTimeout().toMillis() / 2);
+    this.eviction = EVICTOR.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+
+    if (connection.poolMin() > 0) {
+      Thread.ofVirtual().name("bdclidb-pool-" + connection.name()).start(this::fillToMinimum);
+    }
+  }
+
+  public DbConnection getConnection() {
+    return connection;
+  }
+
+  /**
+   * Borrows a connection, waiting up to {@code poolBorrowTimeout} while {@code poolMax} connections
+   * are in use. Closing the returned connection gives it back to the pool.
+   */
+  public PooledConnection borrow() {
+    var pooled = tryBorrow(connection.poolBorrowTimeout());
+    if (pooled == null) {
+      throw new IllegalStateException("No connection of %s became available within %s, all %d are in use (poolMax)"
+          .formatted(connection.name(), connection.poolBorrowTimeout(), connection.poolMax()));
+    }
+    return pooled;
+  }
+
+  /**
+   * Borrows a connection, or returns null when none became available within {@code wait}.
+   */
+  public PooledConnection tryBorrow(Duration wait) {
+    if (closed) {
+      throw new IllegalStateException("Connection pool " + connection.name() + " is closed");
+    }
+
+    try {
+      if (!permits.tryAcquire(wait.toNanos(), TimeUnit.NANOSECONDS)) {
+        return null;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+
+    try {
+      PooledConnection pooled;
+      while ((pooled = pollIdle()) != null) {
+        if (isUsable(pooled)) {
+          pooled.lend();
+          return pooled;
+        }
+        discard(pooled);
+      }
+
+      pooled = create();
+      pooled.lend();
+      return pooled;
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  void release(PooledConnection pooled) {
+    try {
+      if (closed || !pooled.reset()) {
+        discard(pooled);
+      } else {
+        synchronized (this) {
+          idle.push(pooled);
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  public synchronized int getTotal() {
+    return total;
+  }
+
+  public synchronized int getIdle() {
+    return idle.size();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    eviction.cancel(false);
+
+    Deque<PooledConnection> toClose;
+    synchronized (this) {
+      toClose = new ArrayDeque<>(idle);
+      idle.clear();
+    }
+    toClose.forEach(this::discard);
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPool[%s, total=%d, idle=%d]".formatted(connection.name(), getTotal(), getIdle());
+  }
+
+  private synchronized PooledConnection pollIdle() {
+    return idle.poll();
+  }
+
+  private PooledConnection create() {
+    synchronized (this) {
+      total++;
+    }
+    return open();
+  }
+
+  /**
+   * Opens a physical connection for a slot that was already counted in {@code total}.
+   */
+  private PooledConnection open() {
+    try {
+      return new PooledConnection(this, ConnectionUtils.connect(connection), connection.statementCacheSize());
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        total--;
+      }
+      throw e;
+    }
+  }
+
+  private boolean isUsable(PooledConnection pooled) {
+    try {
+      if (pooled.physical().isClosed()) {
+        return false;
+      }
+      if (pooled.idleTime().compareTo(VALIDATION_INTERVAL) < 0) {
+        return true;
+      }
+      return pooled.physical().isValid((int) Math.max(1, connection.poolValidationTimeout().toSeconds()));
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void discard(PooledConnection pooled) {
+    synchronized (this) {
+      total--;
+    }
+    pooled.closePhysical();
+  }
+
+  private void evict() {
+    try {
+      var idleTimeout = connection.poolIdleTimeout();
+      var expired = new ArrayDeque<PooledConnection>();
+      synchronized (this) {
+        // Oldest connections sit at the tail of the deque
+        var iterator = idle.descendingIterator();
+        while (iterator.hasNext() && total - expired.size() > connection.poolMin()) {
+          var pooled = iterator.next();
+          if (pooled.idleTime().compareTo(idleTimeout) < 0) {
+            break;
+          }
+          iterator.remove();
+          expired.add(pooled);
+        }
+      }
+
+      if (!expired.isEmpty()) {
+        logger.debug("Evicting {} idle connection(s) from pool {}", expired.size(), connection.name());
+      }
+      expired.forEach(this::discard);
+      fillToMinimum();
+    } catch (Exception e) {
+      logger.warn("Idle connection eviction failed for pool {}: {}", connection.name(), e.getMessage());
+    }
+  }
+
+  private void fillToMinimum() {
+    while (!closed) {
+      // Holds a permit while opening so a borrower that finds no idle connection meanwhile cannot
+      // push total past poolMax; when all permits are taken the borrowers open connections anyway
+      if (!permits.tryAcquire()) {
+        return;
+      }
+      try {
+        synchronized (this) {
+          if (total >= connection.poolMin()) {
+            return;
+          }
+          total++;
+        }
+
+        var pooled = open();
+        synchronized (this) {
+          idle.addLast(pooled);
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Could not open connection for pool {}: {}", connection.name(), e.getMessage());
+        return;
+      } finally {
+        permits.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package dev.buildcli.plugin.bdclidb.utils.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A physical connection owned by a {@link ConnectionPool}. Closing it returns the connection to the
+ * pool instead of closing the underlying JDBC connection.
+ */
+public class PooledConnection implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(PooledConnection.class);
+
+  private final ConnectionPool pool;
+  private final Connection connection;
+  private final Map<String, PreparedStatement> statements;
+  private volatile long lastUsed = System.nanoTime();
+  private volatile boolean borrowed;
+
+  PooledConnection(ConnectionPool pool, Connection connection, int statementCacheSize) {
+    this.pool = pool;
+    this.connection = connection;
+    this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+        if (size() <= statementCacheSize) {
+          return false;
+        }
+        closeStatement(eldest.getValue());
+        return true;
+      }
+    };
+  }
+
+  public Connection connection() {
+    if (!borrowed) {
+      throw new IllegalStateException("Connection was already returned to the pool");
+    }
+    return connection;
+  }
+
+  /**
+   * Returns a prepared statement for the SQL, reusing the one cached on this connection when there
+   * is one so the server can reuse its plan. The statement stays owned by the connection: callers
+   * must close its result sets but not the statement itself.
+   */
+  public PreparedStatement prepare(String sql) throws SQLException {
+    var stmt = connection().isClosed() ? null : statements.get(sql);
+    if (stmt != null && !stmt.isClosed()) {
+      stmt.clearParameters();
+      return stmt;
+    }
+
+    stmt = connection.prepareStatement(sql);
+    statements.put(sql, stmt);
+    return stmt;
+  }
+
+  @Override
+  public void close() {
+    if (!borrowed) {
+      return;
+    }
+    borrowed = false;
+    lastUsed = System.nanoTime();
+    pool.release(this);
+  }
+
+  Connection physical() {
+    return connection;
+  }
+
+  void lend() {
+    borrowed = true;
+  }
+
+  Duration idleTime() {
+    return Duration.ofNanos(System.nanoTime() - lastUsed);
+  }
+
+  /**
+   * Rolls back whatever the borrower left open and restores auto-commit, so the next borrower gets
+   * a clean connection. Returns false when the connection can no longer be reused.
+   */
+  boolean reset() {
+    try {
+      if (connection.isClosed()) {
+        return false;
+      }
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+      return true;
+    } catch (SQLException e) {
+      logger.debug("Discarding pooled connection that failed to reset", e);
+      return false;
+    }
+  }
+
+  void closePhysical() {
+    statements.values().forEach(PooledConnection::closeStatement);
+    statements.clear();
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      logger.debug("Failed to close pooled connection", e);
+    }
+  }
+
+  private static void closeStatement(PreparedStatement stmt) {
+    try {
+      stmt.close();
+    } catch (SQLException e) {
+      logger.debug("Failed to close cached statement", e);
+    }
+  }
+}
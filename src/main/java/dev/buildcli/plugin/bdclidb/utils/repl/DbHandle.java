@@ -0,0 +1,86 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import dev.buildcli.plugin.bdclidb.utils.data.ColumnarResult;
+import dev.buildcli.plugin.bdclidb.utils.pool.ConnectionPool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live query handle bound in the REPL as {@code db} and {@code dbs['name']}. Every call borrows a
+ * warm connection from the connection's pool, so ad-hoc queries don't pay for a new handshake, and
+ * repeated statements reuse the prepared statements cached on that connection.
+ */
+public class DbHandle {
+  private final ConnectionPool pool;
+
+  public DbHandle(ConnectionPool pool) {
+    this.pool = pool;
+  }
+
+  public String getName() {
+    return pool.getConnection().name();
+  }
+
+  /**
+   * Runs a query and returns all of its rows, e.g. {@code db.query('select * from users where id = ?', 42)}.
+   */
+  public ColumnarResult query(String sql, Object... params) {
+    try (var pooled = pool.borrow()) {
+      var stmt = pooled.prepare(sql);
+      bind(stmt, params);
+      try (var tracked = Cancellation.track(stmt); var rs = stmt.executeQuery()) {
+        return ColumnarResult.from(rs);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Runs an insert, update, delete or DDL statement and returns the update count.
+   */
+  public int execute(String sql, Object... params) {
+    try (var pooled = pool.borrow()) {
+      var stmt = pooled.prepare(sql);
+      bind(stmt, params);
+      try (var tracked = Cancellation.track(stmt)) {
+        return stmt.executeUpdate();
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public List<String> getTables() {
+    try (var pooled = pool.borrow(); var rs = pooled.connection().getMetaData().getTables(null, null, "%", new String[]{"TABLE", "VIEW"})) {
+      var tables = new ArrayList<String>();
+      while (rs.next()) {
+        var schema = rs.getString("TABLE_SCHEM");
+        var table = rs.getString("TABLE_NAME");
+        tables.add(schema == null ? table : schema + "." + table);
+      }
+      return tables;
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public ConnectionPool getPool() {
+    return pool;
+  }
+
+  @Override
+  public String toString() {
+    return "DbHandle[" + getName() + "]";
+  }
+
+  private static void bind(PreparedStatement stmt, Object[] params) throws SQLException {
+    for (var i = 0; i < params.length; i++) {
+      stmt.setObject(i + 1, params[i]);
+    }
+  }
+}
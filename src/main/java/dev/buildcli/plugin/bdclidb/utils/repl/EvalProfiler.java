@@ -0,0 +1,152 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Measures REPL evaluations: {@link #time} splits an evaluation into compilation and execution and
+ * reports the bytes it allocated and the collections that ran meanwhile, {@link #profile} samples
+ * the stack of the evaluating thread and ranks the hottest frames.
+ */
+public final class EvalProfiler {
+  private EvalProfiler() {
+  }
+
+  public record Timing(Object result, long compileNanos, long runNanos, long allocatedBytes, long gcCount, long gcMillis) {
+    public String summary() {
+      var allocated = allocatedBytes < 0 ? "n/a" : formatBytes(allocatedBytes);
+      return "compile %.1f ms, run %.1f ms, allocated %s, %d GC (%d ms)".formatted(
+          compileNanos / 1e6, runNanos / 1e6, allocated, gcCount, gcMillis);
+    }
+  }
+
+  public record HotFrame(String frame, int self, int total) {
+  }
+
+  public record Profile(Object result, Throwable error, int samples, Duration elapsed, List<HotFrame> bySelf, List<HotFrame> byTotal) {
+  }
+
+  /**
+   * Runs {@code evaluation} on the current thread. Allocations are those of the current thread
+   * only, work handed to other threads (e.g. parallel loads) is not included. The JVM does not
+   * count allocations of virtual threads, on those they are reported as n/a.
+   */
+  public static Timing time(ScriptCache cache, Supplier<Object> evaluation) {
+    var threads = ManagementFactory.getThreadMXBean();
+    var allocations = threads instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()
+        && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+
+    var gcCount = gcCount();
+    var gcMillis = gcMillis();
+    // -1 when the current thread is virtual
+    var allocated = allocations == null ? -1 : allocations.getCurrentThreadAllocatedBytes();
+    var compile = cache.compileNanos();
+    var start = System.nanoTime();
+
+    var result = evaluation.get();
+
+    var elapsed = System.nanoTime() - start;
+    var compileNanos = cache.compileNanos() - compile;
+    var allocatedBytes = allocated < 0 ? -1 : allocations.getCurrentThreadAllocatedBytes() - allocated;
+    return new Timing(result, compileNanos, elapsed - compileNanos, allocatedBytes, gcCount() - gcCount, gcMillis() - gcMillis);
+  }
+
+  /**
+   * Runs {@code evaluation} on a new thread and samples its stack every {@code interval} until it
+   * completes. Frames are ranked by self samples (top of the stack) and by total samples (anywhere
+   * on the stack); frames found in every sample, like the thread entry point, are left out of the
+   * total ranking. The evaluation runs in the cancellation scope of the calling thread, and
+   * interrupting the caller interrupts the evaluation.
+   */
+  public static Profile profile(Callable<Object> evaluation, Duration interval, int top) {
+    var outcome = new Object[1];
+    var failure = new Throwable[1];
+    var scope = Cancellation.current();
+    var worker = Thread.ofPlatform().name("repl-profile").unstarted(() -> Cancellation.run(scope, () -> {
+      try {
+        outcome[0] = evaluation.call();
+      } catch (Throwable t) {
+        failure[0] = t;
+      }
+    }));
+
+    var self = new HashMap<String, Integer>();
+    var total = new HashMap<String, Integer>();
+    var samples = 0;
+    var start = System.nanoTime();
+    worker.start();
+    try {
+      while (worker.isAlive()) {
+        var stack = worker.getStackTrace();
+        if (stack.length > 0) {
+          samples++;
+          self.merge(frame(stack[0]), 1, Integer::sum);
+          var seen = new HashSet<String>();
+          for (var element : stack) {
+            var frame = frame(element);
+            if (seen.add(frame)) {
+              total.merge(frame, 1, Integer::sum);
+            }
+          }
+        }
+        worker.join(interval);
+      }
+    } catch (InterruptedException e) {
+      worker.interrupt();
+      Thread.currentThread().interrupt();
+    }
+
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    return new Profile(outcome[0], failure[0], samples, elapsed, rank(self, total, top, true, samples), rank(self, total, top, false, samples));
+  }
+
+  private static List<HotFrame> rank(Map<String, Integer> self, Map<String, Integer> total, int top, boolean bySelf, int samples) {
+    var counts = bySelf ? self : total;
+    return counts.entrySet().stream()
+        .filter(e -> bySelf || e.getValue() < samples)
+        .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+        .limit(top)
+        .map(e -> new HotFrame(e.getKey(), self.getOrDefault(e.getKey(), 0), total.getOrDefault(e.getKey(), 0)))
+        .toList();
+  }
+
+  private static String frame(StackTraceElement element) {
+    var location = element.getFileName() == null ? "Unknown Source" :
+        element.getLineNumber() < 0 ? element.getFileName() : element.getFileName() + ":" + element.getLineNumber();
+    return element.getClassName() + "." + element.getMethodName() + "(" + location + ")";
+  }
+
+  private static long gcCount() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+  }
+
+  private static long gcMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+  }
+
+  static String formatBytes(long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    }
+    var units = "KMGT";
+    var value = (double) bytes;
+    var unit = -1;
+    while (value >= 1024 && unit < units.length() - 1) {
+      value /= 1024;
+      unit++;
+    }
+    return "%.1f %sB".formatted(value, units.charAt(unit));
+  }
+}
@@ -0,0 +1,46 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.data.LazyObject;
+import groovy.lang.Closure;
+
+import java.util.Map;
+
+/**
+ * Bound in the REPL as {@code from}. Returns a query builder over any configured object, eager ones
+ * included, so it can be filtered by the database instead of in memory:
+ * {@code from('orders').where(status: 'OPEN').limit(100)}. Parameterized objects take their
+ * arguments as named arguments, e.g. {@code from('orders', customerId: 42)}.
+ */
+public class FromFunction extends Closure<Object> {
+  private final Map<String, DbObject> objects;
+  private final Map<String, DbConnection> connections;
+
+  public FromFunction(Map<String, DbObject> objects, Map<String, DbConnection> connections) {
+    super(null);
+    this.objects = objects;
+    this.connections = connections;
+  }
+
+  public LazyObject doCall(String name) {
+    return doCall(Map.of(), name);
+  }
+
+  public LazyObject doCall(Map<String, Object> arguments, String name) {
+    var object = objects.get(name);
+    if (object == null || object.sql() == null || !object.sql().strip().toLowerCase().startsWith("select")) {
+      throw new IllegalArgumentException("Object %s is not configured as a select query".formatted(name));
+    }
+    var connection = connections.get(object.connection());
+    if (connection == null) {
+      throw new IllegalArgumentException("Connection %s of object %s is not configured".formatted(object.connection(), name));
+    }
+    for (var argument : arguments.keySet()) {
+      if (object.params().stream().noneMatch(p -> p.name().equals(argument))) {
+        throw new IllegalArgumentException("Unknown parameter '%s' for object %s".formatted(argument, name));
+      }
+    }
+    return new LazyObject(object, connection, arguments);
+  }
+}
@@ -0,0 +1,48 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.utils.data.OffHeapStore;
+import groovy.lang.Binding;
+
+/**
+ * Binding that releases off-heap results as soon as no variable refers to them any more, e.g.
+ * after {@code users = null} or when a variable is reassigned. Access is synchronized, background
+ * jobs assign variables while the prompt evaluates other lines.
+ */
+class ReleasingBinding extends Binding {
+  @Override
+  public synchronized Object getVariable(String name) {
+    return super.getVariable(name);
+  }
+
+  @Override
+  public synchronized boolean hasVariable(String name) {
+    return super.hasVariable(name);
+  }
+
+  @Override
+  public synchronized void setVariable(String name, Object value) {
+    var previous = hasVariable(name) ? getVariable(name) : null;
+    super.setVariable(name, value);
+    releaseIfUnbound(previous, value);
+  }
+
+  @Override
+  public synchronized void removeVariable(String name) {
+    var previous = hasVariable(name) ? getVariable(name) : null;
+    super.removeVariable(name);
+    releaseIfUnbound(previous, null);
+  }
+
+  private void releaseIfUnbound(Object previous, Object value) {
+    if (previous == null || previous == value || !OffHeapStore.isOffHeap(previous)) {
+      return;
+    }
+    // Compare by identity, list equality would walk every row
+    for (var bound : getVariables().values()) {
+      if (bound == previous) {
+        return;
+      }
+    }
+    OffHeapStore.release(previous);
+  }
+}
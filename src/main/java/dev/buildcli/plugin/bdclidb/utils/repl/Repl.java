@@ -1,9 +1,14 @@
 package dev.buildcli.plugin.bdclidb.utils.repl;
 
+import dev.buildcli.plugin.bdclidb.utils.data.Aggregate;
+import dev.buildcli.plugin.bdclidb.utils.data.ObjectRefresher;
 import groovy.lang.Binding;
 import groovy.lang.GroovyShell;
 import groovy.lang.Script;
+import groovy.transform.ThreadInterrupt;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.control.customizers.ImportCustomizer;
 import org.jline.reader.Completer;
 import org.jline.reader.EndOfFileException;
 import org.jline.reader.LineReader;
@@ -19,19 +24,38 @@ import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Repl {
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+  private static final Duration CANCEL_GRACE = Duration.ofSeconds(2);
+
   private final Terminal terminal;
   private final LineReader reader;
+  private final Completer completer;
   private final GroovyShell groovyShell;
   private final Binding binding;
-  private final Map<String, Script> scriptFunctions = new HashMap<>();
+  private final ScriptCache scriptCache;
+  private final SqlFunction sql;
+  // Functions can be defined by background jobs while the prompt lists them
+  private final Map<String, Script> scriptFunctions = Collections.synchronizedMap(new HashMap<>());
+  private final NavigableMap<Integer, ReplJob> jobs = new ConcurrentSkipListMap<>();
+  private final AtomicInteger jobIds = new AtomicInteger();
+  private volatile ReplJob foreground;
   private boolean debugMode = false;
+  private boolean timingEnabled = false;
+  private int rowLimit = TableRenderer.DEFAULT_LIMIT;
+  private ObjectRefresher refresher;
 
   public Repl() {
     try {
@@ -42,8 +66,8 @@ public class Repl {
           .build();
 
       // Completer configuration with basic commands and dynamic suggestions
-      List<String> baseCommands = List.of(":help", ":functions", ":vars", ":inspect", ":tables", ":clear", ":debug", "exit", "quit");
-      Completer completer = new AggregateCompleter(
+      List<String> baseCommands = List.of(":help", ":functions", ":vars", ":inspect", ":tables", ":refresh", ":cache", ":time", ":profile", ":bg", ":jobs", ":fg", ":limit", ":clear", ":debug", "exit", "quit");
+      completer = new AggregateCompleter(
           new StringsCompleter(baseCommands),
           new StringsCompleter(scriptFunctions.keySet()),
           new StringsCompleter(bindingVariablesPlaceholder())
@@ -60,13 +84,20 @@ public class Repl {
 
       // GroovyShell configuration with binding
       CompilerConfiguration config = new CompilerConfiguration();
-      binding = new Binding();
+      // Aggregates of the parallel query DSL: users.par().groupBy('country').agg(count(), avg('age'))
+      config.addCompilationCustomizers(new ImportCustomizer().addStaticStars(Aggregate.class.getName()));
+      // Loops and closures check for interrupts, so cancelling an evaluation stops runaway scripts
+      config.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class));
+      binding = new ReleasingBinding();
       groovyShell = new GroovyShell(getClass().getClassLoader(), binding, config);
+      scriptCache = new ScriptCache(getClass().getClassLoader(), config);
 
       // Add internal variables to the binding
       binding.setVariable("terminal", terminal);
       binding.setVariable("reader", reader);
       binding.setVariable("repl", this);
+      sql = new SqlFunction(binding);
+      binding.setVariable("sql", sql);
 
       // Pre-register a greeting function
       registerScript("saudacao", "println 'Olá! Seja bem-vindo ao DB REPL'");
@@ -111,7 +142,7 @@ public class Repl {
       }
 
       // Compile and evaluate the script to define the function
-      Script script = groovyShell.parse(funcScript);
+      Script script = scriptCache.create(funcScript, binding);
       script.run();
       scriptFunctions.put(name, script);
 
@@ -143,31 +174,7 @@ public class Repl {
    */
   public Object evaluateGroovy(final String expression) {
     try {
-      String trimmedExpression = expression.trim();
-
-      // Case 1: Declaration with "def"
-      if (trimmedExpression.startsWith("def ")) {
-        // If it's a function definition, handle it specifically
-        if (trimmedExpression.contains("(") && trimmedExpression.contains(")")) {
-          handleFunctionDefinition(trimmedExpression);
-          return null;
-        }
-        return handleVariableDeclaration(trimmedExpression);
-      }
-      // Case 2: Declaration with "var"
-      else if (trimmedExpression.startsWith("var ")) {
-        return handleVariableDeclaration(trimmedExpression);
-      }
-      // Case 3: Python-style assignment
-      else if (isPythonStyleAssignment(trimmedExpression)) {
-        String varName = trimmedExpression.substring(0, trimmedExpression.indexOf('=')).trim();
-        Object result = groovyShell.evaluate(trimmedExpression);
-        binding.setVariable(varName, groovyShell.evaluate(varName));
-        return result;
-      }
-
-      // Regular evaluation for other cases
-      return groovyShell.evaluate(trimmedExpression);
+      return evaluateStatement(expression);
     } catch (Exception e) {
       printError("Error evaluating expression: " + e.getMessage());
       if (debugMode) {
@@ -177,6 +184,30 @@ public class Repl {
     }
   }
 
+  /**
+   * Evaluates a Groovy expression like {@link #evaluateGroovy(String)}, but lets failures through.
+   */
+  private Object evaluateStatement(final String expression) {
+    String trimmedExpression = expression.trim();
+
+    // Case 1: Declaration with "def"
+    if (trimmedExpression.startsWith("def ")) {
+      // If it's a function definition, handle it specifically
+      if (trimmedExpression.contains("(") && trimmedExpression.contains(")")) {
+        handleFunctionDefinition(trimmedExpression);
+        return null;
+      }
+      return handleVariableDeclaration(trimmedExpression);
+    }
+    // Case 2: Declaration with "var"
+    else if (trimmedExpression.startsWith("var ")) {
+      return handleVariableDeclaration(trimmedExpression);
+    }
+
+    // Regular evaluation for other cases, plain assignments like x = 1 land in the binding on their own
+    return evaluate(trimmedExpression);
+  }
+
   /**
    * Handles function definition.
    */
@@ -186,16 +217,16 @@ public class Repl {
       String funcName = expression.substring(4, expression.indexOf('(')).trim();
 
       // Evaluate the expression to define the function
-      groovyShell.evaluate(expression);
+      evaluate(expression);
 
       // Create a wrapper method to call the function via the binding
       String wrapperCode = "def " + funcName + "Wrapper = { args -> " +
           "    return " + funcName + "(*args)" +
           "}";
-      groovyShell.evaluate(wrapperCode);
+      evaluate(wrapperCode);
 
       // Retrieve the wrapper and add it to the binding
-      Object wrapper = groovyShell.evaluate(funcName + "Wrapper");
+      Object wrapper = evaluate(funcName + "Wrapper");
       binding.setVariable(funcName, wrapper);
 
       printSuccess("Function defined: " + funcName);
@@ -223,34 +254,22 @@ public class Repl {
       String valueExpr = matcher.group(3);    // Expressão para o valor
 
       // Avalia a expressão do valor
-      Object value = groovyShell.evaluate(valueExpr);
+      Object value = evaluate(valueExpr);
       // Armazena a variável no binding global
       binding.setVariable(varName, value);
       printSuccess("Variable set: " + varName);
       return value;
     }
     // Caso não corresponda ao padrão, tenta avaliar normalmente
-    return groovyShell.evaluate(expression);
+    return evaluate(expression);
   }
 
   /**
-   * Checks if the expression is a Python-style assignment.
+   * Evaluates Groovy source against the REPL binding through the compiled-script cache, without
+   * the declaration handling of {@link #evaluateGroovy(String)}.
    */
-  private boolean isPythonStyleAssignment(String expression) {
-    if (!expression.contains("=")) return false;
-    int equalsPos = expression.indexOf('=');
-    if (equalsPos > 0 &&
-        (expression.charAt(equalsPos - 1) == '=' ||
-            expression.charAt(equalsPos - 1) == '>' ||
-            expression.charAt(equalsPos - 1) == '<' ||
-            expression.charAt(equalsPos - 1) == '!')) {
-      return false;
-    }
-    if (equalsPos < expression.length() - 1 && expression.charAt(equalsPos + 1) == '=') {
-      return false;
-    }
-    String varName = expression.substring(0, equalsPos).trim();
-    return !varName.isEmpty() && Character.isJavaIdentifierStart(varName.charAt(0));
+  public Object evaluate(final String source) {
+    return scriptCache.create(source, binding).run();
   }
 
   /**
@@ -287,6 +306,54 @@ public class Repl {
     terminal.writer().flush();
   }
 
+  /**
+   * Prints an evaluation result. Loaded objects and lists of rows are printed as a table of at
+   * most {@link #getRowLimit()} rows, paged to the terminal height when the terminal is interactive.
+   */
+  public void printResult(Object result) {
+    if (TableRenderer.isTabular(result)) {
+      var interactive = !Terminal.TYPE_DUMB.equals(terminal.getType()) && !Terminal.TYPE_DUMB_COLOR.equals(terminal.getType())
+          && terminal.getHeight() > 0;
+      // Header, separator and the pager prompt share the screen with the rows
+      var pageSize = interactive ? Math.max(1, terminal.getHeight() - 3) : 0;
+      TableRenderer.render(result, terminal.writer(), rowLimit, pageSize, this::more);
+    } else {
+      terminal.writer().println(result);
+      terminal.writer().flush();
+    }
+  }
+
+  /**
+   * Pager prompt between pages of a table: space or enter shows the next page, q stops.
+   */
+  private boolean more(int shown, int total) {
+    var writer = terminal.writer();
+    writer.print(new AttributedStringBuilder()
+        .style(AttributedStyle.DEFAULT.inverse())
+        .append("-- %,d of %,d rows, space for more, q to stop --".formatted(shown, total))
+        .toAnsi());
+    writer.flush();
+    var attributes = terminal.enterRawMode();
+    try {
+      while (true) {
+        var key = terminal.reader().read();
+        if (key == ' ' || key == '\r' || key == '\n') {
+          return true;
+        }
+        // Ctrl-C arrives as a key in raw mode
+        if (key < 0 || key == 'q' || key == 'Q' || key == 3) {
+          return false;
+        }
+      }
+    } catch (IOException e) {
+      return false;
+    } finally {
+      terminal.setAttributes(attributes);
+      writer.print("\r\033[K");
+      writer.flush();
+    }
+  }
+
   /**
    * Reads multiline input if the code block is incomplete.
    */
@@ -322,6 +389,22 @@ public class Repl {
     printSuccess("DB REPL started. Type 'exit' to quit.");
     printSuccess("Type ':help' for available commands.");
 
+    // Outside of readLine Ctrl-C cancels the evaluation in the foreground
+    terminal.handle(Terminal.Signal.INT, signal -> {
+      var job = foreground;
+      if (job != null) {
+        job.cancel();
+      }
+    });
+
+    try {
+      loop();
+    } finally {
+      jobs.values().forEach(ReplJob::cancel);
+    }
+  }
+
+  private void loop() {
     while (true) {
       try {
         String line = reader.readLine("db > ");
@@ -346,11 +429,7 @@ public class Repl {
           if (!isCodeComplete(line)) {
             line = readMultiline(line);
           }
-          Object result = evaluateGroovy(line);
-          if (result != null) {
-            terminal.writer().println(result);
-            terminal.writer().flush();
-          }
+          foreground(startJob(line));
         }
       } catch (UserInterruptException e) {
         printError("Interrupted");
@@ -366,6 +445,99 @@ public class Repl {
     }
   }
 
+  /**
+   * Starts evaluating {@code expression} in a new job, timed when timing is enabled.
+   */
+  public ReplJob startJob(String expression) {
+    return startJob(expression, timingEnabled);
+  }
+
+  /**
+   * Starts evaluating {@code expression} in a new job. Untimed jobs run on a virtual thread, timed
+   * ones on a platform thread so their allocations can be measured.
+   */
+  public ReplJob startJob(String expression, boolean timed) {
+    if (timed) {
+      return ReplJob.startOnPlatformThread(expression, () -> EvalProfiler.time(scriptCache, () -> evaluateStatement(expression)));
+    }
+    return ReplJob.start(expression, () -> evaluateStatement(expression));
+  }
+
+  /**
+   * Runs a special command in the foreground like an evaluation, so Ctrl-C cancels it and the
+   * statements it executes.
+   */
+  private void runCommand(String command, Runnable action) {
+    foreground(ReplJob.start(command, () -> {
+      action.run();
+      return null;
+    }));
+  }
+
+  /**
+   * Waits for {@code job} and prints its outcome; Ctrl-C cancels it meanwhile. A job that keeps
+   * running after being cancelled, e.g. in a driver that ignores the cancel, is moved to the
+   * background so the prompt comes back.
+   */
+  public void foreground(ReplJob job) {
+    foreground = job;
+    try {
+      while (!job.join(POLL_INTERVAL)) {
+        if (job.getCancelledFor().compareTo(CANCEL_GRACE) > 0) {
+          printError("[%d] does not respond to cancellation, it keeps running in the background".formatted(background(job)));
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      job.cancel();
+      Thread.currentThread().interrupt();
+      return;
+    } finally {
+      foreground = null;
+    }
+
+    try {
+      var result = job.getResult();
+      var timing = result instanceof EvalProfiler.Timing t ? t : null;
+      if (timing != null) {
+        result = timing.result();
+      }
+      if (result != null) {
+        printResult(result);
+      }
+      if (timing != null) {
+        println(timing.summary());
+      }
+    } catch (CancellationException e) {
+      printError("Cancelled");
+    } catch (RuntimeException e) {
+      printError("Error evaluating expression: " + e.getMessage());
+      if (debugMode) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Lists {@code job} under {@code :jobs} and returns its id. Its completion is announced above the
+   * prompt unless it is in the foreground by then.
+   */
+  public int background(ReplJob job) {
+    for (var entry : jobs.entrySet()) {
+      if (entry.getValue() == job) {
+        return entry.getKey();
+      }
+    }
+    var id = jobIds.incrementAndGet();
+    jobs.put(id, job);
+    job.whenDone(done -> {
+      if (foreground != done) {
+        reader.printAbove("[%d] %s".formatted(id, done));
+      }
+    });
+    return id;
+  }
+
   /**
    * Handles special commands (starting with ':').
    */
@@ -386,13 +558,53 @@ public class Repl {
         break;
       case "inspect":
         if (!args.isEmpty()) {
-          ReplFunctions.inspectObject(this, args);
+          runCommand(command, () -> ReplFunctions.inspectObject(this, args));
         } else {
           printError("Usage: :inspect <variable-name>");
         }
         break;
       case "tables":
-        ReplFunctions.listTables(this);
+        runCommand(command, () -> ReplFunctions.listTables(this));
+        break;
+      case "refresh":
+        if (!args.isEmpty()) {
+          runCommand(command, () -> ReplFunctions.refreshObject(this, args.trim()));
+        } else {
+          printError("Usage: :refresh <object-name>");
+        }
+        break;
+      case "time":
+        if (!args.isEmpty()) {
+          ReplFunctions.timeExpression(this, args);
+        } else {
+          ReplFunctions.toggleTiming(this);
+        }
+        break;
+      case "profile":
+        if (!args.isEmpty()) {
+          runCommand(command, () -> ReplFunctions.profileExpression(this, args));
+        } else {
+          printError("Usage: :profile <expression>");
+        }
+        break;
+      case "cache":
+        ReplFunctions.scriptCache(this, args.trim());
+        break;
+      case "bg":
+        if (!args.isEmpty()) {
+          ReplFunctions.backgroundJob(this, args);
+        } else {
+          printError("Usage: :bg <expression>");
+        }
+        break;
+      case "jobs":
+        ReplFunctions.listJobs(this);
+        break;
+      case "fg":
+        ReplFunctions.foregroundJob(this, args.trim());
+        break;
+      case "limit":
+        ReplFunctions.rowLimit(this, args.trim());
         break;
       case "clear":
         ReplFunctions.clearScreen(this);
@@ -421,6 +633,21 @@ public class Repl {
     return groovyShell;
   }
 
+  /**
+   * Returns the compiled-script cache.
+   */
+  public ScriptCache getScriptCache() {
+    return scriptCache;
+  }
+
+  public SqlFunction getSql() {
+    return sql;
+  }
+
+  public Completer getCompleter() {
+    return completer;
+  }
+
   /**
    * Returns the Terminal.
    */
@@ -442,6 +669,55 @@ public class Repl {
     this.debugMode = debugMode;
   }
 
+  /**
+   * Returns the refresher used by {@code :refresh}, or null when objects cannot be refreshed.
+   */
+  public ObjectRefresher getRefresher() {
+    return refresher;
+  }
+
+  /**
+   * Sets the refresher used by {@code :refresh}.
+   */
+  public void setRefresher(ObjectRefresher refresher) {
+    this.refresher = refresher;
+  }
+
+  /**
+   * Checks if every evaluation is timed.
+   */
+  public boolean isTimingEnabled() {
+    return timingEnabled;
+  }
+
+  /**
+   * Sets whether every evaluation is timed.
+   */
+  public void setTimingEnabled(boolean timingEnabled) {
+    this.timingEnabled = timingEnabled;
+  }
+
+  /**
+   * Returns how many rows of a table result are printed, 0 for all of them.
+   */
+  public int getRowLimit() {
+    return rowLimit;
+  }
+
+  /**
+   * Sets how many rows of a table result are printed, 0 for all of them.
+   */
+  public void setRowLimit(int rowLimit) {
+    this.rowLimit = rowLimit;
+  }
+
+  /**
+   * Returns the background jobs by id, finished ones stay until {@code :fg} collects them.
+   */
+  public NavigableMap<Integer, ReplJob> getJobs() {
+    return jobs;
+  }
+
   /**
    * Returns the registered script functions.
    */
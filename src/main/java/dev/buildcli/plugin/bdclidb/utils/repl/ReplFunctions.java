@@ -1,7 +1,10 @@
 package dev.buildcli.plugin.bdclidb.utils.repl;
 
+import dev.buildcli.plugin.bdclidb.utils.data.ResultTable;
 import org.jline.terminal.Terminal;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,6 +31,14 @@ public class ReplFunctions {
     terminal.writer().println("  :vars           - List defined variables");
     terminal.writer().println("  :inspect <name> - Inspect a variable or database object");
     terminal.writer().println("  :tables         - List available database tables");
+    terminal.writer().println("  :refresh <name> - Fetch new and changed rows of an object");
+    terminal.writer().println("  :time [expr]    - Time an expression, or toggle timing of every line");
+    terminal.writer().println("  :profile <expr> - Sample an expression and show its hottest frames");
+    terminal.writer().println("  :bg <expr>      - Evaluate an expression in the background");
+    terminal.writer().println("  :jobs           - List background jobs");
+    terminal.writer().println("  :fg [id]        - Wait for a background job and show its result");
+    terminal.writer().println("  :limit [n|off]  - Show or set how many rows of a result are printed");
+    terminal.writer().println("  :cache [clear]  - Show or clear the compiled-script cache");
     terminal.writer().println("  :clear          - Clear the screen");
     terminal.writer().println("  :debug          - Toggle debug mode");
     terminal.writer().println("  exit/quit       - Exit the REPL");
@@ -37,8 +48,13 @@ public class ReplFunctions {
     terminal.writer().println("  var y = 20");
     terminal.writer().println("  x = 30  (Python-style assignment)");
     terminal.writer().println("  def myFunction() { println 'Hello' }");
+    terminal.writer().println("  db.query('select * from users where id = ?', 42)");
+    terminal.writer().println("  dbs['reporting'].execute('delete from tmp_import')");
+    terminal.writer().println("  from('orders').where(status: 'OPEN').select('id', 'total').orderBy('id').limit(100).load()");
+    terminal.writer().println("  sql('select u.name, count(*) from users u join orders o on o.user_id = u.id group by u.name')");
+    terminal.writer().println("  :bg orders = loadOrders()");
     terminal.writer().println("");
-    terminal.writer().println("Any other input will be evaluated as Groovy code.");
+    terminal.writer().println("Any other input will be evaluated as Groovy code. Ctrl-C cancels a running evaluation.");
     terminal.writer().flush();
   }
 
@@ -92,7 +108,7 @@ public class ReplFunctions {
       if (obj == null) {
         terminal.writer().println("Variable '" + variableName + "' is null");
       } else {
-        String inspect = repl.getGroovyShell().evaluate(variableName + ".inspect()").toString();
+        String inspect = repl.evaluate(variableName + ".inspect()").toString();
         terminal.writer().println(inspect);
       }
     } catch (Exception e) {
@@ -107,7 +123,7 @@ public class ReplFunctions {
   public static void listTables(Repl repl) {
     Terminal terminal = repl.getTerminal();
     try {
-      Object result = repl.getGroovyShell().evaluate("if (binding.hasVariable('db')) { db.getTables() } else { 'No database connection available' }");
+      Object result = repl.evaluate("if (binding.hasVariable('db')) { db.getTables() } else { 'No database connection available' }");
       terminal.writer().println(result);
     } catch (Exception e) {
       terminal.writer().println("Error listing tables: " + e.getMessage());
@@ -115,6 +131,186 @@ public class ReplFunctions {
     terminal.writer().flush();
   }
 
+  /**
+   * Refreshes a loaded object and rebinds its variable to the refreshed rows.
+   *
+   * @param name The name of the object.
+   */
+  public static void refreshObject(Repl repl, String name) {
+    Terminal terminal = repl.getTerminal();
+    var refresher = repl.getRefresher();
+    if (refresher == null || !refresher.isRefreshable(name)) {
+      terminal.writer().println("Object '" + name + "' cannot be refreshed, only eager objects can");
+      terminal.writer().flush();
+      return;
+    }
+
+    var binding = repl.getBinding();
+    var current = binding.hasVariable(name) && binding.getVariable(name) instanceof ResultTable rows ? rows : null;
+    var refresh = refresher.refresh(name, current);
+    binding.setVariable(name, refresh.rows());
+    if (repl.getSql().tables().contains(name)) {
+      repl.getSql().reload(name);
+    }
+    if (refresh.incremental()) {
+      terminal.writer().printf("Refreshed %s: %d rows fetched, %d updated, %d inserted, %d total in %d ms%n", name,
+          refresh.fetched(), refresh.updated(), refresh.inserted(), refresh.rows().size(), refresh.elapsed().toMillis());
+    } else {
+      terminal.writer().printf("Reloaded %s: %d rows in %d ms%n", name, refresh.rows().size(), refresh.elapsed().toMillis());
+    }
+    if (refresh.truncation() != null && refresh.incremental()) {
+      terminal.writer().printf("Truncated by %s, refresh %s again for the remaining rows%n", refresh.truncation(), name);
+    } else if (refresh.truncation() != null) {
+      terminal.writer().printf("Truncated by %s%n", refresh.truncation());
+    }
+    terminal.writer().flush();
+  }
+
+  /**
+   * Shows the hit rate of the compiled-script cache, or clears it.
+   *
+   * @param args "clear" to drop every cached script class.
+   */
+  public static void scriptCache(Repl repl, String args) {
+    Terminal terminal = repl.getTerminal();
+    var cache = repl.getScriptCache();
+    if ("clear".equalsIgnoreCase(args)) {
+      cache.clear();
+      terminal.writer().println("Script cache cleared");
+    } else {
+      var stats = cache.stats();
+      var classLoading = ManagementFactory.getClassLoadingMXBean();
+      terminal.writer().printf("Script cache: %d/%d classes, %d hits, %d misses (%.1f%% hit rate), %d evicted%n",
+          stats.size(), stats.capacity(), stats.hits(), stats.misses(), stats.hitRate() * 100, stats.evictions());
+      terminal.writer().printf("JVM classes: %d loaded, %d unloaded%n",
+          classLoading.getLoadedClassCount(), classLoading.getUnloadedClassCount());
+    }
+    terminal.writer().flush();
+  }
+
+  /**
+   * Evaluates an expression and reports compile and run time, allocated bytes and collections.
+   *
+   * @param expression The expression to time.
+   */
+  public static void timeExpression(Repl repl, String expression) {
+    repl.foreground(repl.startJob(expression, true));
+  }
+
+  /**
+   * Evaluates an expression while sampling its stack and prints the hottest frames.
+   *
+   * @param expression The expression to profile.
+   */
+  public static void profileExpression(Repl repl, String expression) {
+    Terminal terminal = repl.getTerminal();
+    var profile = EvalProfiler.profile(() -> repl.evaluate(expression), Duration.ofMillis(5), 15);
+    if (profile.error() != null) {
+      terminal.writer().println("Error: " + profile.error().getMessage());
+    } else if (profile.result() != null) {
+      repl.printResult(profile.result());
+    }
+
+    terminal.writer().printf("%d samples over %d ms%n", profile.samples(), profile.elapsed().toMillis());
+    if (profile.samples() > 0) {
+      terminal.writer().println("Hottest frames (self):");
+      for (var frame : profile.bySelf()) {
+        terminal.writer().printf("  %5.1f%%  %s%n", 100.0 * frame.self() / profile.samples(), frame.frame());
+      }
+      terminal.writer().println("Hottest frames (total):");
+      for (var frame : profile.byTotal()) {
+        terminal.writer().printf("  %5.1f%%  %s%n", 100.0 * frame.total() / profile.samples(), frame.frame());
+      }
+    }
+    terminal.writer().flush();
+  }
+
+  /**
+   * Starts evaluating an expression in the background and prints the id of its job.
+   *
+   * @param expression The expression to evaluate.
+   */
+  public static void backgroundJob(Repl repl, String expression) {
+    var id = repl.background(repl.startJob(expression));
+    repl.getTerminal().writer().printf("[%d] started%n", id);
+    repl.getTerminal().writer().flush();
+  }
+
+  /**
+   * Lists background jobs with their status and elapsed time.
+   */
+  public static void listJobs(Repl repl) {
+    Terminal terminal = repl.getTerminal();
+    if (repl.getJobs().isEmpty()) {
+      terminal.writer().println("No background jobs");
+    }
+    for (var entry : repl.getJobs().entrySet()) {
+      terminal.writer().printf("[%d] %s%n", entry.getKey(), entry.getValue());
+    }
+    terminal.writer().flush();
+  }
+
+  /**
+   * Brings a background job to the foreground, the most recent one without an id, and prints its
+   * result once it completed.
+   *
+   * @param args The job id, or empty for the most recent job.
+   */
+  public static void foregroundJob(Repl repl, String args) {
+    Terminal terminal = repl.getTerminal();
+    var jobs = repl.getJobs();
+    Integer id;
+    try {
+      id = args.isEmpty() ? (jobs.isEmpty() ? null : jobs.lastKey()) : Integer.valueOf(args.replaceFirst("^%", ""));
+    } catch (NumberFormatException e) {
+      id = null;
+    }
+    var job = id == null ? null : jobs.get(id);
+    if (job == null) {
+      terminal.writer().println(args.isEmpty() ? "No background jobs" : "No such job: " + args);
+      terminal.writer().flush();
+      return;
+    }
+
+    if (!job.isDone()) {
+      terminal.writer().printf("[%d] %s%n", id, job.getExpression());
+      terminal.writer().flush();
+    }
+    repl.foreground(job);
+    if (job.isDone()) {
+      jobs.remove(id);
+    }
+  }
+
+  /**
+   * Shows or sets how many rows of a table result are printed.
+   *
+   * @param args The new limit, {@code off} for no limit, or empty to show the current one.
+   */
+  public static void rowLimit(Repl repl, String args) {
+    Terminal terminal = repl.getTerminal();
+    if (!args.isEmpty()) {
+      try {
+        repl.setRowLimit("off".equalsIgnoreCase(args) ? 0 : Math.max(0, Integer.parseInt(args)));
+      } catch (NumberFormatException e) {
+        terminal.writer().println("Usage: :limit [rows|off]");
+        terminal.writer().flush();
+        return;
+      }
+    }
+    terminal.writer().println(repl.getRowLimit() == 0 ? "Printing all rows" : "Printing up to " + repl.getRowLimit() + " rows");
+    terminal.writer().flush();
+  }
+
+  /**
+   * Toggles timing of every evaluated line.
+   */
+  public static void toggleTiming(Repl repl) {
+    repl.setTimingEnabled(!repl.isTimingEnabled());
+    repl.getTerminal().writer().println("Timing " + (repl.isTimingEnabled() ? "enabled" : "disabled"));
+    repl.getTerminal().writer().flush();
+  }
+
   /**
    * Toggles debug mode.
    */
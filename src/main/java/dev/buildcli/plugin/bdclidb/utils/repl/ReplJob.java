@@ -0,0 +1,158 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * An evaluation running on its own thread, so the REPL stays responsive while it runs.
+ * Cancelling a job cancels the JDBC statements it is executing and interrupts its thread; scripts
+ * are compiled with interrupt checks, so loops and closures stop as well.
+ */
+public final class ReplJob {
+  public enum Status {
+    RUNNING, DONE, FAILED, CANCELLED
+  }
+
+  private final String expression;
+  private final Cancellation.Scope scope = new Cancellation.Scope();
+  private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+  private final long startNanos = System.nanoTime();
+  private volatile long endNanos;
+  private volatile long cancelNanos;
+  private Thread thread;
+
+  private ReplJob(String expression) {
+    this.expression = expression;
+  }
+
+  /**
+   * Starts evaluating {@code expression} with {@code evaluation} on a new virtual thread.
+   */
+  public static ReplJob start(String expression, Callable<Object> evaluation) {
+    return start(expression, Thread.ofVirtual(), evaluation);
+  }
+
+  /**
+   * Starts evaluating {@code expression} on a new daemon platform thread, for evaluations that
+   * read per-thread counters such as allocated bytes, which virtual threads do not have.
+   */
+  public static ReplJob startOnPlatformThread(String expression, Callable<Object> evaluation) {
+    return start(expression, Thread.ofPlatform().daemon(), evaluation);
+  }
+
+  private static ReplJob start(String expression, Thread.Builder builder, Callable<Object> evaluation) {
+    var job = new ReplJob(expression);
+    job.thread = builder.name("repl-eval").unstarted(() -> Cancellation.run(job.scope, () -> job.complete(evaluation)));
+    job.thread.start();
+    return job;
+  }
+
+  private void complete(Callable<Object> evaluation) {
+    Object result = null;
+    Throwable error = null;
+    try {
+      result = evaluation.call();
+    } catch (Throwable t) {
+      error = t;
+    }
+    endNanos = System.nanoTime();
+    if (scope.isCancelled()) {
+      outcome.completeExceptionally(new CancellationException("Evaluation cancelled"));
+    } else if (error != null) {
+      outcome.completeExceptionally(error);
+    } else {
+      outcome.complete(result);
+    }
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public Status getStatus() {
+    if (!outcome.isDone()) {
+      return Status.RUNNING;
+    }
+    if (scope.isCancelled()) {
+      return Status.CANCELLED;
+    }
+    return outcome.isCompletedExceptionally() ? Status.FAILED : Status.DONE;
+  }
+
+  public boolean isDone() {
+    return outcome.isDone();
+  }
+
+  public Duration getElapsed() {
+    return Duration.ofNanos((outcome.isDone() ? endNanos : System.nanoTime()) - startNanos);
+  }
+
+  /**
+   * Time since the job was cancelled, or zero when it was not.
+   */
+  public Duration getCancelledFor() {
+    return scope.isCancelled() ? Duration.ofNanos(System.nanoTime() - cancelNanos) : Duration.ZERO;
+  }
+
+  public void cancel() {
+    if (outcome.isDone() || scope.isCancelled()) {
+      return;
+    }
+    cancelNanos = System.nanoTime();
+    scope.cancel();
+    thread.interrupt();
+  }
+
+  /**
+   * Waits up to {@code timeout} for the job to complete and tells whether it did.
+   */
+  public boolean join(Duration timeout) throws InterruptedException {
+    try {
+      outcome.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      return false;
+    } catch (ExecutionException | CancellationException e) {
+      // Reported by getResult
+    }
+    return true;
+  }
+
+  /**
+   * Result of a completed job. Throws {@link CancellationException} when it was cancelled and the
+   * failure of the evaluation when it failed.
+   */
+  public Object getResult() {
+    if (!outcome.isDone()) {
+      throw new IllegalStateException("Job is still running");
+    }
+    try {
+      return outcome.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof CancellationException cancelled) {
+        throw cancelled;
+      }
+      throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * Runs {@code action} once the job completed, on the thread that completed it.
+   */
+  public void whenDone(Consumer<ReplJob> action) {
+    outcome.whenComplete((result, error) -> action.accept(this));
+  }
+
+  @Override
+  public String toString() {
+    return "%s (%d ms): %s".formatted(getStatus().name().toLowerCase(), getElapsed().toMillis(), expression);
+  }
+}
@@ -0,0 +1,119 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of compiled script classes keyed by source. Evaluating the same snippet
+ * again only instantiates the cached class against the binding instead of parsing and generating
+ * a new class, and evicted classes are dropped from the class loader so they can be unloaded.
+ */
+public class ScriptCache {
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private final ScriptClassLoader loader;
+  private final int capacity;
+  private final Map<String, Class<?>> classes;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long compileNanos;
+
+  public ScriptCache(ClassLoader parent, CompilerConfiguration config) {
+    this(parent, config, DEFAULT_CAPACITY);
+  }
+
+  public ScriptCache(ClassLoader parent, CompilerConfiguration config, int capacity) {
+    this.loader = new ScriptClassLoader(parent, config);
+    this.capacity = capacity;
+    this.classes = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Class<?>> eldest) {
+        if (size() <= ScriptCache.this.capacity) {
+          return false;
+        }
+        loader.forget(eldest.getValue());
+        evictions++;
+        return true;
+      }
+    };
+  }
+
+  public record Stats(long hits, long misses, long evictions, int size, int capacity) {
+    public double hitRate() {
+      var total = hits + misses;
+      return total == 0 ? 0 : (double) hits / total;
+    }
+  }
+
+  /**
+   * Returns a new script instance for {@code source} bound to {@code binding}, compiling the source
+   * only if it is not cached yet.
+   */
+  public synchronized Script create(String source, Binding binding) {
+    var key = normalize(source);
+    var scriptClass = classes.get(key);
+    if (scriptClass == null) {
+      misses++;
+      var name = "ReplScript" + misses + ".groovy";
+      var start = System.nanoTime();
+      try {
+        scriptClass = loader.parseClass(new GroovyCodeSource(source, name, GroovyShell.DEFAULT_CODE_BASE), false);
+      } finally {
+        compileNanos += System.nanoTime() - start;
+      }
+      classes.put(key, scriptClass);
+    } else {
+      hits++;
+    }
+    return InvokerHelper.createScript(scriptClass, binding);
+  }
+
+  public synchronized Stats stats() {
+    return new Stats(hits, misses, evictions, classes.size(), capacity);
+  }
+
+  /**
+   * Total time spent compiling scripts so far.
+   */
+  public synchronized long compileNanos() {
+    return compileNanos;
+  }
+
+  public synchronized void clear() {
+    classes.values().forEach(loader::forget);
+    classes.clear();
+  }
+
+  /**
+   * Cache key of {@code source}. Only whitespace around the whole snippet is dropped: anything
+   * inside it may sit in a multi-line string, where it changes what the snippet does.
+   */
+  static String normalize(String source) {
+    return source.strip();
+  }
+
+  /**
+   * Exposes removal from the class cache, which otherwise keeps every compiled script alive.
+   */
+  private static final class ScriptClassLoader extends GroovyClassLoader {
+    private ScriptClassLoader(ClassLoader parent, CompilerConfiguration config) {
+      super(parent, config);
+    }
+
+    private void forget(Class<?> scriptClass) {
+      // Classes declared by a snippet stay resolvable by later snippets, only script classes are dropped
+      if (Script.class.isAssignableFrom(scriptClass)) {
+        removeClassCacheEntry(scriptClass.getName());
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.utils.data.ColumnarResult;
+import dev.buildcli.plugin.bdclidb.utils.data.LocalDatabase;
+import dev.buildcli.plugin.bdclidb.utils.data.ResultTable;
+import groovy.lang.Binding;
+import groovy.lang.Closure;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bound in the REPL as {@code sql}. Runs SQL over loaded objects in a local in-memory database, so
+ * objects from different connections can be joined: {@code sql('select * from users u join orders o on o.user_id = u.id')}.
+ * Variables referenced by a query are copied into the database on first use and again once they
+ * change, whether rows were added or values set in place.
+ */
+public class SqlFunction extends Closure<Object> {
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+  private final Binding binding;
+  private final LocalDatabase database = new LocalDatabase();
+
+  public SqlFunction(Binding binding) {
+    super(null);
+    this.binding = binding;
+  }
+
+  public ColumnarResult doCall(String query, Object... params) {
+    var identifiers = IDENTIFIER.matcher(query);
+    while (identifiers.find()) {
+      var name = identifiers.group();
+      if (lookup(name) instanceof ResultTable rows && !database.isCurrent(name, rows)) {
+        database.register(name, rows);
+      }
+    }
+    return database.query(query, params);
+  }
+
+  /**
+   * Indexes columns of a loaded object, e.g. {@code sql.index('orders', 'status', 'created_at')}.
+   * Columns compared in join predicates are indexed automatically.
+   */
+  public SqlFunction index(String name, String... columns) {
+    if (lookup(name) instanceof ResultTable rows && !database.isCurrent(name, rows)) {
+      database.register(name, rows);
+    }
+    database.createIndex(name, columns);
+    return this;
+  }
+
+  /**
+   * Copies a loaded object into the database again.
+   */
+  public void reload(String name) {
+    database.drop(name);
+    if (lookup(name) instanceof ResultTable rows) {
+      database.register(name, rows);
+    }
+  }
+
+  public Set<String> tables() {
+    return database.getTables();
+  }
+
+  public void close() {
+    database.close();
+  }
+
+  /**
+   * SQL identifiers are case-insensitive, variable names are not; an exact match wins.
+   */
+  private Object lookup(String name) {
+    if (binding.hasVariable(name)) {
+      return binding.getVariable(name);
+    }
+    for (Object variable : binding.getVariables().keySet()) {
+      if (variable instanceof String candidate && candidate.equalsIgnoreCase(name)) {
+        return binding.getVariable(candidate);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "sql(query, params...) over " + database.getTables();
+  }
+}
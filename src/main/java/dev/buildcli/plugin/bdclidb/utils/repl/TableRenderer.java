@@ -0,0 +1,254 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+import dev.buildcli.plugin.bdclidb.utils.data.ResultTable;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Prints results as text tables without building their text in memory. Column widths come from a
+ * sample of the first rows, rows are written to the terminal in chunks, and printing stops at a
+ * row limit, so a result with millions of rows prints as fast as one with a hundred.
+ */
+public final class TableRenderer {
+  public static final int DEFAULT_LIMIT = 100;
+  static final int SAMPLE_ROWS = 200;
+  static final int MAX_WIDTH = 40;
+  private static final int CHUNK_ROWS = 64;
+
+  private TableRenderer() {
+  }
+
+  /**
+   * Decides whether printing continues after a full page.
+   */
+  @FunctionalInterface
+  public interface Pager {
+    /**
+     * Called after every {@code pageSize} rows; returns false to stop printing.
+     */
+    boolean more(int shown, int total);
+  }
+
+  /**
+   * Loaded objects and lists of maps, e.g. the result of {@code users.findAll { it.active }}.
+   */
+  public static boolean isTabular(Object value) {
+    if (value instanceof ResultTable) {
+      return true;
+    }
+    if (!(value instanceof List<?> list) || !(value instanceof RandomAccess) || list.isEmpty()) {
+      return false;
+    }
+    for (var row = 0; row < Math.min(list.size(), SAMPLE_ROWS); row++) {
+      if (!(list.get(row) instanceof Map)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the first {@code limit} rows of {@code value} (all rows when {@code limit} is 0 or less)
+   * followed by a row count. With a pager, it is asked to continue after every {@code pageSize} rows.
+   */
+  public static void render(Object value, PrintWriter out, int limit, int pageSize, Pager pager) {
+    var rows = rows(value);
+    var total = rows.size();
+    var end = limit > 0 ? Math.min(limit, total) : total;
+    var widths = widths(rows, Math.min(end, SAMPLE_ROWS));
+
+    var chunk = new StringBuilder();
+    header(rows, widths, chunk);
+    var shown = 0;
+    var stopped = false;
+    while (shown < end) {
+      row(rows, shown, widths, chunk);
+      shown++;
+      var pageFull = pager != null && pageSize > 0 && shown % pageSize == 0 && shown < end;
+      if (shown % CHUNK_ROWS == 0 || pageFull) {
+        out.print(chunk);
+        out.flush();
+        chunk.setLength(0);
+      }
+      if (pageFull && !pager.more(shown, total)) {
+        stopped = true;
+        break;
+      }
+    }
+
+    // Results cut short by a load limit say so, the row count alone would look complete
+    var truncated = value instanceof ResultTable table && table.isTruncated() ? ", truncated by " + table.getTruncation() : "";
+    if (shown == total) {
+      chunk.append(total == 1 ? "(1 row%s)".formatted(truncated) : "(%,d rows%s)".formatted(total, truncated));
+    } else if (stopped) {
+      chunk.append("(%,d of %,d rows%s)".formatted(shown, total, truncated));
+    } else {
+      chunk.append("(%,d of %,d rows%s, :limit changes how many are printed)".formatted(shown, total, truncated));
+    }
+    out.println(chunk);
+    out.flush();
+  }
+
+  private static void header(Rows rows, int[] widths, StringBuilder out) {
+    for (var column = 0; column < widths.length; column++) {
+      out.append(column == 0 ? " " : " | ");
+      pad(out, fit(rows.name(column), widths[column]), widths[column], false);
+    }
+    out.append('\n');
+    for (var column = 0; column < widths.length; column++) {
+      out.append(column == 0 ? "-" : "-+-");
+      out.append("-".repeat(widths[column]));
+    }
+    out.append("-\n");
+  }
+
+  private static void row(Rows rows, int row, int[] widths, StringBuilder out) {
+    for (var column = 0; column < widths.length; column++) {
+      out.append(column == 0 ? " " : " | ");
+      pad(out, fit(text(rows.value(row, column)), widths[column]), widths[column], rows.numeric(column));
+    }
+    out.append('\n');
+  }
+
+  private static int[] widths(Rows rows, int sample) {
+    var widths = new int[rows.columns()];
+    for (var column = 0; column < widths.length; column++) {
+      var width = rows.name(column).length();
+      for (var row = 0; row < sample; row++) {
+        width = Math.max(width, text(rows.value(row, column)).length());
+      }
+      widths[column] = Math.max(1, Math.min(width, MAX_WIDTH));
+    }
+    return widths;
+  }
+
+  private static void pad(StringBuilder out, String text, int width, boolean right) {
+    if (right) {
+      out.repeat(' ', width - text.length()).append(text);
+    } else {
+      out.append(text).repeat(' ', width - text.length());
+    }
+  }
+
+  private static String fit(String text, int width) {
+    return text.length() <= width ? text : text.substring(0, width - 1) + "…";
+  }
+
+  private static String text(Object value) {
+    if (value instanceof byte[] bytes) {
+      return "<%d bytes>".formatted(bytes.length);
+    }
+    var text = String.valueOf(value);
+    // One table row per result row, whatever the values contain
+    return text.indexOf('\n') < 0 && text.indexOf('\r') < 0 && text.indexOf('\t') < 0 ? text : text.replaceAll("[\\r\\n\\t]+", " ");
+  }
+
+  private static Rows rows(Object value) {
+    if (value instanceof ResultTable table) {
+      return new TableRows(table);
+    }
+    if (value instanceof List<?> list && isTabular(list)) {
+      return new MapRows(list);
+    }
+    throw new IllegalArgumentException("Not a table: " + value.getClass().getName());
+  }
+
+  private interface Rows {
+    int size();
+
+    int columns();
+
+    String name(int column);
+
+    boolean numeric(int column);
+
+    Object value(int row, int column);
+  }
+
+  private record TableRows(ResultTable table) implements Rows {
+    @Override
+    public int size() {
+      return table.size();
+    }
+
+    @Override
+    public int columns() {
+      return table.schema().size();
+    }
+
+    @Override
+    public String name(int column) {
+      return table.schema().name(column);
+    }
+
+    @Override
+    public boolean numeric(int column) {
+      var type = table.schema().type(column);
+      return type == ColumnType.INT || type == ColumnType.LONG || type == ColumnType.DOUBLE;
+    }
+
+    @Override
+    public Object value(int row, int column) {
+      return table.getValue(row, column);
+    }
+  }
+
+  /**
+   * Rows of a list of maps; the columns are the keys found in the sampled rows.
+   */
+  private static final class MapRows implements Rows {
+    private final List<?> list;
+    private final List<String> names;
+    private final boolean[] numeric;
+
+    private MapRows(List<?> list) {
+      this.list = list;
+      var sample = Math.min(list.size(), SAMPLE_ROWS);
+      var keys = new LinkedHashSet<String>();
+      for (var row = 0; row < sample; row++) {
+        ((Map<?, ?>) list.get(row)).keySet().forEach(key -> keys.add(String.valueOf(key)));
+      }
+      names = new ArrayList<>(keys);
+      numeric = new boolean[names.size()];
+      for (var column = 0; column < numeric.length; column++) {
+        var numbers = true;
+        for (var row = 0; row < sample && numbers; row++) {
+          var value = value(row, column);
+          numbers = value == null || value instanceof Number;
+        }
+        numeric[column] = numbers;
+      }
+    }
+
+    @Override
+    public int size() {
+      return list.size();
+    }
+
+    @Override
+    public int columns() {
+      return names.size();
+    }
+
+    @Override
+    public String name(int column) {
+      return names.get(column);
+    }
+
+    @Override
+    public boolean numeric(int column) {
+      return numeric[column];
+    }
+
+    @Override
+    public Object value(int row, int column) {
+      return list.get(row) instanceof Map<?, ?> map ? map.get(names.get(column)) : null;
+    }
+  }
+}
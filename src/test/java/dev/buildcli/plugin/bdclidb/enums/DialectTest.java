@@ -0,0 +1,81 @@
+package dev.buildcli.plugin.bdclidb.enums;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbLimits;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import dev.buildcli.plugin.bdclidb.utils.data.LoadGovernor;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DialectTest {
+  @Test
+  void limitsWithLimitOutsideOracle() {
+    for (var dialect : new Dialect[]{Dialect.H2, Dialect.POSTGRESQL, Dialect.MYSQL, Dialect.SQLITE}) {
+      assertEquals("limit 10", dialect.limitClause(10), dialect.name());
+      assertEquals("select * from (select id from orders\n) limited limit 10", dialect.limit("select id from orders", 10),
+          dialect.name());
+    }
+  }
+
+  @Test
+  void limitsWithFetchFirstOnOracle() {
+    assertEquals("fetch first 10 rows only", Dialect.ORACLE.limitClause(10));
+    assertEquals("select * from (select id from orders\n) limited fetch first 10 rows only",
+        Dialect.ORACLE.limit("select id from orders", 10));
+  }
+
+  @Test
+  void dropsTrailingSemicolonsAndKeepsLineComments() {
+    assertEquals("select * from (SELECT id from orders -- open ones\n) limited limit 5",
+        Dialect.H2.limit("  SELECT id from orders -- open ones\n;; ", 5));
+  }
+
+  @Test
+  void leavesStatementsThatAreNotSelectsUnchanged() {
+    for (var sql : new String[]{"with recent as (select 1) select * from recent", "call list_orders()", "values (1)"}) {
+      for (var dialect : Dialect.values()) {
+        assertEquals(sql, dialect.limit(sql, 10), dialect.name());
+      }
+    }
+  }
+
+  @Test
+  void asksForOneRowMoreThanMaxRows() {
+    var governor = new LoadGovernor(new DbLimits(100, null, 0));
+    assertEquals("select * from (select id from orders\n) limited limit 101", governor.sql("select id from orders", Dialect.POSTGRESQL));
+    assertEquals("select * from (select id from orders\n) limited fetch first 101 rows only",
+        governor.sql("select id from orders", Dialect.ORACLE));
+
+    // Without a row cap the SQL is left alone
+    var unlimited = new LoadGovernor(new DbLimits(0, Duration.ofSeconds(5), 0));
+    for (var dialect : Dialect.values()) {
+      assertEquals("select id from orders", unlimited.sql("select id from orders", dialect), dialect.name());
+    }
+  }
+
+  @Test
+  void runsTheProbeOnH2() throws SQLException {
+    var connection = new DbConnection("test", "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", "h2");
+    var governor = new LoadGovernor(new DbLimits(10, Duration.ofSeconds(5), 0));
+    try (var con = ConnectionUtils.connect(connection); var stmt = con.createStatement()) {
+      stmt.execute("create table orders (id int)");
+      stmt.execute("insert into orders select x from system_range(1, 25)");
+
+      governor.apply(stmt);
+      assertEquals(11, stmt.getMaxRows());
+      assertEquals(5, stmt.getQueryTimeout());
+      try (var rs = stmt.executeQuery(governor.sql("select id from orders order by id;", Dialect.H2))) {
+        var rows = 0;
+        while (rs.next()) {
+          rows++;
+        }
+        assertEquals(11, rows);
+      }
+    }
+  }
+}
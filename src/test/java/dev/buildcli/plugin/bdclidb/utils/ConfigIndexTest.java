@@ -0,0 +1,57 @@
+package dev.buildcli.plugin.bdclidb.utils;
+
+import dev.buildcli.core.domain.configs.BuildCLIConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ConfigIndexTest {
+  @Test
+  void parsesConnectionsAndObjectsWithTheirOptions() {
+    var index = ConfigIndex.build(config());
+
+    var connection = index.getConnections().get("main");
+    assertEquals("jdbc:h2:mem:main", connection.url());
+    assertEquals(Map.of("poolMax", "2"), connection.options());
+
+    var object = index.getObjects().get("users");
+    assertEquals("select * from users", object.sql());
+    assertEquals("main", object.connection());
+    assertEquals(Map.of("cacheTtl", "10m"), object.options());
+  }
+
+  @Test
+  void handsOutCopiesOfItsConfiguration() {
+    var index = ConfigIndex.build(config());
+
+    var edited = index.getConfig();
+    edited.addOrSetProperty("buildcli.db.connection.main.url", "jdbc:h2:mem:other");
+
+    assertNotSame(edited, index.getConfig());
+    assertEquals("jdbc:h2:mem:main", index.getConnections().get("main").url());
+    assertEquals("kept", property(index.getConfig(), "other.setting"));
+    assertEquals("jdbc:h2:mem:main", property(index.getConfig(), "buildcli.db.connection.main.url"));
+  }
+
+  private static String property(BuildCLIConfig config, String name) {
+    return config.getProperties().stream().filter(p -> p.name().equals(name)).map(p -> p.value()).findFirst().orElse(null);
+  }
+
+  private static BuildCLIConfig config() {
+    var config = BuildCLIConfig.empty();
+    config.addOrSetProperty("other.setting", "kept");
+    config.addOrSetProperty("buildcli.db.connection.main.name", "main");
+    config.addOrSetProperty("buildcli.db.connection.main.url", "jdbc:h2:mem:main");
+    config.addOrSetProperty("buildcli.db.connection.main.user", "sa");
+    config.addOrSetProperty("buildcli.db.connection.main.platform", "h2");
+    config.addOrSetProperty("buildcli.db.connection.main.poolMax", "2");
+    config.addOrSetProperty("buildcli.db.object.users.name", "users");
+    config.addOrSetProperty("buildcli.db.object.users.sql", "select * from users");
+    config.addOrSetProperty("buildcli.db.object.users.connection", "main");
+    config.addOrSetProperty("buildcli.db.object.users.cacheTtl", "10m");
+    return config;
+  }
+}
@@ -0,0 +1,147 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkImporterTest {
+  @TempDir
+  Path directory;
+
+  private DbConnection connection;
+  private Connection keepAlive;
+
+  @BeforeEach
+  void createTable() throws SQLException {
+    connection = new DbConnection("test", "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", "h2");
+    // An in-memory H2 database lives as long as one of its connections is open
+    keepAlive = ConnectionUtils.connect(connection);
+    try (var stmt = keepAlive.createStatement()) {
+      stmt.execute("create table items (id int primary key, name varchar(100), amount decimal(10, 2), created timestamp)");
+    }
+  }
+
+  @AfterEach
+  void dropDatabase() throws SQLException {
+    keepAlive.close();
+  }
+
+  @Test
+  void importsQuotedAndEmptyFields() throws Exception {
+    var file = write("\uFEFFid,name,amount,created\r\n"
+        + "1,\"Smith, \"\"Jo\"\"\",1.50,2024-01-02 03:04:05\r\n"
+        + "2,\"two\r\nlines\",,\r\n"
+        + "3,\"\",0,2024-01-02T00:00:00\r\n"
+        + "4,,-2.25,\r\n");
+
+    var result = BulkImporter.importCsv(connection, "items", file, BulkImporter.Options.defaults());
+
+    assertEquals(4, result.rows());
+    var rows = select();
+    assertEquals(List.of(1, "Smith, \"Jo\"", new BigDecimal("1.50"), Timestamp.valueOf("2024-01-02 03:04:05")), rows.get(0));
+    assertEquals("two\r\nlines", rows.get(1).get(1));
+    assertNull(rows.get(1).get(2));
+    assertNull(rows.get(1).get(3));
+    assertEquals("", rows.get(2).get(1));
+    assertNull(rows.get(3).get(1));
+  }
+
+  @Test
+  void importsInBatchesOnSeveralThreads() throws Exception {
+    var text = new StringBuilder("id,name\n");
+    for (var i = 1; i <= 1000; i++) {
+      text.append(i).append(",name-").append(i).append('\n');
+    }
+    var file = write(text.toString());
+    var options = BulkImporter.Options.defaults().withBatchSize(7).withThreads(3).withCommitEvery(50);
+
+    var result = BulkImporter.importCsv(connection, "items", file, options);
+
+    assertEquals(1000, result.rows());
+    assertEquals(3, result.threads());
+    var rows = select();
+    assertEquals(1000, rows.size());
+    for (var i = 0; i < rows.size(); i++) {
+      assertEquals(List.of(i + 1, "name-" + (i + 1)), rows.get(i).subList(0, 2));
+    }
+  }
+
+  @Test
+  void importsSemicolonSeparatedFiles() throws Exception {
+    var file = write("id;name\n1;a,b\n");
+
+    BulkImporter.importCsv(connection, "items", file, BulkImporter.Options.defaults().withDelimiter(';'));
+
+    assertEquals("a,b", select().get(0).get(1));
+  }
+
+  @Test
+  void rejectsRaggedRowsWithTheirLine() throws Exception {
+    var file = write("id,name\n1,a\n2,\"b\nc\"\n3\n");
+
+    var error = assertThrows(RuntimeException.class, () -> BulkImporter.importCsv(connection, "items", file, BulkImporter.Options.defaults()));
+
+    assertTrue(error.getMessage().contains("Line 5 has 1 fields, expected 2"), error.getMessage());
+    assertEquals(0, select().size());
+  }
+
+  @Test
+  void rejectsEmptyFilesAndHeaders() throws Exception {
+    var empty = write("");
+    assertThrows(IllegalArgumentException.class, () -> BulkImporter.importCsv(connection, "items", empty, BulkImporter.Options.defaults()));
+
+    var blankColumn = write("id,,name\n1,2,3\n");
+    assertThrows(IllegalArgumentException.class, () -> BulkImporter.importCsv(connection, "items", blankColumn, BulkImporter.Options.defaults()));
+  }
+
+  @Test
+  void reportsCommittedRowsWhenAnInsertFails() throws Exception {
+    var file = write("id,name\n1,a\n2,b\n1,duplicate\n");
+
+    var error = assertThrows(RuntimeException.class,
+        () -> BulkImporter.importCsv(connection, "items", file, BulkImporter.Options.defaults().withBatchSize(1).withCommitEvery(1)));
+
+    assertTrue(error.getMessage().contains("after 2 committed rows"), error.getMessage());
+    assertEquals(2, select().size());
+  }
+
+  private Path write(String text) throws IOException {
+    var file = Files.createTempFile(directory, "import", ".csv");
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private List<List<Object>> select() throws SQLException {
+    var rows = new ArrayList<List<Object>>();
+    try (var stmt = keepAlive.createStatement(); var rs = stmt.executeQuery("select id, name, amount, created from items order by id")) {
+      while (rs.next()) {
+        var row = new ArrayList<>();
+        for (var c = 1; c <= 4; c++) {
+          row.add(rs.getObject(c));
+        }
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+}
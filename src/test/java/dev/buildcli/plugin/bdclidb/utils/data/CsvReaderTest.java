@@ -0,0 +1,131 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void keepsSeparatorsInsideQuotedFields() throws IOException {
+    var records = read("a,\"b,c\",d\n\",\",x,\"\"\n", ',');
+    assertArrayEquals(new String[]{"a", "b,c", "d"}, records.get(0));
+    assertArrayEquals(new String[]{",", "x", ""}, records.get(1));
+  }
+
+  @Test
+  void unescapesDoubledQuotes() throws IOException {
+    var records = read("\"say \"\"hi\"\"\",\"\"\"\",\"a\"\"\"\"b\"\n", ',');
+    assertArrayEquals(new String[]{"say \"hi\"", "\"", "a\"\"b"}, records.get(0));
+  }
+
+  @Test
+  void keepsLineBreaksInsideQuotedFieldsAndCountsLines() throws IOException {
+    try (var csv = new CsvReader(new StringReader("id,note\r\n1,\"two\r\nlines\"\r\n2,\"three\nlines\nhere\"\r\n3,plain\r\n"), ',')) {
+      assertArrayEquals(new String[]{"id", "note"}, csv.next());
+      assertEquals(1, csv.getLine());
+      assertArrayEquals(new String[]{"1", "two\r\nlines"}, csv.next());
+      assertEquals(2, csv.getLine());
+      assertArrayEquals(new String[]{"2", "three\nlines\nhere"}, csv.next());
+      assertEquals(4, csv.getLine());
+      assertArrayEquals(new String[]{"3", "plain"}, csv.next());
+      assertEquals(7, csv.getLine());
+      assertNull(csv.next());
+    }
+  }
+
+  @Test
+  void readsEmptyUnquotedFieldsAsNullAndEmptyQuotedFieldsAsEmpty() throws IOException {
+    var records = read(",\"\",x,\n\"\"\n,\n", ',');
+    assertArrayEquals(new String[]{null, "", "x", null}, records.get(0));
+    assertArrayEquals(new String[]{""}, records.get(1));
+    assertArrayEquals(new String[]{null, null}, records.get(2));
+  }
+
+  @Test
+  void returnsRaggedRowsAsTheyAre() throws IOException {
+    var records = read("a,b,c\n1,2\n1,2,3,4\n", ',');
+    assertEquals(3, records.get(0).length);
+    assertEquals(2, records.get(1).length);
+    assertEquals(4, records.get(2).length);
+  }
+
+  @Test
+  void skipsBlankLinesAndReadsTheLastRecordWithoutLineBreak() throws IOException {
+    var records = read("\n\r\na\n\n\r\nb\r\n\nc", ',');
+    assertEquals(3, records.size());
+    assertArrayEquals(new String[]{"c"}, records.get(2));
+  }
+
+  @Test
+  void usesTheGivenDelimiter() throws IOException {
+    assertArrayEquals(new String[]{"a,b", "c", null}, read("a,b;c;\n", ';').get(0));
+    assertArrayEquals(new String[]{"a", "b c"}, read("a\tb c\n", '\t').get(0));
+  }
+
+  @Test
+  void readsFieldsLongerThanTheBuffer() throws IOException {
+    var value = "x".repeat(200_000);
+    var records = read("\"" + value + "\"," + value + "\n", ',');
+    assertEquals(value, records.get(0)[0]);
+    assertEquals(value, records.get(0)[1]);
+  }
+
+  @Test
+  void rejectsMalformedQuotes() {
+    var unterminated = assertThrows(IOException.class, () -> read("a\n\"b,c\n", ','));
+    assertTrue(unterminated.getMessage().contains("line 2"), unterminated.getMessage());
+    assertThrows(IOException.class, () -> read("\"a\"b,c\n", ','));
+  }
+
+  @Test
+  void skipsTheByteOrderMarkOfFiles() throws IOException {
+    var file = directory.resolve("bom.csv");
+    Files.writeString(file, "\uFEFFid,name\n1,ação\n", StandardCharsets.UTF_8);
+    try (var csv = CsvReader.open(file, ',')) {
+      assertArrayEquals(new String[]{"id", "name"}, csv.next());
+      assertArrayEquals(new String[]{"1", "ação"}, csv.next());
+    }
+  }
+
+  @Test
+  void gunzipsCompressedFiles() throws IOException {
+    var file = directory.resolve("rows.csv.gz");
+    try (var out = new GZIPOutputStream(Files.newOutputStream(file))) {
+      out.write("\uFEFFid\n1\n2\n".getBytes(StandardCharsets.UTF_8));
+    }
+    try (var csv = CsvReader.open(file, ',')) {
+      assertArrayEquals(new String[]{"id"}, csv.next());
+      assertArrayEquals(new String[]{"1"}, csv.next());
+      assertArrayEquals(new String[]{"2"}, csv.next());
+      assertNull(csv.next());
+    }
+  }
+
+  private static List<String[]> read(String text, char delimiter) throws IOException {
+    var records = new ArrayList<String[]>();
+    try (var csv = new CsvReader(new StringReader(text), delimiter)) {
+      String[] record;
+      while ((record = csv.next()) != null) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+}
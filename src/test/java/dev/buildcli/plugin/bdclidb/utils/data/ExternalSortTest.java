@@ -0,0 +1,105 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.utils.Cancellation;
+import groovy.lang.Closure;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.ids;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.randomTable;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.table;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExternalSortTest {
+  @Test
+  void sortsLikeAnInMemorySortAcrossRuns() {
+    var rows = randomTable(200, 20);
+    var expected = new ArrayList<>(rows);
+    // List.sort is stable, equal keys keep table order
+    expected.sort(Comparator.comparing(r -> (Integer) r.get("n")));
+
+    for (var runRows : new int[]{3, 7, 64, 1000}) {
+      try (var sorted = ExternalSort.sort(rows, key("n"), runRows)) {
+        assertEquals(ids(expected), ids(sorted), "runRows " + runRows);
+      }
+    }
+  }
+
+  @Test
+  void sortsWithAComparatorClosure() {
+    var rows = randomTable(50, 5);
+    var expected = new ArrayList<>(rows);
+    expected.sort(Comparator.comparing(r -> (String) r.get("name"), Comparator.reverseOrder()));
+
+    var descending = new Closure<Object>(null) {
+      public Object doCall(Object a, Object b) {
+        return ((String) value(b, "name")).compareTo((String) value(a, "name"));
+      }
+    };
+    try (var sorted = ExternalSort.sort(rows, descending, 4)) {
+      assertEquals(ids(expected), ids(sorted));
+    }
+  }
+
+  @Test
+  void keepsEveryColumnOfTheSortedRows() {
+    var rows = randomTable(30, 30);
+    try (var sorted = ExternalSort.sort(rows, key("n"), 4)) {
+      assertEquals(rows.size(), sorted.size());
+      for (var row : sorted) {
+        assertEquals(rows.get(((Long) row.get("id")).intValue()), row);
+      }
+    }
+  }
+
+  @Test
+  void sortsEmptyTables() {
+    try (var sorted = ExternalSort.sort(table(), key("n"), 3)) {
+      assertEquals(0, sorted.size());
+    }
+  }
+
+  @Test
+  void groupsLikeAnInMemoryGroupBy() {
+    var rows = randomTable(200, 13);
+    var expected = new LinkedHashMap<Object, List<Object>>();
+    for (var row : rows) {
+      expected.computeIfAbsent(row.get("name"), k -> new ArrayList<>()).add(row.get("id"));
+    }
+
+    var groups = ExternalSort.groupBy(rows, key("name"), 3);
+
+    assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(groups.keySet()));
+    for (var entry : groups.entrySet()) {
+      assertEquals(expected.get(entry.getKey()), ids(entry.getValue()), "group " + entry.getKey());
+    }
+  }
+
+  @Test
+  void stopsWhenTheScopeIsCancelled() {
+    var rows = randomTable(100, 10);
+    var scope = new Cancellation.Scope();
+    scope.cancel();
+    Cancellation.run(scope, () -> assertThrows(CancellationException.class, () -> ExternalSort.sort(rows, key("n"), 3)));
+  }
+
+  private static Closure<Object> key(String column) {
+    return new Closure<Object>(null) {
+      public Object doCall(Object row) {
+        return value(row, column);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object value(Object row, String column) {
+    return ((Map<String, Object>) row).get(column);
+  }
+}
@@ -0,0 +1,88 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.ids;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashIndexTest {
+  @Test
+  void findsIntegralKeysOfAnyNumericType() {
+    var index = table().index("id");
+    for (Object key : List.of(2, 2L, (short) 2, new BigInteger("2"), new BigDecimal("2.00"), 2.0)) {
+      assertEquals("b", index.get(key).get("name"), "key " + key.getClass().getSimpleName());
+    }
+    assertEquals("b", index.getAt(2).get("name"));
+    assertNull(index.get(2.5));
+    assertNull(index.get(99));
+    assertNull(index.get("2"));
+    assertNull(index.get(null));
+  }
+
+  @Test
+  void chainsDuplicateKeysInTableOrder() {
+    var index = table().index("name");
+    assertEquals(List.of(1L, 4L), ids(index.getAll("a")));
+    assertEquals(1L, index.get("a").get("id"));
+    assertEquals(0, index.getAll("missing").size());
+  }
+
+  @Test
+  void skipsNullValues() {
+    var rows = table();
+    var index = rows.index("name");
+    // a, b, c; the null name of row 5 is not a key
+    assertEquals(3, index.keyCount());
+    assertFalse(index.containsKey(null));
+    assertTrue(index.containsKey("c"));
+  }
+
+  @Test
+  void treatsBothZerosOfDoubleColumnsAsOneKey() {
+    var index = table().index("score");
+    assertEquals(List.of(3L, 5L), ids(index.getAll(0.0)));
+    assertEquals(List.of(3L, 5L), ids(index.getAll(-0.0)));
+    assertEquals(1L, index.get(1.5).get("id"));
+  }
+
+  @Test
+  void normalizesTimestampAndDecimalKeys() {
+    var rows = table();
+    assertEquals(2L, rows.index("created").get("2024-01-02 10:00:00").get("id"));
+    assertEquals(1L, rows.index("created").get("2024-01-01").get("id"));
+    assertEquals(1L, rows.index("amount").get(1.5).get("id"));
+    assertNull(rows.index("amount").get("1.50"));
+  }
+
+  @Test
+  void rebuildsAfterTheTableChanged() {
+    var rows = table();
+    var index = rows.index("name");
+    assertEquals(2, index.getAll("a").size());
+
+    rows.get(0).put("name", "z");
+    assertEquals(List.of(4L), ids(index.getAll("a")));
+    assertEquals(1L, index.get("z").get("id"));
+
+    rows.add(row(6L, null, "a"));
+    assertEquals(List.of(4L, 6L), ids(index.getAll("a")));
+  }
+
+  private static ColumnarResult table() {
+    return TestTables.table(
+        row(1L, null, "a", 1.5, Timestamp.valueOf("2024-01-01 00:00:00"), new BigDecimal("1.50")),
+        row(2L, null, "b", 2.5, Timestamp.valueOf("2024-01-02 10:00:00"), new BigDecimal("2")),
+        row(3L, null, "c", 0.0),
+        row(4L, null, "a"),
+        row(5L, null, null, -0.0));
+  }
+}
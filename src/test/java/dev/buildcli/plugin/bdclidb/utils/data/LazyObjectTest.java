@@ -0,0 +1,123 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LazyObjectTest {
+  private DbConnection connection;
+  private Connection keepAlive;
+
+  @BeforeEach
+  void createTable() throws SQLException {
+    connection = new DbConnection("test", "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", "h2", Map.of("poolMax", "2", "poolBorrowTimeout", "1s"));
+    // An in-memory H2 database lives as long as one of its connections is open
+    keepAlive = ConnectionUtils.connect(connection);
+    try (var stmt = keepAlive.createStatement()) {
+      stmt.execute("create table events (id int primary key)");
+      stmt.execute("insert into events select x from system_range(1, 25)");
+    }
+  }
+
+  @AfterEach
+  void dropDatabase() throws SQLException {
+    ConnectionUtils.closePools();
+    keepAlive.close();
+  }
+
+  @Test
+  void iteratesEveryRowInPages() {
+    var ids = new ArrayList<Object>();
+    for (var row : events(Map.of("fetchSize", "10"))) {
+      ids.add(row.get("ID"));
+    }
+    assertEquals(25, ids.size());
+    assertEquals(25, ids.getLast());
+    // The connection is back in the pool
+    assertEquals(ConnectionUtils.pool(connection).getTotal(), ConnectionUtils.pool(connection).getIdle());
+  }
+
+  @Test
+  void reclaimsTheOldestAbandonedCursorWhenThePoolIsExhausted() {
+    var events = events(Map.of("fetchSize", "5"));
+    // Far more abandoned iterations than poolMax, each one only reading its first row
+    for (var i = 0; i < 10; i++) {
+      assertEquals(1, events.iterator().next().get("ID"));
+    }
+    assertEquals(25, events.where("id > ?", 0).count());
+  }
+
+  @Test
+  void failsWhenAReclaimedCursorIsReadAgain() {
+    var events = events(Map.of("fetchSize", "5"));
+    var first = events.iterator();
+    first.next();
+    events.iterator().next();
+    // Needs a connection while both are held, so the cursor of first is closed
+    events.iterator().next();
+
+    for (var i = 0; i < 4; i++) {
+      first.next();
+    }
+    assertThrows(IllegalStateException.class, first::hasNext);
+  }
+
+  @Test
+  void closesOpenCursorsOfItsViews() {
+    var events = events(Map.of("fetchSize", "5"));
+    events.iterator().next();
+    events.where("id > ?", 10).iterator().next();
+    assertEquals(0, ConnectionUtils.pool(connection).getIdle());
+
+    events.close();
+
+    assertEquals(2, ConnectionUtils.pool(connection).getIdle());
+  }
+
+  @Test
+  void stopsIteratingAtMaxRows() {
+    var ids = new ArrayList<Object>();
+    for (var row : events(Map.of("fetchSize", "4", "maxRows", "10"))) {
+      ids.add(row.get("ID"));
+    }
+    assertEquals(10, ids.size());
+    assertEquals(10, ids.getLast());
+    assertEquals(ConnectionUtils.pool(connection).getTotal(), ConnectionUtils.pool(connection).getIdle());
+
+    // Views and later iterations are capped too, counts are not
+    var events = events(Map.of("fetchSize", "4", "maxRows", "10"));
+    assertEquals(10, count(events.where("id > ?", 5)));
+    assertEquals(10, count(events));
+    assertEquals(20, events.where("id > ?", 5).count());
+  }
+
+  @Test
+  void iteratesEveryRowWhenTheyFitMaxRows() {
+    assertEquals(25, count(events(Map.of("fetchSize", "5", "maxRows", "25"))));
+  }
+
+  private static int count(LazyObject events) {
+    var rows = 0;
+    for (var iterator = events.iterator(); iterator.hasNext(); iterator.next()) {
+      rows++;
+    }
+    return rows;
+  }
+
+  private LazyObject events(Map<String, String> options) {
+    var object = new DbObject("events", "select id from events order by id", connection.name(), options);
+    return new LazyObject(object, connection);
+  }
+}
@@ -0,0 +1,70 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntMapTest {
+  @Test
+  void returnsMinusOneForMissingKeys() {
+    var map = new LongIntMap(8);
+    assertEquals(-1, map.get(0));
+    assertEquals(-1, map.get(42));
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  void replacesValuesAndReturnsThePreviousOne() {
+    var map = new LongIntMap(8);
+    assertEquals(-1, map.put(42, 1));
+    assertEquals(1, map.put(42, 2));
+    assertEquals(2, map.get(42));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  void keepsExtremeAndZeroKeysApart() {
+    var map = new LongIntMap(8);
+    long[] keys = {0, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE};
+    for (var i = 0; i < keys.length; i++) {
+      map.put(keys[i], i);
+    }
+    for (var i = 0; i < keys.length; i++) {
+      assertEquals(i, map.get(keys[i]));
+    }
+    assertEquals(keys.length, map.size());
+  }
+
+  @Test
+  void resolvesCollisionsByProbing() {
+    // Multiples of the table capacity all hash from the same low bits before mixing
+    var map = new LongIntMap(64);
+    for (var i = 0; i < 64; i++) {
+      map.put(i * 256L, i);
+    }
+    for (var i = 0; i < 64; i++) {
+      assertEquals(i, map.get(i * 256L));
+    }
+    assertEquals(-1, map.get(64 * 256L));
+  }
+
+  @Test
+  void matchesHashMapForRandomKeys() {
+    var random = new Random(7);
+    var expected = new HashMap<Long, Integer>();
+    var map = new LongIntMap(10_000);
+    for (var i = 0; i < 10_000; i++) {
+      // A small key range produces repeated keys
+      var key = random.nextLong(-5_000, 5_000);
+      var previous = expected.put(key, i);
+      assertEquals(previous == null ? -1 : previous, map.put(key, i));
+    }
+    assertEquals(expected.size(), map.size());
+    for (var key = -5_000L; key < 5_000; key++) {
+      assertEquals(expected.getOrDefault(key, -1), map.get(key));
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.Dialect;
+import org.junit.jupiter.api.Test;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectQueryTest {
+  private static final String SQL = "select id, name, score from users -- active ones\n;";
+  private static final ObjectQuery QUERY = ObjectQuery.ALL
+      .withColumns("id", "name")
+      .withWhere(Map.of("score", List.of(1, 2)))
+      .withWhere("name like ?", "a%")
+      .withOrder("name desc", "id")
+      .withLimit(10);
+
+  @Test
+  void leavesTheSqlAloneWithoutClauses() {
+    assertSame(SQL, ObjectQuery.ALL.compose(SQL, Dialect.H2));
+  }
+
+  @Test
+  void composesASubqueryPerDialect() {
+    var select = "select id, name from (select id, name, score from users -- active ones\n) src"
+        + " where score in (?, ?) and (name like ?) order by name desc, id ";
+
+    assertEquals(select + "limit 10", QUERY.compose(SQL, Dialect.H2));
+    assertEquals(select + "limit 10", QUERY.compose(SQL, Dialect.POSTGRESQL));
+    assertEquals(select + "limit 10", QUERY.compose(SQL, Dialect.MYSQL));
+    assertEquals(select + "limit 10", QUERY.compose(SQL, Dialect.SQLITE));
+    assertEquals(select + "fetch first 10 rows only", QUERY.compose(SQL, Dialect.ORACLE));
+    assertEquals(List.of(1, 2, "a%"), QUERY.values());
+  }
+
+  @Test
+  void countsTheLimitedRowsInTheirOrder() {
+    var counted = "select count(*) from (select id, name from (select id, name, score from users -- active ones\n) src"
+        + " where score in (?, ?) and (name like ?) order by name desc, id %s\n) counted";
+
+    assertEquals(counted.formatted("limit 10"), QUERY.count(SQL, Dialect.H2));
+    assertEquals(counted.formatted("limit 10"), QUERY.count(SQL, Dialect.POSTGRESQL));
+    assertEquals(counted.formatted("fetch first 10 rows only"), QUERY.count(SQL, Dialect.ORACLE));
+  }
+
+  @Test
+  void dropsTheOrderWhenCountingWithoutALimit() {
+    var query = ObjectQuery.ALL.withWhere(Map.of("deleted", false)).withOrder("id");
+
+    assertEquals("select count(*) from (select * from (select 1\n) src where deleted = ?\n) counted",
+        query.count("select 1", Dialect.POSTGRESQL));
+    assertEquals("select count(*) from (select 1\n) counted", ObjectQuery.ALL.count("select 1;", Dialect.ORACLE));
+  }
+
+  @Test
+  void ignoresQuestionMarksThatAreNotMarkers() {
+    assertEquals(1, ObjectQuery.ALL.withWhere("name like '%?%' and id = ?", 1).values().size());
+    assertEquals(1, ObjectQuery.ALL.withWhere("\"wh?\" = ? -- why?", 1).values().size());
+    assertEquals(0, ObjectQuery.ALL.withWhere("/* ? */ name = 'it''s?'").values().size());
+    // pgjdbc reads ?? as the ? operator, e.g. tags ??| array['a']
+    assertEquals(1, ObjectQuery.ALL.withWhere("tags ??| ? ", (Object) new String[]{"a"}).values().size());
+  }
+
+  @Test
+  void rejectsConditionsWithTheWrongNumberOfValues() {
+    var e = assertThrows(IllegalArgumentException.class, () -> ObjectQuery.ALL.withWhere("name like '%?%'", "a"));
+    assertTrue(e.getMessage().contains("0 marker(s) but 1 value(s)"), e.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> ObjectQuery.ALL.withWhere("id = ? or id = ?", 1));
+  }
+
+  @Test
+  void bindsTheComposedQueryOnH2() throws SQLException {
+    var query = ObjectQuery.ALL.withWhere("name like '%?%' or id = ?", 2).withOrder("id desc").withLimit(1);
+    try (var connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "")) {
+      try (var stmt = connection.createStatement()) {
+        stmt.execute("create table users (id int, name varchar(20))");
+        stmt.execute("insert into users values (1, 'who?'), (2, 'me'), (3, 'you')");
+      }
+      try (var stmt = connection.prepareStatement(query.compose("select * from users", Dialect.H2))) {
+        assertEquals(1, stmt.getParameterMetaData().getParameterCount());
+        stmt.setObject(1, query.values().get(0));
+        try (var rs = stmt.executeQuery()) {
+          assertTrue(rs.next());
+          assertEquals(2, rs.getInt("id"));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import groovy.lang.Closure;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static dev.buildcli.plugin.bdclidb.utils.data.Aggregate.avg;
+import static dev.buildcli.plugin.bdclidb.utils.data.Aggregate.count;
+import static dev.buildcli.plugin.bdclidb.utils.data.Aggregate.max;
+import static dev.buildcli.plugin.bdclidb.utils.data.Aggregate.min;
+import static dev.buildcli.plugin.bdclidb.utils.data.Aggregate.sum;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.ids;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.row;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.table;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelQueryTest {
+  private static final int[] SPLITS = {1, 7, 1000, 100_000};
+  private static final Aggregate[] AGGREGATES = {count(), count("score"), sum("n"), sum("score"), sum("amount"), avg("n"),
+      avg("score"), avg("amount"), min("score"), max("score"), min("name"), max("n")};
+
+  private final ColumnarResult rows = scores(20_000);
+
+  @Test
+  void groupsLikeASequentialFold() {
+    var expected = fold(rows, this::kept, new String[]{"name"}, AGGREGATES);
+    // Group "e" first appears in the second half, so its partials are merged after all others
+    assertEquals(6, expected.size());
+    assertEquals("e", expected.getLast().get("name"));
+
+    for (var split : SPLITS) {
+      var result = rows.par().withSplit(split).where(closure(this::kept)).groupBy("name").agg(AGGREGATES);
+      assertEquals(expected, new ArrayList<>(result), "split " + split);
+    }
+  }
+
+  @Test
+  void groupsBySeveralColumnsLikeASequentialFold() {
+    var expected = fold(rows, row -> true, new String[]{"name", "n"}, AGGREGATES);
+    for (var split : SPLITS) {
+      var result = rows.par().withSplit(split).groupBy("name", "n").agg(AGGREGATES);
+      assertEquals(expected, new ArrayList<>(result), "split " + split);
+    }
+  }
+
+  @Test
+  void aggregatesAllMatchingRowsWithoutGroups() {
+    var expected = fold(rows, this::kept, new String[0], AGGREGATES);
+    for (var split : SPLITS) {
+      var result = rows.par().withSplit(split).where(closure(this::kept)).agg(AGGREGATES);
+      assertEquals(expected, new ArrayList<>(result), "split " + split);
+    }
+  }
+
+  @Test
+  void keepsNaNAndInfinitiesOutOfTheExactSum() {
+    var expected = fold(rows, row -> true, new String[]{"name"}, AGGREGATES);
+    var byName = new LinkedHashMap<Object, Map<String, Object>>();
+    expected.forEach(r -> byName.put(r.get("name"), r));
+
+    assertTrue(Double.isNaN((Double) byName.get("b").get("sum_score")));
+    assertTrue(Double.isNaN((Double) byName.get("b").get("max_score")));
+    assertEquals(Double.POSITIVE_INFINITY, byName.get("c").get("avg_score"));
+    assertEquals(null, byName.get("d").get("sum_score"));
+    assertEquals(0L, byName.get("d").get("count_score"));
+    for (var split : SPLITS) {
+      assertEquals(expected, new ArrayList<>(rows.par().withSplit(split).groupBy("name").agg(AGGREGATES)), "split " + split);
+    }
+  }
+
+  @Test
+  void countsAndSelectsRowsInTableOrder() {
+    var expected = new ArrayList<Map<String, Object>>();
+    for (var row : rows) {
+      if (kept(row)) {
+        expected.add(row);
+      }
+    }
+
+    for (var split : SPLITS) {
+      var query = rows.par().withSplit(split).where(closure(this::kept));
+      assertEquals(expected.size(), query.count(), "split " + split);
+      assertEquals(ids(expected), ids(query.rows()), "split " + split);
+    }
+  }
+
+  @Test
+  void aggregatesEmptyTables() {
+    var empty = table();
+    assertEquals(List.of(), new ArrayList<>(empty.par().groupBy("name").agg(count())));
+    var totals = empty.par().agg(count(), sum("score"), min("name"));
+    assertEquals(1, totals.size());
+    assertEquals(0L, totals.get(0).get("count"));
+    assertEquals(null, totals.get(0).get("sum_score"));
+  }
+
+  private boolean kept(Map<String, Object> row) {
+    return !(row.get("n") instanceof Integer n) || n % 3 != 0;
+  }
+
+  /**
+   * The result of {@code table.par().where(predicate).groupBy(groups).agg(aggregates)}, computed in
+   * one pass over the rows in table order.
+   */
+  private static List<Map<String, Object>> fold(ResultTable table, Predicate<Map<String, Object>> predicate,
+                                                String[] groups, Aggregate[] aggregates) {
+    var states = new LinkedHashMap<List<Object>, Fold[]>();
+    for (var row : table) {
+      if (!predicate.test(row)) {
+        continue;
+      }
+      var key = Arrays.stream(groups).map(row::get).toList();
+      var folds = states.computeIfAbsent(key, k -> Arrays.stream(aggregates).map(Fold::new).toArray(Fold[]::new));
+      for (var fold : folds) {
+        fold.add(row);
+      }
+    }
+    if (states.isEmpty() && groups.length == 0) {
+      states.put(List.of(), Arrays.stream(aggregates).map(Fold::new).toArray(Fold[]::new));
+    }
+
+    var result = new ArrayList<Map<String, Object>>();
+    states.forEach((key, folds) -> {
+      var row = new LinkedHashMap<String, Object>();
+      for (var i = 0; i < groups.length; i++) {
+        row.put(groups[i], key.get(i));
+      }
+      for (var fold : folds) {
+        row.put(fold.aggregate.name(), fold.result());
+      }
+      result.add(row);
+    });
+    return result;
+  }
+
+  /**
+   * Running value of one aggregate: counts, exact sums with non-finite doubles kept apart, and
+   * comparisons in their natural order.
+   */
+  private static final class Fold {
+    private final Aggregate aggregate;
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private double special;
+    private boolean integral = true;
+    private boolean decimal;
+    private Comparable<Object> extreme;
+
+    private Fold(Aggregate aggregate) {
+      this.aggregate = aggregate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Map<String, Object> row) {
+      if (aggregate.column() == null) {
+        count++;
+        return;
+      }
+      var value = row.get(aggregate.column());
+      if (value == null) {
+        return;
+      }
+      count++;
+      switch (aggregate.kind()) {
+        case SUM, AVG -> {
+          if (value instanceof Double d) {
+            integral = false;
+            if (Double.isFinite(d)) {
+              sum = sum.add(new BigDecimal(d));
+            } else {
+              special += d;
+            }
+          } else if (value instanceof BigDecimal b) {
+            integral = false;
+            decimal = true;
+            sum = sum.add(b);
+          } else {
+            sum = sum.add(BigDecimal.valueOf(((Number) value).longValue()));
+          }
+        }
+        case MIN, MAX -> {
+          var candidate = (Comparable<Object>) value;
+          var cmp = extreme == null ? 0 : candidate.compareTo(extreme);
+          if (extreme == null || (aggregate.kind() == Aggregate.Kind.MAX ? cmp > 0 : cmp < 0)) {
+            extreme = candidate;
+          }
+        }
+        default -> {
+        }
+      }
+    }
+
+    private Object result() {
+      return switch (aggregate.kind()) {
+        case COUNT -> count;
+        case MIN, MAX -> extreme;
+        case SUM -> count == 0 ? null : decimal ? sum : integral ? (Object) sum.longValueExact()
+            : special != 0 ? special : sum.doubleValue();
+        case AVG -> {
+          if (count == 0) {
+            yield null;
+          }
+          var average = sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+          yield decimal ? average : special != 0 ? special : average.doubleValue();
+        }
+      };
+    }
+  }
+
+  /**
+   * Rows with group names {@code a} to {@code e}, where {@code e} only shows up in the second
+   * half, and scores spread over many magnitudes so that adding them in another order rounds
+   * differently. Group {@code b} has NaN scores, {@code c} an infinite one and {@code d} none.
+   */
+  private static ColumnarResult scores(int size) {
+    var random = new Random(17);
+    var names = new String[]{"a", "b", "c", "d", null};
+    var rows = table();
+    var counts = new LinkedHashMap<String, Integer>();
+    for (var i = 0; i < size; i++) {
+      var name = i > size / 2 && i % 5 == 0 ? "e" : names[random.nextInt(names.length)];
+      var seen = counts.merge(String.valueOf(name), 1, Integer::sum);
+      var n = random.nextInt(10) == 0 ? null : random.nextInt(-50, 50);
+      Double score = null;
+      if ("b".equals(name) && seen % 500 == 0) {
+        score = Double.NaN;
+      } else if ("c".equals(name) && seen == 1000) {
+        score = Double.POSITIVE_INFINITY;
+      } else if (!"d".equals(name) && random.nextInt(10) != 0) {
+        score = (random.nextBoolean() ? 1 : -1) * random.nextDouble() * Math.pow(10, random.nextInt(-5, 17));
+      }
+      var amount = random.nextInt(4) == 0 ? null : BigDecimal.valueOf(random.nextLong(-1_000_000, 1_000_000), 2);
+      rows.add(row((long) i, n, name, score, null, amount));
+    }
+    return rows;
+  }
+
+  private static Closure<Object> closure(Predicate<Map<String, Object>> predicate) {
+    return new Closure<Object>(null) {
+      @SuppressWarnings("unchecked")
+      public Object doCall(Object row) {
+        return predicate.test((Map<String, Object>) row);
+      }
+    };
+  }
+}
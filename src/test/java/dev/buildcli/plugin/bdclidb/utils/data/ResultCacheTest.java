@@ -0,0 +1,116 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+  private static final Schema SCHEMA = new Schema(new String[]{"id", "name"}, new ColumnType[]{ColumnType.INT, ColumnType.STRING});
+  private static final DbConnection PROD = new DbConnection("prod", "jdbc:h2:mem:prod", "sa", "", "h2");
+  private static final DbConnection TEST = new DbConnection("test", "jdbc:h2:mem:test", "sa", "", "h2");
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void servesFreshEntries() throws IOException {
+    var cache = new ResultCache(directory);
+    var users = users("select id, name from users", "10m");
+    cache.write(users, PROD, rows(1, 2, 3));
+
+    try (var cached = (SnapshotResult) cache.read(users, PROD).orElseThrow()) {
+      assertEquals(SCHEMA, cached.schema());
+      assertEquals(List.of(1, 2, 3), ids(cached));
+    }
+  }
+
+  @Test
+  void ignoresEntriesOlderThanTheTtl() throws IOException {
+    var cache = new ResultCache(directory);
+    var users = users("select id, name from users", "10m");
+    cache.write(users, PROD, rows(1));
+
+    var file = cache.fileFor(users, PROD);
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofMinutes(11))));
+    assertTrue(cache.read(users, PROD).isEmpty());
+
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofMinutes(9))));
+    assertTrue(cache.read(users, PROD).isPresent());
+  }
+
+  @Test
+  void neverServesObjectsWithoutATtl() {
+    var cache = new ResultCache(directory);
+    cache.write(users("select id, name from users", "10m"), PROD, rows(1));
+
+    assertFalse(ResultCache.isEnabled(users("select id, name from users", null)));
+    assertTrue(cache.read(users("select id, name from users", null), PROD).isEmpty());
+  }
+
+  @Test
+  void editingTheSqlReplacesTheEntryOfTheSameObjectOnly() throws IOException {
+    var cache = new ResultCache(directory);
+    var before = users("select id, name from users", "10m");
+    var after = users("select id, name from users where id > 1", "10m");
+    var orders = new DbObject("orders", "select id, name from orders", "prod", Map.of("cacheTtl", "10m"));
+
+    cache.write(before, PROD, rows(1, 2));
+    cache.write(before, TEST, rows(7));
+    cache.write(orders, PROD, rows(9));
+    // Entry of the former <name>-<hash>.bin layout
+    var legacy = Files.writeString(directory.resolve("users-0123456789abcdef.bin"), "");
+
+    cache.write(after, PROD, rows(2));
+
+    assertNotEquals(cache.fileFor(before, PROD), cache.fileFor(after, PROD));
+    assertFalse(Files.exists(cache.fileFor(before, PROD)));
+    assertFalse(Files.exists(legacy));
+    assertTrue(Files.exists(cache.fileFor(after, PROD)));
+    // The same object on another database and other objects keep their entries
+    assertTrue(Files.exists(cache.fileFor(before, TEST)));
+    assertTrue(Files.exists(cache.fileFor(orders, PROD)));
+    try (var cached = (SnapshotResult) cache.read(before, TEST).orElseThrow()) {
+      assertEquals(List.of(7), ids(cached));
+    }
+  }
+
+  private static DbObject users(String sql, String cacheTtl) {
+    var options = new HashMap<String, String>();
+    if (cacheTtl != null) {
+      options.put("cacheTtl", cacheTtl);
+    }
+    return new DbObject("users", sql, "prod", options);
+  }
+
+  private static ColumnarResult rows(int... ids) {
+    var rows = new ColumnarResult(SCHEMA);
+    for (var id : ids) {
+      var row = new HashMap<String, Object>();
+      row.put("id", id);
+      row.put("name", "user" + id);
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private static List<Object> ids(ResultTable rows) {
+    return rows.stream().map(row -> row.get("id")).toList();
+  }
+}
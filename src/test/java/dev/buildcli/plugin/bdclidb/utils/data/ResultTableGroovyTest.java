@@ -0,0 +1,108 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the in-place list and map idioms of REPL scripts against a loaded object.
+ */
+class ResultTableGroovyTest {
+  private static final Schema SCHEMA = new Schema(new String[]{"id", "name"}, new ColumnType[]{ColumnType.INT, ColumnType.STRING});
+
+  private ColumnarResult users;
+  private GroovyShell shell;
+
+  @BeforeEach
+  void loadUsers() {
+    users = new ColumnarResult(SCHEMA);
+    for (var row : List.of(List.of(3, "c"), List.of(1, "a"), List.of(2, "b"), List.of(1, "d"))) {
+      var values = new HashMap<String, Object>();
+      values.put("id", row.get(0));
+      values.put("name", row.get(1));
+      users.add(values);
+    }
+    var binding = new Binding();
+    binding.setVariable("users", users);
+    shell = new GroovyShell(binding);
+  }
+
+  @Test
+  void sortsInPlaceWithAKeyClosure() {
+    assertSame(users, eval("users.sort { it.id }"));
+    // Stable: the two rows with id 1 keep their order
+    assertEquals(List.of("a", "d", "b", "c"), eval("users*.name"));
+  }
+
+  @Test
+  void sortsInPlaceWithAComparatorClosure() {
+    eval("users.sort { a, b -> b.name <=> a.name }");
+    assertEquals(List.of("d", "c", "b", "a"), eval("users*.name"));
+  }
+
+  @Test
+  void sortsACopyWithoutChangingTheRows() {
+    assertEquals(List.of(1, 1, 2, 3), eval("users.sort(false) { it.id }*.id"));
+    assertEquals(List.of(3, 1, 2, 1), eval("users*.id"));
+  }
+
+  @Test
+  void addsKeysOutsideTheSchema() {
+    eval("users.each { it.score = it.id * 10 }");
+    assertEquals(List.of(30, 10, 20, 10), eval("users*.score"));
+    assertEquals(List.of("c", "b"), eval("users.findAll { it.score > 10 }*.name"));
+    assertEquals(Map.of("id", 3, "name", "c", "score", 30), eval("users[0]"));
+    assertTrue((Boolean) eval("users[0].containsKey('score')"));
+    assertNull(eval("users[0].missing"));
+  }
+
+  @Test
+  void keepsAddedKeysWithTheirRowsWhenSorting() {
+    eval("users.each { it.label = it.name.toUpperCase() }");
+    eval("users.sort { it.name }");
+    assertEquals(List.of("A", "B", "C", "D"), eval("users*.label"));
+  }
+
+  @Test
+  void replacesSwapsAndReversesRows() {
+    eval("users[0] = [id: 9, name: 'z', note: 'new']");
+    assertEquals(Map.of("id", 9, "name", "z", "note", "new"), eval("users[0]"));
+
+    eval("Collections.swap(users, 0, 1)");
+    assertEquals(List.of(1, 9, 2, 1), eval("users*.id"));
+    assertEquals("new", eval("users[1].note"));
+
+    eval("Collections.reverse(users)");
+    assertEquals(List.of(1, 2, 9, 1), eval("users*.id"));
+  }
+
+  @Test
+  void appendsRowsWithExtraKeys() {
+    eval("users << [id: 5, name: 'e', note: 'appended']");
+    assertEquals(5, users.size());
+    assertEquals("appended", eval("users[-1].note"));
+  }
+
+  @Test
+  void rebuildsIndexesAfterSorting() {
+    assertEquals("c", eval("users.index('id')[3].name"));
+    eval("users.sort { it.id }");
+    assertEquals("c", eval("users.index('id')[3].name"));
+    assertEquals(3, eval("users.index('id').getAt(3).id"));
+  }
+
+  private Object eval(String script) {
+    return shell.evaluate(script);
+  }
+}
@@ -0,0 +1,141 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotWriterTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void roundTripsEveryColumnTypeWithNulls() throws Exception {
+    var schema = new Schema(new String[]{"i", "l", "d", "b", "t", "s", "o"}, new ColumnType[]{ColumnType.INT, ColumnType.LONG,
+        ColumnType.DOUBLE, ColumnType.BOOLEAN, ColumnType.TIMESTAMP, ColumnType.STRING, ColumnType.OBJECT});
+    var timestamp = Timestamp.valueOf("2024-02-29 13:45:01.123456789");
+    var rows = new ColumnarResult(schema);
+    rows.add(row(schema, 1, 10L, 1.5, true, timestamp, "ação", new BigDecimal("12.340")));
+    rows.add(row(schema, null, null, null, null, null, null, null));
+    rows.add(row(schema, -7, Long.MIN_VALUE, -0.25, false, new Timestamp(0), "", LocalDate.of(2024, 1, 31)));
+    var uuid = UUID.randomUUID();
+    rows.add(row(schema, Integer.MAX_VALUE, Long.MAX_VALUE, Double.NaN, true, timestamp, "x", uuid));
+
+    var file = directory.resolve("all.bin");
+    SnapshotWriter.write(file, rows);
+
+    try (var snapshot = SnapshotResult.open(file)) {
+      assertEquals(schema, snapshot.schema());
+      assertEquals(rows.size(), snapshot.size());
+      for (var row = 0; row < rows.size(); row++) {
+        for (var column = 0; column < schema.size(); column++) {
+          assertEquals(rows.getValue(row, column), snapshot.getValue(row, column), "row %d, column %s".formatted(row, schema.name(column)));
+        }
+      }
+      assertEquals(timestamp.getNanos(), ((Timestamp) snapshot.getValue(0, 4)).getNanos());
+    }
+  }
+
+  @Test
+  void roundTripsBinaryValues() throws Exception {
+    var schema = new Schema(new String[]{"bytes"}, new ColumnType[]{ColumnType.OBJECT});
+    var rows = new ColumnarResult(schema);
+    rows.add(row(schema, (Object) new byte[]{0, 1, -1, 127}));
+    rows.add(row(schema, (Object) new byte[0]));
+
+    var file = directory.resolve("bytes.bin");
+    SnapshotWriter.write(file, rows);
+
+    try (var snapshot = SnapshotResult.open(file)) {
+      assertArrayEquals(new byte[]{0, 1, -1, 127}, (byte[]) snapshot.getValue(0, 0));
+      assertArrayEquals(new byte[0], (byte[]) snapshot.getValue(1, 0));
+    }
+  }
+
+  @Test
+  void splitsLargeResultsIntoRowGroups() throws Exception {
+    var schema = new Schema(new String[]{"id", "status", "name"}, new ColumnType[]{ColumnType.LONG, ColumnType.STRING, ColumnType.STRING});
+    var rows = new ColumnarResult(schema);
+    var count = SnapshotWriter.ROW_GROUP_SIZE * 2 + 17;
+    for (var i = 0; i < count; i++) {
+      // status has few distinct values and is dictionary-encoded, name is unique and stored plain
+      rows.add(row(schema, (long) i, i % 5 == 0 ? null : "S" + i % 3, "name-" + i));
+    }
+
+    var file = directory.resolve("groups.bin");
+    SnapshotWriter.write(file, rows);
+
+    try (var snapshot = SnapshotResult.open(file)) {
+      assertEquals(count, snapshot.size());
+      for (var i : new int[]{0, 1, SnapshotWriter.ROW_GROUP_SIZE - 1, SnapshotWriter.ROW_GROUP_SIZE, SnapshotWriter.ROW_GROUP_SIZE + 1, count - 1}) {
+        assertEquals(rows.get(i), snapshot.get(i));
+      }
+    }
+  }
+
+  @Test
+  void roundTripsEmptyResults() throws Exception {
+    var schema = new Schema(new String[]{"id"}, new ColumnType[]{ColumnType.INT});
+    var file = directory.resolve("empty.bin");
+    SnapshotWriter.write(file, new ColumnarResult(schema));
+
+    try (var snapshot = SnapshotResult.open(file)) {
+      assertEquals(schema, snapshot.schema());
+      assertEquals(0, snapshot.size());
+    }
+  }
+
+  @Test
+  void appendsRowGroupsOfSeveralTables() throws Exception {
+    var schema = new Schema(new String[]{"id", "name"}, new ColumnType[]{ColumnType.INT, ColumnType.STRING});
+    var first = new ColumnarResult(schema);
+    first.add(row(schema, 1, "a"));
+    var second = new ColumnarResult(schema);
+    second.add(row(schema, 2, null));
+    second.add(row(schema, 3, "c"));
+
+    var file = directory.resolve("append.bin");
+    try (var writer = new SnapshotWriter(file, schema)) {
+      writer.append(first);
+      writer.append(second);
+      assertEquals(3, writer.getRows());
+    }
+
+    try (var snapshot = SnapshotResult.open(file)) {
+      assertEquals(3, snapshot.size());
+      assertEquals(2, snapshot.getValue(1, 0));
+      assertNull(snapshot.getValue(1, 1));
+      assertEquals("c", snapshot.getValue(2, 1));
+    }
+  }
+
+  @Test
+  void rejectsRowsOfAnotherSchema() throws Exception {
+    var schema = new Schema(new String[]{"id"}, new ColumnType[]{ColumnType.INT});
+    var other = new ColumnarResult(new Schema(new String[]{"id"}, new ColumnType[]{ColumnType.LONG}));
+    other.add(row(other.schema(), 1L));
+
+    try (var writer = new SnapshotWriter(directory.resolve("mismatch.bin"), schema)) {
+      assertThrows(IllegalArgumentException.class, () -> writer.writeGroup(other, 0, 1));
+    }
+  }
+
+  private static HashMap<String, Object> row(Schema schema, Object... values) {
+    var row = new HashMap<String, Object>();
+    for (var i = 0; i < values.length; i++) {
+      row.put(schema.name(i), values[i]);
+    }
+    return row;
+  }
+}
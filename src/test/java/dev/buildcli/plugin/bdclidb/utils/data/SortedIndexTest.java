@@ -0,0 +1,110 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.ids;
+import static dev.buildcli.plugin.bdclidb.utils.data.TestTables.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SortedIndexTest {
+  @Test
+  void honoursInclusiveAndExclusiveBounds() {
+    var index = table().sortedIndex("n");
+    assertEquals(List.of(2L, 4L, 3L), ids(index.between(2, 3)));
+    assertEquals(List.of(3L, 5L), ids(index.greaterThan(2)));
+    assertEquals(List.of(2L, 4L, 3L, 5L), ids(index.atLeast(2)));
+    assertEquals(List.of(1L), ids(index.lessThan(2)));
+    assertEquals(List.of(1L, 2L, 4L), ids(index.atMost(2)));
+    assertEquals(List.of(2L, 4L), ids(index.getAll(2)));
+    assertEquals(List.of(), ids(index.between(3, 2)));
+  }
+
+  @Test
+  void comparesIntegralKeysWithFractionalBounds() {
+    var index = table().sortedIndex("n");
+    assertEquals(List.of(3L), ids(index.between(2.5, 3.5)));
+    assertEquals(List.of(3L, 5L), ids(index.atLeast("2.1")));
+  }
+
+  @Test
+  void keepsTableOrderForEqualKeysAndSkipsNulls() {
+    var index = table().sortedIndex("name");
+    // Row 6 has no name
+    assertEquals(List.of(1L, 3L, 5L, 2L, 4L), ids(index.atLeast("")));
+    assertEquals(1L, index.first().get("id"));
+    assertEquals(4L, index.last().get("id"));
+  }
+
+  @Test
+  void rangesOverDoubleAndTimestampColumns() {
+    var rows = table();
+    assertEquals(List.of(2L, 1L), ids(rows.sortedIndex("score").between(-1, 0.5)));
+    assertEquals(List.of(2L, 3L), ids(rows.sortedIndex("created").range("2024-01-02", true, "2024-01-04", false)));
+  }
+
+  @Test
+  void returnsNothingWhenEveryKeyIsNull() {
+    var index = TestTables.table(row(1L)).sortedIndex("n");
+    assertNull(index.first());
+    assertEquals(0, index.atLeast(0).size());
+  }
+
+  @Test
+  void rejectsNonNumericBoundsOnNumericColumns() {
+    var index = table().sortedIndex("score");
+    assertThrows(IllegalArgumentException.class, () -> index.atLeast(true));
+  }
+
+  @Test
+  void rebuildsAfterTheTableChanged() {
+    var rows = table();
+    var index = rows.sortedIndex("n");
+    assertEquals(5L, index.last().get("id"));
+
+    rows.get(0).put("n", 10);
+    assertEquals(1L, index.last().get("id"));
+    rows.add(row(7L, 11));
+    assertEquals(7L, index.last().get("id"));
+  }
+
+  @Test
+  void matchesAFullScanForRandomRanges() {
+    var random = new Random(11);
+    var rows = TestTables.table();
+    for (var i = 0; i < 5_000; i++) {
+      rows.add(row((long) i, random.nextInt(10) == 0 ? null : random.nextInt(-500, 500)));
+    }
+    var index = rows.sortedIndex("n");
+    for (var i = 0; i < 200; i++) {
+      var from = random.nextInt(-600, 600);
+      var to = from + random.nextInt(0, 300);
+      var expected = new ArrayList<Map<String, Object>>();
+      for (var row : rows) {
+        if (row.get("n") instanceof Integer n && n > from && n <= to) {
+          expected.add(row);
+        }
+      }
+      expected.sort(Comparator.comparing(r -> (Integer) r.get("n")));
+      assertEquals(ids(expected), ids(index.range(from, false, to, true)), "range (%d, %d]".formatted(from, to));
+    }
+  }
+
+  private static ColumnarResult table() {
+    return TestTables.table(
+        row(1L, 1, "a", 0.5, Timestamp.valueOf("2024-01-01 00:00:00")),
+        row(2L, 2, "b", -1.0, Timestamp.valueOf("2024-01-02 00:00:00")),
+        row(3L, 3, "a", 2.0, Timestamp.valueOf("2024-01-03 12:00:00")),
+        row(4L, 2, "c", null, Timestamp.valueOf("2024-01-04 00:00:00")),
+        row(5L, 4, "a", 1.0),
+        row(6L));
+  }
+}
@@ -0,0 +1,122 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.models.DbObject;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableCopierTest {
+  private static final DbObject ITEMS = new DbObject("items", "select id, name, amount from items order by id", "source");
+
+  private DbConnection source;
+  private DbConnection target;
+  private Connection sourceAlive;
+  private Connection targetAlive;
+
+  @BeforeEach
+  void createDatabases() throws SQLException {
+    source = new DbConnection("source", "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", "h2");
+    target = new DbConnection("target", "jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", "h2");
+    // An in-memory H2 database lives as long as one of its connections is open
+    sourceAlive = ConnectionUtils.connect(source);
+    targetAlive = ConnectionUtils.connect(target);
+    try (var stmt = sourceAlive.createStatement()) {
+      stmt.execute("create table items (id int primary key, name varchar(100), amount decimal(10, 2))");
+      stmt.execute("insert into items select x, 'item ' || x, case when mod(x, 10) = 0 then null else x / 100.0 end"
+          + " from system_range(1, 2000)");
+    }
+  }
+
+  @AfterEach
+  void dropDatabases() throws SQLException {
+    sourceAlive.close();
+    targetAlive.close();
+  }
+
+  @Test
+  void createsTheTargetTableAndCopiesEveryRow() throws SQLException {
+    var result = TableCopier.copy(source, ITEMS, target, "items_copy", TableCopier.Options.defaults(), Map.of());
+
+    assertEquals(2000, result.rows());
+    assertEquals(2000, count("items_copy"));
+    try (var stmt = targetAlive.createStatement();
+         var rs = stmt.executeQuery("select name, amount from items_copy where id in (7, 10) order by id")) {
+      rs.next();
+      assertEquals("item 7", rs.getString(1));
+      assertEquals(0, new BigDecimal("0.07").compareTo(rs.getBigDecimal(2)));
+      rs.next();
+      assertNull(rs.getBigDecimal(2));
+    }
+  }
+
+  @Test
+  void copiesPartialAndExactBatches() throws SQLException {
+    createTarget();
+    for (var batchSize : new int[]{1, 3, 250, 2000, 5000}) {
+      var options = TableCopier.Options.defaults().withBatchSize(batchSize).withQueueDepth(2).withCommitEvery(700).withTruncate(true);
+      var result = TableCopier.copy(source, ITEMS, target, "items", options, Map.of());
+
+      assertEquals(2000, result.rows(), "batch size " + batchSize);
+      assertEquals(2000, count("items"), "batch size " + batchSize);
+    }
+  }
+
+  @Test
+  void appendsUnlessAskedToTruncate() throws SQLException {
+    createTarget();
+    try (var stmt = targetAlive.createStatement()) {
+      stmt.execute("insert into items values (-1, 'existing', null)");
+    }
+
+    TableCopier.copy(source, ITEMS, target, "items", TableCopier.Options.defaults(), Map.of());
+    assertEquals(2001, count("items"));
+
+    var truncate = TableCopier.Options.defaults().withTruncate(true);
+    TableCopier.copy(source, ITEMS, target, "items", truncate, Map.of());
+    assertEquals(2000, count("items"));
+    assertEquals(0, count("items where id = -1"));
+  }
+
+  @Test
+  void reportsTheRowsCommittedBeforeAFailure() throws SQLException {
+    createTarget();
+    try (var stmt = targetAlive.createStatement()) {
+      // Collides with the 17th batch of 100, after three commits of 500 rows
+      stmt.execute("insert into items values (1650, 'existing', null)");
+    }
+
+    var options = TableCopier.Options.defaults().withBatchSize(100).withCommitEvery(500);
+    var e = assertThrows(RuntimeException.class, () -> TableCopier.copy(source, ITEMS, target, "items", options, Map.of()));
+
+    assertTrue(e.getMessage().contains("after 1500 committed rows"), e.getMessage());
+    // The committed rows stay, the uncommitted batches are rolled back
+    assertEquals(1501, count("items"));
+    assertEquals(1500, count("items where id <= 1500"));
+  }
+
+  private void createTarget() throws SQLException {
+    try (var stmt = targetAlive.createStatement()) {
+      stmt.execute("create table items (id int primary key, name varchar(100), amount decimal(10, 2))");
+    }
+  }
+
+  private long count(String from) throws SQLException {
+    try (var stmt = targetAlive.createStatement(); var rs = stmt.executeQuery("select count(*) from " + from)) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+}
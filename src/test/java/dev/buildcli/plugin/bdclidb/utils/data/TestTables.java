@@ -0,0 +1,57 @@
+package dev.buildcli.plugin.bdclidb.utils.data;
+
+import dev.buildcli.plugin.bdclidb.enums.ColumnType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Rows shared by the index and sort tests. Every table has the columns of {@link #SCHEMA}, one for
+ * each storage the indexes and sorts treat differently.
+ */
+final class TestTables {
+  static final Schema SCHEMA = new Schema(new String[]{"id", "n", "name", "score", "created", "amount"}, new ColumnType[]{
+      ColumnType.LONG, ColumnType.INT, ColumnType.STRING, ColumnType.DOUBLE, ColumnType.TIMESTAMP, ColumnType.OBJECT});
+
+  private TestTables() {
+  }
+
+  @SafeVarargs
+  static ColumnarResult table(Map<String, Object>... rows) {
+    var table = new ColumnarResult(SCHEMA);
+    for (var row : rows) {
+      table.add(row);
+    }
+    return table;
+  }
+
+  /**
+   * Rows numbered from 0 with a random {@code n} below {@code distinct} and a name derived from it.
+   */
+  static ColumnarResult randomTable(int size, int distinct) {
+    var random = new Random(size);
+    var table = new ColumnarResult(SCHEMA);
+    for (var i = 0; i < size; i++) {
+      var n = random.nextInt(distinct);
+      table.add(row((long) i, n, "name-" + (char) ('a' + n % 26)));
+    }
+    return table;
+  }
+
+  /**
+   * A row with {@code values} in schema order; columns past the last value are null.
+   */
+  static Map<String, Object> row(Object... values) {
+    var row = new HashMap<String, Object>();
+    for (var i = 0; i < values.length; i++) {
+      row.put(SCHEMA.name(i), values[i]);
+    }
+    return row;
+  }
+
+  static List<Object> ids(List<Map<String, Object>> rows) {
+    return rows.stream().map(r -> r.get("id")).toList();
+  }
+}
@@ -0,0 +1,148 @@
+package dev.buildcli.plugin.bdclidb.utils.pool;
+
+import dev.buildcli.plugin.bdclidb.models.DbConnection;
+import dev.buildcli.plugin.bdclidb.utils.ConnectionUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+  private String url;
+  private Connection keepAlive;
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void createDatabase() throws SQLException {
+    url = "jdbc:h2:mem:" + UUID.randomUUID();
+    // An in-memory H2 database lives as long as one of its connections is open
+    keepAlive = ConnectionUtils.connect(connection(Map.of()));
+    try (var stmt = keepAlive.createStatement()) {
+      stmt.execute("create table users (id int primary key)");
+    }
+  }
+
+  @AfterEach
+  void dropDatabase() throws SQLException {
+    if (pool != null) {
+      pool.close();
+    }
+    keepAlive.close();
+  }
+
+  @Test
+  void lendsTheMostRecentlyReleasedConnectionFirst() {
+    pool = new ConnectionPool(connection(Map.of("poolMax", "2")));
+    var first = pool.borrow();
+    var second = pool.borrow();
+    var warm = second.connection();
+    first.close();
+    second.close();
+
+    try (var pooled = pool.borrow()) {
+      assertSame(warm, pooled.connection());
+    }
+    assertEquals(2, pool.getTotal());
+    assertEquals(2, pool.getIdle());
+  }
+
+  @Test
+  void failsWhenNoConnectionIsReleasedWithinTheBorrowTimeout() {
+    pool = new ConnectionPool(connection(Map.of("poolMax", "1", "poolBorrowTimeout", "200ms")));
+    try (var held = pool.borrow()) {
+      assertNull(pool.tryBorrow(Duration.ZERO));
+      var e = assertThrows(IllegalStateException.class, pool::borrow);
+      assertTrue(e.getMessage().contains("poolMax"));
+    }
+
+    try (var pooled = pool.borrow()) {
+      assertEquals(1, pool.getTotal());
+    }
+  }
+
+  @Test
+  void rollsBackWhatTheBorrowerLeftOpen() throws SQLException {
+    pool = new ConnectionPool(connection(Map.of("poolMax", "1")));
+    try (var pooled = pool.borrow()) {
+      pooled.connection().setAutoCommit(false);
+      try (var stmt = pooled.connection().createStatement()) {
+        stmt.execute("insert into users values (1)");
+      }
+    }
+
+    try (var pooled = pool.borrow(); var stmt = pooled.connection().createStatement();
+         var rs = stmt.executeQuery("select count(*) from users")) {
+      assertTrue(pooled.connection().getAutoCommit());
+      rs.next();
+      assertEquals(0, rs.getInt(1));
+    }
+  }
+
+  @Test
+  void replacesConnectionsThatWereClosed() throws SQLException {
+    pool = new ConnectionPool(connection(Map.of("poolMax", "1")));
+    Connection closed;
+    try (var pooled = pool.borrow()) {
+      closed = pooled.connection();
+      closed.close();
+    }
+    assertEquals(0, pool.getTotal());
+
+    try (var pooled = pool.borrow()) {
+      assertNotSame(closed, pooled.connection());
+      assertEquals(1, pool.getTotal());
+    }
+  }
+
+  @Test
+  void opensPoolMinConnectionsUpFront() {
+    pool = new ConnectionPool(connection(Map.of("poolMin", "2", "poolMax", "4")));
+    awaitTrue(() -> pool.getIdle() == 2);
+    assertEquals(2, pool.getTotal());
+  }
+
+  @Test
+  void closesIdleConnectionsDownToPoolMin() {
+    pool = new ConnectionPool(connection(Map.of("poolMin", "1", "poolMax", "3", "poolIdleTimeout", "500ms")));
+    var first = pool.borrow();
+    var second = pool.borrow();
+    var third = pool.borrow();
+    first.close();
+    second.close();
+    third.close();
+    assertEquals(3, pool.getTotal());
+
+    awaitTrue(() -> pool.getTotal() == 1);
+    assertEquals(1, pool.getIdle());
+  }
+
+  private DbConnection connection(Map<String, String> options) {
+    return new DbConnection("test", url, "sa", "", "h2", options);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "Timed out waiting for the pool");
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
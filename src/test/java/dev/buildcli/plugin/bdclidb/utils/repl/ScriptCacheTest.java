@@ -0,0 +1,110 @@
+package dev.buildcli.plugin.bdclidb.utils.repl;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScriptCacheTest {
+  private final Binding binding = new Binding();
+
+  @Test
+  void reusesTheCompiledClassOfTheSameSnippet() {
+    var cache = cache(4);
+    binding.setVariable("x", 2);
+
+    var first = cache.create("x * 21", binding);
+    var second = cache.create("\n  x * 21  \n", binding);
+
+    assertSame(first.getClass(), second.getClass());
+    assertNotSame(first, second);
+    assertEquals(42, second.run());
+    assertEquals(new ScriptCache.Stats(1, 1, 0, 1, 4), cache.stats());
+  }
+
+  @Test
+  void compilesDifferentSnippetsSeparately() {
+    var cache = cache(4);
+
+    var first = cache.create("1 + 1", binding);
+    var second = cache.create("1 + 2", binding);
+
+    assertNotSame(first.getClass(), second.getClass());
+    assertEquals(3, second.run());
+    assertEquals(new ScriptCache.Stats(0, 2, 0, 2, 4), cache.stats());
+    assertEquals(0, cache.stats().hitRate());
+  }
+
+  @Test
+  void keepsWhitespaceInsideTheSnippet() {
+    var cache = cache(4);
+
+    assertEquals("a  \nb", cache.create("'''a  \nb'''", binding).run());
+    assertEquals("a\nb", cache.create("'''a\nb'''", binding).run());
+    assertEquals(2, cache.stats().misses());
+  }
+
+  @Test
+  void compilesTheOriginalSource() {
+    var cache = cache(4);
+
+    var e = assertThrows(Exception.class, () -> cache.create("\n\nundefinedVariable", binding).run());
+    assertTrue(Arrays.stream(e.getStackTrace()).anyMatch(frame -> frame.getLineNumber() == 3));
+  }
+
+  @Test
+  void evictsTheLeastRecentlyUsedClass() {
+    var cache = cache(2);
+    var one = cache.create("1", binding).getClass();
+    var two = cache.create("2", binding).getClass();
+    // Touching "1" makes "2" the eldest entry
+    cache.create("1", binding);
+    var three = cache.create("3", binding).getClass();
+
+    assertEquals(new ScriptCache.Stats(1, 3, 1, 2, 2), cache.stats());
+    var loaded = loadedClasses(three);
+    assertTrue(loaded.contains(one));
+    assertFalse(loaded.contains(two));
+    assertTrue(loaded.contains(three));
+
+    assertSame(one, cache.create("1", binding).getClass());
+    assertNotSame(two, cache.create("2", binding).getClass());
+  }
+
+  @Test
+  void forgetsScriptClassesButKeepsDeclaredClasses() {
+    var cache = cache(1);
+    cache.create("class Point { int x }\nnull", binding).run();
+    var script = cache.create("new Point(x: 3).x", binding);
+    assertEquals(3, script.run());
+
+    cache.clear();
+
+    var loaded = loadedClasses(script.getClass());
+    assertFalse(loaded.contains(script.getClass()));
+    assertTrue(loaded.stream().anyMatch(type -> type.getName().equals("Point")));
+    assertEquals(0, cache.stats().size());
+    assertEquals(4, cache.create("new Point(x: 4).x", binding).run());
+  }
+
+  private static ScriptCache cache(int capacity) {
+    return new ScriptCache(ScriptCacheTest.class.getClassLoader(), new CompilerConfiguration(), capacity);
+  }
+
+  /**
+   * Classes held by the cache's class loader, the parent of the loader each script is compiled in.
+   */
+  private static List<Class<?>> loadedClasses(Class<?> scriptClass) {
+    return List.of(((GroovyClassLoader) scriptClass.getClassLoader().getParent()).getLoadedClasses());
+  }
+}